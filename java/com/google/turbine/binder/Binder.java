@@ -21,6 +21,7 @@ import static java.util.Objects.requireNonNull;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
 import com.google.turbine.binder.CompUnitPreprocessor.PreprocessedCompUnit;
 import com.google.turbine.binder.Processing.ProcessorInfo;
 import com.google.turbine.binder.Resolve.CanonicalResolver;
@@ -37,7 +38,9 @@ import com.google.turbine.binder.bound.TypeBoundClass;
 import com.google.turbine.binder.bound.TypeBoundClass.FieldInfo;
 import com.google.turbine.binder.bytecode.BytecodeBoundClass;
 import com.google.turbine.binder.env.CompoundEnv;
+import com.google.turbine.binder.env.ConcurrentLazyEnv;
 import com.google.turbine.binder.env.Env;
+import com.google.turbine.binder.env.FilteredEnv;
 import com.google.turbine.binder.env.LazyEnv;
 import com.google.turbine.binder.env.SimpleEnv;
 import com.google.turbine.binder.lookup.CanonicalSymbolResolver;
@@ -45,6 +48,7 @@ import com.google.turbine.binder.lookup.CompoundScope;
 import com.google.turbine.binder.lookup.CompoundTopLevelIndex;
 import com.google.turbine.binder.lookup.ImportIndex;
 import com.google.turbine.binder.lookup.ImportScope;
+import com.google.turbine.binder.lookup.LookupStatistics;
 import com.google.turbine.binder.lookup.MemberImportIndex;
 import com.google.turbine.binder.lookup.Scope;
 import com.google.turbine.binder.lookup.SimpleTopLevelIndex;
@@ -61,12 +65,18 @@ import com.google.turbine.diag.TurbineLog;
 import com.google.turbine.model.Const;
 import com.google.turbine.model.TurbineFlag;
 import com.google.turbine.parallel.TurbineExecutor;
+import com.google.turbine.processing.TurbineTypes;
+import com.google.turbine.profile.Profiler;
 import com.google.turbine.tree.Tree;
 import com.google.turbine.tree.Tree.CompUnit;
+import com.google.turbine.tree.Tree.ImportDecl;
 import com.google.turbine.tree.Tree.ModDecl;
 import com.google.turbine.type.Type;
 import java.time.Duration;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import javax.annotation.processing.Processor;
 import javax.tools.Diagnostic;
 import org.jspecify.annotations.Nullable;
@@ -145,77 +155,157 @@ public final class Binder {
       ClassPath classpath,
       ClassPath bootclasspath,
       Optional<String> moduleVersion) {
-    ImmutableList<PreprocessedCompUnit> preProcessedUnits =
-        CompUnitPreprocessor.preprocess(log, units);
+    return bind(
+        executor,
+        log,
+        units,
+        generatedSources,
+        generatedClasses,
+        classpath,
+        bootclasspath,
+        moduleVersion,
+        /* reused= */ ImmutableMap.of());
+  }
 
-    SimpleEnv<ClassSymbol, SourceBoundClass> ienv = bindSourceBoundClasses(preProcessedUnits);
+  /**
+   * Binds the given compilation units, reusing already bound classes from a previous annotation
+   * processing round. The reused classes must include all of the classes in any compilation unit
+   * they belong to, and may not include modules. See {@link ReusableClasses}.
+   */
+  static BindingResult bind(
+      TurbineExecutor executor,
+      TurbineLog log,
+      ImmutableList<CompUnit> units,
+      ImmutableMap<String, SourceFile> generatedSources,
+      ImmutableMap<String, byte[]> generatedClasses,
+      ClassPath classpath,
+      ClassPath bootclasspath,
+      Optional<String> moduleVersion,
+      ImmutableMap<ClassSymbol, SourceTypeBoundClass> reused) {
+    Profiler profiler = executor.profiler();
+
+    ImmutableList<PreprocessedCompUnit> preProcessedUnits;
+    SimpleEnv<ClassSymbol, SourceBoundClass> ienv;
+    try (Profiler.Span unused = profiler.span("Binder.preprocess")) {
+      preProcessedUnits = CompUnitPreprocessor.preprocess(log, units);
+      ienv = bindSourceBoundClasses(preProcessedUnits);
+    }
 
-    ImmutableSet<ClassSymbol> syms = ienv.asMap().keySet();
+    ImmutableSet<ClassSymbol> allSyms = ienv.asMap().keySet();
+    ImmutableSet<ClassSymbol> syms = allSyms;
+    if (!reused.isEmpty()) {
+      syms = Sets.difference(allSyms, reused.keySet()).immutableCopy();
+      ImmutableList.Builder<PreprocessedCompUnit> toBind = ImmutableList.builder();
+      for (PreprocessedCompUnit unit : preProcessedUnits) {
+        if (unit.types().isEmpty() || !reused.containsKey(unit.types().get(0).sym())) {
+          toBind.add(unit);
+        }
+      }
+      preProcessedUnits = toBind.build();
+    }
 
+    // Lookups skip the layers whose package filters rule out the name being looked up, and the
+    // number of lookups in each layer is recorded in the profile, if there is one.
+    LookupStatistics lookupStatistics =
+        profiler.enabled() ? new LookupStatistics() : LookupStatistics.DISABLED;
     CompoundTopLevelIndex tli =
         CompoundTopLevelIndex.of(
-            SimpleTopLevelIndex.of(ienv.asMap().keySet()),
-            bootclasspath.index(),
-            classpath.index());
+            lookupStatistics,
+            ImmutableMap.of(
+                "index.sources", SimpleTopLevelIndex.of(ienv.asMap().keySet()),
+                "index.bootclasspath", bootclasspath.index(),
+                "index.classpath", classpath.index()));
 
     CompoundEnv<ClassSymbol, BytecodeBoundClass> classPathEnv =
-        CompoundEnv.of(classpath.env()).append(bootclasspath.env());
+        CompoundEnv.of(filteredEnv(classpath, lookupStatistics.layer("env.classpath")))
+            .append(filteredEnv(bootclasspath, lookupStatistics.layer("env.bootclasspath")));
+
+    // Classes from the classpath, and any classes reused from a previous round, which are already
+    // completely bound.
+    CompoundEnv<ClassSymbol, TypeBoundClass> baseEnv =
+        CompoundEnv.<ClassSymbol, TypeBoundClass>of(classPathEnv);
+    if (!reused.isEmpty()) {
+      baseEnv = baseEnv.append(new SimpleEnv<>(reused));
+    }
 
     CompoundEnv<ModuleSymbol, ModuleInfo> classPathModuleEnv =
         CompoundEnv.of(classpath.moduleEnv()).append(bootclasspath.moduleEnv());
 
-    BindPackagesResult bindPackagesResult =
-        bindPackages(log, ienv, tli, preProcessedUnits, classPathEnv);
+    BindPackagesResult bindPackagesResult;
+    try (Profiler.Span unused = profiler.span("Binder.bindPackages")) {
+      bindPackagesResult = bindPackages(executor, log, ienv, tli, preProcessedUnits, classPathEnv);
+    }
 
     SimpleEnv<ClassSymbol, PackageSourceBoundClass> psenv = bindPackagesResult.classes;
     SimpleEnv<ModuleSymbol, PackageSourceBoundModule> modules = bindPackagesResult.modules;
 
-    Env<ClassSymbol, SourceHeaderBoundClass> henv = bindHierarchy(log, syms, psenv, classPathEnv);
-
-    Env<ClassSymbol, SourceTypeBoundClass> tenv =
-        bindTypes(
-            executor,
-            log,
-            syms,
-            henv,
-            CompoundEnv.<ClassSymbol, HeaderBoundClass>of(classPathEnv).append(henv));
-
-    tenv = PermitsBinder.bindPermits(syms, tenv);
-
-    tenv =
-        constants(
-            syms,
-            tenv,
-            CompoundEnv.<ClassSymbol, TypeBoundClass>of(classPathEnv).append(tenv),
-            log);
-    tenv =
-        disambiguateTypeAnnotations(
-            executor,
-            syms,
-            tenv,
-            CompoundEnv.<ClassSymbol, TypeBoundClass>of(classPathEnv).append(tenv),
-            log);
-    tenv =
-        canonicalizeTypes(
-            executor,
-            syms,
-            tenv,
-            CompoundEnv.<ClassSymbol, TypeBoundClass>of(classPathEnv).append(tenv),
-            log);
-
-    ImmutableList<SourceModuleInfo> boundModules =
-        bindModules(
-            modules,
-            CompoundEnv.<ClassSymbol, TypeBoundClass>of(classPathEnv).append(tenv),
-            classPathModuleEnv,
-            moduleVersion,
-            log);
+    Env<ClassSymbol, SourceHeaderBoundClass> henv;
+    try (Profiler.Span unused = profiler.span("Binder.bindHierarchy")) {
+      henv = bindHierarchy(executor, log, syms, psenv, baseEnv);
+    }
+
+    Env<ClassSymbol, SourceTypeBoundClass> tenv;
+    try (Profiler.Span unused = profiler.span("Binder.bindTypes")) {
+      tenv =
+          bindTypes(
+              executor,
+              log,
+              syms,
+              henv,
+              CompoundEnv.<ClassSymbol, HeaderBoundClass>of(baseEnv).append(henv));
+    }
+
+    try (Profiler.Span unused = profiler.span("Binder.bindPermits")) {
+      tenv = PermitsBinder.bindPermits(syms, tenv);
+    }
+
+    try (Profiler.Span unused = profiler.span("Binder.constants")) {
+      tenv =
+          constants(
+              executor,
+              syms,
+              tenv,
+              CompoundEnv.<ClassSymbol, TypeBoundClass>of(baseEnv).append(tenv),
+              log);
+    }
+    try (Profiler.Span unused = profiler.span("Binder.disambiguateTypeAnnotations")) {
+      tenv =
+          disambiguateTypeAnnotations(
+              executor,
+              syms,
+              tenv,
+              CompoundEnv.<ClassSymbol, TypeBoundClass>of(baseEnv).append(tenv),
+              log);
+    }
+    try (Profiler.Span unused = profiler.span("Binder.canonicalizeTypes")) {
+      tenv =
+          canonicalizeTypes(
+              executor,
+              syms,
+              tenv,
+              CompoundEnv.<ClassSymbol, TypeBoundClass>of(baseEnv).append(tenv),
+              log);
+    }
+
+    ImmutableList<SourceModuleInfo> boundModules;
+    try (Profiler.Span unused = profiler.span("Binder.bindModules")) {
+      boundModules =
+          bindModules(
+              modules,
+              CompoundEnv.<ClassSymbol, TypeBoundClass>of(baseEnv).append(tenv),
+              classPathModuleEnv,
+              moduleVersion,
+              log);
+    }
 
     ImmutableMap.Builder<ClassSymbol, SourceTypeBoundClass> result = ImmutableMap.builder();
-    for (ClassSymbol sym : syms) {
-      result.put(sym, tenv.getNonNull(sym));
+    for (ClassSymbol sym : allSyms) {
+      SourceTypeBoundClass info = reused.get(sym);
+      result.put(sym, info != null ? info : tenv.getNonNull(sym));
     }
 
+    recordLookups(profiler, lookupStatistics);
+
     return new BindingResult(
         result.buildOrThrow(),
         boundModules,
@@ -226,6 +316,27 @@ public final class Binder {
         Statistics.empty());
   }
 
+  /** Returns an env for the classes in {@code classPath}, filtered by the packages in its index. */
+  private static FilteredEnv<BytecodeBoundClass> filteredEnv(
+      ClassPath classPath, LookupStatistics.Layer statistics) {
+    return FilteredEnv.of(classPath.env(), classPath.index().packageFilter(), statistics);
+  }
+
+  /** Records the number of lookups in each layer of the classpath as profiler counters. */
+  private static void recordLookups(Profiler profiler, LookupStatistics lookupStatistics) {
+    if (!profiler.enabled()) {
+      return;
+    }
+    for (LookupStatistics.Layer layer : lookupStatistics.layers()) {
+      profiler.counter(
+          "Binder.lookups." + layer.name(),
+          ImmutableMap.of(
+              "found", layer.lookups() - layer.skipped() - layer.misses(),
+              "skipped", layer.skipped(),
+              "misses", layer.misses()));
+    }
+  }
+
   /** Records enclosing declarations of member classes, and group classes by compilation unit. */
   static SimpleEnv<ClassSymbol, SourceBoundClass> bindSourceBoundClasses(
       ImmutableList<PreprocessedCompUnit> units) {
@@ -256,6 +367,7 @@ public final class Binder {
 
   /** Initializes scopes for compilation unit and package-level lookup. */
   private static BindPackagesResult bindPackages(
+      TurbineExecutor executor,
       TurbineLog log,
       Env<ClassSymbol, SourceBoundClass> ienv,
       TopLevelIndex tli,
@@ -264,30 +376,29 @@ public final class Binder {
 
     SimpleEnv.Builder<ClassSymbol, PackageSourceBoundClass> env = SimpleEnv.builder();
     SimpleEnv.Builder<ModuleSymbol, PackageSourceBoundModule> modules = SimpleEnv.builder();
-    CompoundScope topLevel = CompoundScope.base(tli.scope());
+    CompoundScope base = CompoundScope.base(tli.scope());
     Scope javaLang = tli.lookupPackage(ImmutableList.of("java", "lang"));
     if (javaLang == null) {
       log.add(TurbineDiagnostic.format(Diagnostic.Kind.ERROR, ErrorKind.NO_JAVA_LANG));
     } else {
-      topLevel = topLevel.append(javaLang);
+      base = base.append(javaLang);
     }
-    for (PreprocessedCompUnit unit : units) {
-      Scope packageScope = tli.lookupPackage(unit.packageName());
-      CanonicalSymbolResolver importResolver =
-          new CanonicalResolver(
-              unit.packageName(),
-              CompoundEnv.<ClassSymbol, BoundClass>of(classPathEnv).append(ienv));
-      ImportScope importScope =
-          ImportIndex.create(log.withSource(unit.source()), importResolver, tli, unit.imports());
-      ImportScope wildImportScope = WildImportIndex.create(importResolver, tli, unit.imports());
-      MemberImportIndex memberImports =
-          new MemberImportIndex(unit.source(), importResolver, tli, unit.imports());
-      ImportScope scope = ImportScope.fromScope(topLevel).append(wildImportScope);
-      // Can be null if we're compiling a package-info.java for an empty package
-      if (packageScope != null) {
-        scope = scope.append(ImportScope.fromScope(packageScope));
-      }
-      scope = scope.append(importScope);
+    CompoundScope topLevel = base;
+    CompoundEnv<ClassSymbol, BoundClass> importEnv =
+        CompoundEnv.<ClassSymbol, BoundClass>of(classPathEnv).append(ienv);
+    // The import scopes are resolved lazily, so any diagnostics for them are reported to the
+    // shared log by whichever phase first looks up the imported names.
+    Map<ImportsKey, SharedImports> sharedImports = new ConcurrentHashMap<>();
+    ImmutableList<UnitScope> scopes =
+        executor.map(
+            "Binder.bindPackages",
+            units,
+            unit -> unit.imports().size(),
+            unit -> bindPackage(log, unit, tli, topLevel, importEnv, sharedImports));
+    for (UnitScope unitScope : scopes) {
+      PreprocessedCompUnit unit = unitScope.unit();
+      ImportScope scope = unitScope.scope();
+      MemberImportIndex memberImports = unitScope.memberImports();
       if (unit.module().isPresent()) {
         ModDecl module = unit.module().get();
         modules.put(
@@ -301,12 +412,160 @@ public final class Binder {
     return new BindPackagesResult(env.build(), modules.build());
   }
 
+  /** The scope of a compilation unit, including its imports. */
+  private record UnitScope(
+      PreprocessedCompUnit unit, ImportScope scope, MemberImportIndex memberImports) {}
+
+  private static UnitScope bindPackage(
+      TurbineLog log,
+      PreprocessedCompUnit unit,
+      TopLevelIndex tli,
+      CompoundScope topLevel,
+      CompoundEnv<ClassSymbol, BoundClass> importEnv,
+      Map<ImportsKey, SharedImports> sharedImports) {
+    SharedImports shared =
+        sharedImports.computeIfAbsent(
+            ImportsKey.of(unit), k -> SharedImports.create(unit, tli, topLevel, importEnv));
+    ImportScope importScope =
+        ImportIndex.create(log.withSource(unit.source()), unit.imports(), shared.resolutions());
+    MemberImportIndex memberImports = shared.memberImports();
+    if (memberImports == null) {
+      memberImports =
+          new MemberImportIndex(unit.source(), shared.importResolver(), tli, unit.imports());
+    }
+    return new UnitScope(unit, shared.scope().append(importScope), memberImports);
+  }
+
+  /**
+   * Identifies compilation units whose imports resolve the same way: units in the same package,
+   * with the same imports in the same order. Generated code often has many such units.
+   */
+  private record ImportsKey(String packageName, ImmutableList<ImportKey> imports) {
+    static ImportsKey of(PreprocessedCompUnit unit) {
+      ImmutableList.Builder<ImportKey> imports = ImmutableList.builder();
+      for (ImportDecl i : unit.imports()) {
+        ImmutableList.Builder<String> type = ImmutableList.builder();
+        for (Tree.Ident ident : i.type()) {
+          type.add(ident.value());
+        }
+        imports.add(new ImportKey(type.build(), i.stat(), i.wild()));
+      }
+      return new ImportsKey(unit.packageName(), imports.build());
+    }
+  }
+
+  /** An import declaration, without its source position. */
+  private record ImportKey(ImmutableList<String> type, boolean stat, boolean wild) {}
+
+  /**
+   * The parts of a compilation unit's scope that can be shared between units with the same {@link
+   * ImportsKey}. Anything that reports diagnostics at a position in the unit is created separately
+   * for each unit.
+   *
+   * @param scope the scope for on-demand imports, the unit's package, and the top level
+   * @param memberImports the member imports, or {@code null} if they need to be created for each
+   *     unit because there are static on-demand imports, which report errors eagerly
+   */
+  private record SharedImports(
+      CanonicalSymbolResolver importResolver,
+      ImportScope scope,
+      ImportIndex.Resolutions resolutions,
+      @Nullable MemberImportIndex memberImports) {
+
+    static SharedImports create(
+        PreprocessedCompUnit unit,
+        TopLevelIndex tli,
+        CompoundScope topLevel,
+        CompoundEnv<ClassSymbol, BoundClass> importEnv) {
+      Scope packageScope = tli.lookupPackage(unit.packageName());
+      CanonicalSymbolResolver importResolver =
+          new CanonicalResolver(unit.packageName(), importEnv);
+      ImportScope wildImportScope = WildImportIndex.create(importResolver, tli, unit.imports());
+      ImportScope scope = ImportScope.fromScope(topLevel).append(wildImportScope);
+      // Can be null if we're compiling a package-info.java for an empty package
+      if (packageScope != null) {
+        scope = scope.append(ImportScope.fromScope(packageScope));
+      }
+      MemberImportIndex memberImports = null;
+      if (unit.imports().stream().noneMatch(i -> i.stat() && i.wild())) {
+        memberImports = new MemberImportIndex(unit.source(), importResolver, tli, unit.imports());
+      }
+      return new SharedImports(
+          importResolver,
+          scope,
+          ImportIndex.resolve(importResolver, tli, unit.imports()),
+          memberImports);
+    }
+  }
+
   /** Binds the type hierarchy (superclasses and interfaces) for all classes in the compilation. */
   private static Env<ClassSymbol, SourceHeaderBoundClass> bindHierarchy(
+      TurbineExecutor executor,
       TurbineLog log,
-      Iterable<ClassSymbol> syms,
+      ImmutableSet<ClassSymbol> syms,
       final SimpleEnv<ClassSymbol, PackageSourceBoundClass> psenv,
-      CompoundEnv<ClassSymbol, BytecodeBoundClass> classPathEnv) {
+      Env<ClassSymbol, ? extends HeaderBoundClass> classPathEnv) {
+    ImmutableMap<ClassSymbol, TurbineLog> logs = classLogs(syms);
+    ConcurrentLazyEnv<ClassSymbol, HeaderBoundClass, SourceHeaderBoundClass> env =
+        new ConcurrentLazyEnv<>(
+            hierarchyCompleters(sym -> requireNonNull(logs.get(sym)), syms, psenv), classPathEnv);
+    ImmutableMap<ClassSymbol, SourceHeaderBoundClass> bound;
+    try {
+      bound = executor.toMap("HierarchyBinder.bind", syms.asList(), env::getNonNull);
+    } catch (RuntimeException e) {
+      if (!env.cyclic()) {
+        throw e;
+      }
+      // Threads completing classes in a cycle waited for each other, and the diagnostics for the
+      // cycle depend on which of them got there first, so start over and complete them serially.
+      return bindHierarchySerially(log, syms, psenv, classPathEnv);
+    }
+    addAll(log, logs);
+    return new SimpleEnv<>(bound);
+  }
+
+  /**
+   * Returns a separate log for each class, so diagnostics from a concurrent attempt at a phase can
+   * be discarded if it is abandoned, and reported in a deterministic order if it isn't.
+   */
+  private static ImmutableMap<ClassSymbol, TurbineLog> classLogs(ImmutableSet<ClassSymbol> syms) {
+    ImmutableMap.Builder<ClassSymbol, TurbineLog> logs = ImmutableMap.builder();
+    for (ClassSymbol sym : syms) {
+      logs.put(sym, new TurbineLog());
+    }
+    return logs.buildOrThrow();
+  }
+
+  /** Reports the diagnostics from the logs returned by {@link #classLogs}. */
+  private static void addAll(TurbineLog log, ImmutableMap<ClassSymbol, TurbineLog> logs) {
+    for (TurbineLog classLog : logs.values()) {
+      for (TurbineDiagnostic diagnostic : classLog.diagnostics()) {
+        log.add(diagnostic);
+      }
+    }
+  }
+
+  private static Env<ClassSymbol, SourceHeaderBoundClass> bindHierarchySerially(
+      TurbineLog log,
+      ImmutableSet<ClassSymbol> syms,
+      SimpleEnv<ClassSymbol, PackageSourceBoundClass> psenv,
+      Env<ClassSymbol, ? extends HeaderBoundClass> classPathEnv) {
+    LazyEnv<ClassSymbol, HeaderBoundClass, SourceHeaderBoundClass> env =
+        new LazyEnv<>(hierarchyCompleters(sym -> log, syms, psenv), classPathEnv);
+    // LazyEnv isn't thread-safe, so finish lazy completion here and return a thread-safe SimpleEnv.
+    ImmutableMap.Builder<ClassSymbol, SourceHeaderBoundClass> builder = ImmutableMap.builder();
+    for (ClassSymbol sym : syms) {
+      builder.put(sym, env.getNonNull(sym));
+    }
+    return new SimpleEnv<>(builder.buildOrThrow());
+  }
+
+  private static ImmutableMap<
+          ClassSymbol, LazyEnv.Completer<ClassSymbol, HeaderBoundClass, SourceHeaderBoundClass>>
+      hierarchyCompleters(
+          Function<ClassSymbol, TurbineLog> logs,
+          Iterable<ClassSymbol> syms,
+          SimpleEnv<ClassSymbol, PackageSourceBoundClass> psenv) {
     ImmutableMap.Builder<
             ClassSymbol, LazyEnv.Completer<ClassSymbol, HeaderBoundClass, SourceHeaderBoundClass>>
         completers = ImmutableMap.builder();
@@ -318,18 +577,12 @@ public final class Binder {
             public SourceHeaderBoundClass complete(
                 Env<ClassSymbol, HeaderBoundClass> henv, ClassSymbol sym) {
               PackageSourceBoundClass base = psenv.getNonNull(sym);
-              return HierarchyBinder.bind(log.withSource(base.source()), sym, base, henv);
+              return HierarchyBinder.bind(
+                  logs.apply(sym).withSource(base.source()), sym, base, henv);
             }
           });
     }
-    LazyEnv<ClassSymbol, HeaderBoundClass, SourceHeaderBoundClass> env =
-        new LazyEnv<>(completers.buildOrThrow(), classPathEnv);
-    // LazyEnv isn't thread-safe, so finish lazy completion here and return a thread-safe SimpleEnv.
-    ImmutableMap.Builder<ClassSymbol, SourceHeaderBoundClass> builder = ImmutableMap.builder();
-    for (ClassSymbol sym : syms) {
-      builder.put(sym, env.getNonNull(sym));
-    }
-    return new SimpleEnv<>(builder.buildOrThrow());
+    return completers.buildOrThrow();
   }
 
   private static Env<ClassSymbol, SourceTypeBoundClass> bindTypes(
@@ -340,7 +593,9 @@ public final class Binder {
       Env<ClassSymbol, HeaderBoundClass> henv) {
     return new SimpleEnv<>(
         executor.toMap(
+            "Binder.bindTypes",
             syms.asList(),
+            sym -> shenv.getNonNull(sym).decl().members().size(),
             sym -> {
               SourceHeaderBoundClass base = shenv.getNonNull(sym);
               return TypeBinder.bind(log.withSource(base.source()), henv, sym, base);
@@ -355,6 +610,7 @@ public final class Binder {
       TurbineLog log) {
     return new SimpleEnv<>(
         executor.toMap(
+            "Binder.canonicalizeTypes",
             syms.asList(),
             sym -> {
               SourceTypeBoundClass base = stenv.getNonNull(sym);
@@ -401,14 +657,77 @@ public final class Binder {
   }
 
   private static Env<ClassSymbol, SourceTypeBoundClass> constants(
+      TurbineExecutor executor,
       ImmutableSet<ClassSymbol> syms,
       Env<ClassSymbol, SourceTypeBoundClass> env,
       CompoundEnv<ClassSymbol, TypeBoundClass> baseEnv,
       TurbineLog log) {
+    ImmutableMap<ClassSymbol, TurbineLog> logs = classLogs(syms);
+    ConcurrentLazyEnv<FieldSymbol, Const.Value, Const.Value> constenv =
+        new ConcurrentLazyEnv<>(
+            constCompleters(sym -> requireNonNull(logs.get(sym)), syms, env, baseEnv),
+            SimpleEnv.<FieldSymbol, Const.Value>builder().build());
+    ImmutableMap<ClassSymbol, SourceTypeBoundClass> bound;
+    try {
+      bound =
+          executor.toMap(
+              "ConstBinder.bind",
+              syms.asList(),
+              sym -> env.getNonNull(sym).fields().size(),
+              sym -> bindConstants(constenv, sym, env, baseEnv, requireNonNull(logs.get(sym))));
+    } catch (RuntimeException e) {
+      if (!constenv.cyclic()) {
+        throw e;
+      }
+      // Threads evaluating fields whose initializers refer to each other waited for each other, and
+      // which field in the cycle observes that depends on which thread got there first, so start
+      // over and evaluate them serially.
+      return constantsSerially(syms, env, baseEnv, log);
+    }
+    addAll(log, logs);
+    return new SimpleEnv<>(bound);
+  }
+
+  private static Env<ClassSymbol, SourceTypeBoundClass> constantsSerially(
+      ImmutableSet<ClassSymbol> syms,
+      Env<ClassSymbol, SourceTypeBoundClass> env,
+      CompoundEnv<ClassSymbol, TypeBoundClass> baseEnv,
+      TurbineLog log) {
+    Env<FieldSymbol, Const.Value> constenv =
+        new LazyEnv<>(
+            constCompleters(sym -> log, syms, env, baseEnv),
+            SimpleEnv.<FieldSymbol, Const.Value>builder().build());
+
+    SimpleEnv.Builder<ClassSymbol, SourceTypeBoundClass> builder = SimpleEnv.builder();
+    for (ClassSymbol sym : syms) {
+      builder.put(sym, bindConstants(constenv, sym, env, baseEnv, log));
+    }
+    return builder.build();
+  }
+
+  private static SourceTypeBoundClass bindConstants(
+      Env<FieldSymbol, Const.Value> constenv,
+      ClassSymbol sym,
+      Env<ClassSymbol, SourceTypeBoundClass> env,
+      CompoundEnv<ClassSymbol, TypeBoundClass> baseEnv,
+      TurbineLog log) {
+    SourceTypeBoundClass base = env.getNonNull(sym);
+    return new ConstBinder(constenv, sym, baseEnv, base, log.withSource(base.source())).bind();
+  }
 
-    // Prepare to lazily evaluate constant fields in each compilation unit.
-    // The laziness is necessary since constant fields can reference other
-    // constant fields.
+  /**
+   * Prepares to lazily evaluate constant fields in each compilation unit. The laziness is necessary
+   * since constant fields can reference other constant fields.
+   *
+   * <p>The completers are combined with an environment of constant fields in the classpath, which
+   * don't require evaluation.
+   */
+  private static ImmutableMap<FieldSymbol, LazyEnv.Completer<FieldSymbol, Const.Value, Const.Value>>
+      constCompleters(
+          Function<ClassSymbol, TurbineLog> logs,
+          ImmutableSet<ClassSymbol> syms,
+          Env<ClassSymbol, SourceTypeBoundClass> env,
+          CompoundEnv<ClassSymbol, TypeBoundClass> baseEnv) {
     ImmutableMap.Builder<FieldSymbol, LazyEnv.Completer<FieldSymbol, Const.Value, Const.Value>>
         completers = ImmutableMap.builder();
     for (ClassSymbol sym : syms) {
@@ -417,24 +736,11 @@ public final class Binder {
         if (!isConst(field)) {
           continue;
         }
-        completers.put(field.sym(), new LazyConstCompleter(sym, info, baseEnv, field, log));
+        completers.put(
+            field.sym(), new LazyConstCompleter(sym, info, baseEnv, field, logs.apply(sym)));
       }
     }
-
-    // Create an environment of constant field values that combines
-    // lazily evaluated fields in the current compilation unit with
-    // constant fields in the classpath (which don't require evaluation).
-    Env<FieldSymbol, Const.Value> constenv =
-        new LazyEnv<>(
-            completers.buildOrThrow(), SimpleEnv.<FieldSymbol, Const.Value>builder().build());
-
-    SimpleEnv.Builder<ClassSymbol, SourceTypeBoundClass> builder = SimpleEnv.builder();
-    for (ClassSymbol sym : syms) {
-      SourceTypeBoundClass base = env.getNonNull(sym);
-      builder.put(
-          sym, new ConstBinder(constenv, sym, baseEnv, base, log.withSource(base.source())).bind());
-    }
-    return builder.build();
+    return completers.buildOrThrow();
   }
 
   private static class LazyConstCompleter
@@ -528,6 +834,7 @@ public final class Binder {
       TurbineLog log) {
     return new SimpleEnv<>(
         executor.toMap(
+            "Binder.disambiguateTypeAnnotations",
             syms.asList(),
             sym -> DisambiguateTypeAnnotations.bind(stenv.getNonNull(sym), tenv, log)));
   }
@@ -539,22 +846,62 @@ public final class Binder {
    *     Processor#process} across all rounds for each annotation processor.
    * @param processorMetrics Serialized protos containing processor-specific metrics. Currently only
    *     supported for Dagger.
+   * @param typeQueries How often queries to {@link javax.lang.model.util.Types} by annotation
+   *     processors were answered from memo tables, for each kind of query.
+   * @param rounds The resources used by each annotation processor in each round.
    */
   public record Statistics(
       ImmutableMap<String, Duration> processingTime,
-      ImmutableMap<String, byte[]> processorMetrics) {
+      ImmutableMap<String, byte[]> processorMetrics,
+      ImmutableMap<String, TurbineTypes.MemoStats> typeQueries,
+      ImmutableList<RoundStatistics> rounds) {
 
     public static Statistics create(
         ImmutableMap<String, Duration> processingTime,
-        ImmutableMap<String, byte[]> processorMetrics) {
-      return new Statistics(processingTime, processorMetrics);
+        ImmutableMap<String, byte[]> processorMetrics,
+        ImmutableMap<String, TurbineTypes.MemoStats> typeQueries,
+        ImmutableList<RoundStatistics> rounds) {
+      return new Statistics(processingTime, processorMetrics, typeQueries, rounds);
     }
 
     public static Statistics empty() {
-      return create(ImmutableMap.of(), ImmutableMap.of());
+      return create(ImmutableMap.of(), ImmutableMap.of(), ImmutableMap.of(), ImmutableList.of());
     }
   }
 
+  /**
+   * Statistics about an annotation processing round.
+   *
+   * @param round The number of the round. Round 0 is {@link Processor#init}, and the last round is
+   *     the final round where {@link javax.annotation.processing.RoundEnvironment#processingOver}
+   *     is true.
+   * @param rebindTime The time spent binding the compilation again with the sources generated in
+   *     the round.
+   * @param processors The resources used by each annotation processor that ran in the round.
+   */
+  public record RoundStatistics(
+      int round, Duration rebindTime, ImmutableMap<String, ProcessorStatistics> processors) {}
+
+  /**
+   * The resources used by an annotation processor in a round.
+   *
+   * @param wallTime The elapsed time spent in the processor.
+   * @param cpuTime The CPU time used by the processor, if the JVM supports measuring it.
+   * @param allocatedBytes The memory allocated by the processor, if the JVM supports measuring it.
+   * @param elementsQueried The number of elements the processor requested from the model.
+   * @param generatedSources The number of source files generated by the processor.
+   * @param generatedClasses The number of class files generated by the processor.
+   * @param generatedResources The number of resources generated by the processor.
+   */
+  public record ProcessorStatistics(
+      Duration wallTime,
+      Duration cpuTime,
+      long allocatedBytes,
+      long elementsQueried,
+      int generatedSources,
+      int generatedClasses,
+      int generatedResources) {}
+
   /** The result of binding: bound nodes for sources in the compilation, and the classpath. */
   public static class BindingResult {
     private final ImmutableMap<ClassSymbol, SourceTypeBoundClass> units;
@@ -17,24 +17,30 @@
 package com.google.turbine.binder;
 
 import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
 import com.google.turbine.binder.bound.ModuleInfo;
 import com.google.turbine.binder.bytecode.BytecodeBinder;
 import com.google.turbine.binder.bytecode.BytecodeBoundClass;
 import com.google.turbine.binder.env.Env;
 import com.google.turbine.binder.env.SimpleEnv;
-import com.google.turbine.binder.lookup.SimpleTopLevelIndex;
 import com.google.turbine.binder.lookup.TopLevelIndex;
 import com.google.turbine.binder.sym.ClassSymbol;
 import com.google.turbine.binder.sym.ModuleSymbol;
+import com.google.turbine.bytecode.ClassFile;
+import com.google.turbine.zip.ArchivePool;
 import com.google.turbine.zip.Zip;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.Attributes;
 import java.util.jar.Manifest;
 import org.jspecify.annotations.Nullable;
@@ -58,31 +64,56 @@ public final class ClassPathBinder {
 
   /** Creates an environment containing symbols in the given classpath. */
   public static ClassPath bindClasspath(Collection<Path> paths) throws IOException {
-    Map<ClassSymbol, Supplier<BytecodeBoundClass>> transitive = new LinkedHashMap<>();
-    Map<ClassSymbol, Supplier<BytecodeBoundClass>> map = new HashMap<>();
+    return bindClasspath(paths, JarCache.none());
+  }
+
+  /**
+   * Creates an environment containing symbols in the given classpath, reusing the contents of any
+   * jars that are already present in {@code cache}.
+   */
+  public static ClassPath bindClasspath(Collection<Path> paths, JarCache cache) throws IOException {
+    List<ClassTable> classes = new ArrayList<>();
+    List<ClassTable> transitive = new ArrayList<>();
     Map<ModuleSymbol, ModuleInfo> modules = new HashMap<>();
     Map<String, Supplier<byte[]>> resources = new HashMap<>();
-    Env<ClassSymbol, BytecodeBoundClass> env =
-        new Env<ClassSymbol, BytecodeBoundClass>() {
-          @Override
-          public @Nullable BytecodeBoundClass get(ClassSymbol sym) {
-            Supplier<BytecodeBoundClass> supplier = map.get(sym);
-            return supplier == null ? null : supplier.get();
-          }
-        };
     for (Path path : paths) {
+      Jar jar;
       try {
-        bindJar(path, map, modules, env, transitive, resources);
+        jar = cache.get(path);
       } catch (IOException e) {
         throw new IOException("error reading " + path, e);
       }
+      classes.add(jar.classes());
+      transitive.add(jar.transitive());
+      for (ModuleInfo moduleInfo : jar.modules()) {
+        modules.put(new ModuleSymbol(moduleInfo.name()), moduleInfo);
+      }
+      resources.putAll(jar.resources());
     }
-    for (Map.Entry<ClassSymbol, Supplier<BytecodeBoundClass>> entry : transitive.entrySet()) {
-      ClassSymbol symbol = entry.getKey();
-      map.putIfAbsent(symbol, entry.getValue());
-    }
+    // Only the packages of each jar are indexed here; symbols are created when they're looked up.
+    // Classes in any jar take precedence over repackaged transitive dependencies.
+    ClassTableIndex index = ClassTableIndex.of(Iterables.concat(classes, transitive));
+    // Bound classes refer back to the environment for this classpath, so unlike the class files
+    // they are created for each compilation.
+    Map<ClassSymbol, BytecodeBoundClass> bound = new ConcurrentHashMap<>();
+    Env<ClassSymbol, BytecodeBoundClass> env =
+        new Env<ClassSymbol, BytecodeBoundClass>() {
+          @Override
+          public @Nullable BytecodeBoundClass get(ClassSymbol sym) {
+            BytecodeBoundClass result = bound.get(sym);
+            if (result != null) {
+              return result;
+            }
+            ClassEntry entry = index.entry(sym.binaryName());
+            if (entry == null) {
+              return null;
+            }
+            return bound.computeIfAbsent(
+                sym,
+                s -> BytecodeBoundClass.fromClassFile(s, entry.classFile(), this, entry.jarFile()));
+          }
+        };
     SimpleEnv<ModuleSymbol, ModuleInfo> moduleEnv = new SimpleEnv<>(ImmutableMap.copyOf(modules));
-    TopLevelIndex index = SimpleTopLevelIndex.of(map.keySet());
     return new ClassPath() {
       @Override
       public Env<ClassSymbol, BytecodeBoundClass> env() {
@@ -106,17 +137,36 @@ public final class ClassPathBinder {
     };
   }
 
-  private static void bindJar(
-      Path path,
-      Map<ClassSymbol, Supplier<BytecodeBoundClass>> env,
-      Map<ModuleSymbol, ModuleInfo> modules,
-      Env<ClassSymbol, BytecodeBoundClass> benv,
-      Map<ClassSymbol, Supplier<BytecodeBoundClass>> transitive,
-      Map<String, Supplier<byte[]>> resources)
-      throws IOException {
-    // TODO(cushon): don't leak file descriptors
-    for (Zip.Entry ze : new Zip.ZipIterable(path)) {
+  /** A class in a classpath jar, and the path of the jar reported for it in jdeps. */
+  record ClassEntry(Supplier<ClassFile> classFile, String jarFile) {}
+
+  /** The contents of a classpath jar, which are independent of the rest of the classpath. */
+  record Jar(
+      ClassTable classes,
+      ClassTable transitive,
+      ImmutableList<ModuleInfo> modules,
+      ImmutableMap<String, Supplier<byte[]>> resources) {}
+
+  /**
+   * Reads the contents of a classpath jar. The jar's entries are read lazily, and the archive is
+   * kept open by {@code pool}. If the jar has a valid {@link ClassPathIndex}, its entries are found
+   * using the index instead of the central directory.
+   */
+  static Jar readJar(Path path, ArchivePool pool) throws IOException {
+    ClassTable.Builder classes = ClassTable.builder();
+    ClassTable.Builder transitive = ClassTable.builder();
+    ImmutableList.Builder<ModuleInfo> modules = ImmutableList.builder();
+    Map<String, Supplier<byte[]>> resources = new LinkedHashMap<>();
+    Zip.ZipIterable zip = new Zip.ZipIterable(path, pool);
+    Iterable<Zip.Entry> entries = ClassPathIndex.read(zip);
+    if (entries == null) {
+      entries = zip;
+    }
+    for (Zip.Entry ze : entries) {
       String name = ze.name();
+      if (name.equals(ClassPathIndex.NAME)) {
+        continue;
+      }
       if (name.equals("META-INF/MANIFEST.MF")) {
         Manifest manifest = new Manifest(new ByteArrayInputStream(ze.data()));
         // If the classpath jar is a header jar, look up the name of the corresponding regular
@@ -132,11 +182,8 @@ public final class ClassPathBinder {
         if (!name.endsWith(TRANSITIVE_SUFFIX)) {
           continue;
         }
-        ClassSymbol sym =
-            new ClassSymbol(
-                name.substring(
-                    TRANSITIVE_PREFIX.length(), name.length() - TRANSITIVE_SUFFIX.length()));
-        transitive.putIfAbsent(sym, BytecodeBoundClass.lazy(sym, ze, benv, path));
+        transitive.add(
+            name, TRANSITIVE_PREFIX.length(), name.length() - TRANSITIVE_SUFFIX.length(), ze);
         continue;
       }
       if (!name.endsWith(".class")) {
@@ -144,13 +191,17 @@ public final class ClassPathBinder {
         continue;
       }
       if (name.substring(name.lastIndexOf('/') + 1).equals("module-info.class")) {
-        ModuleInfo moduleInfo = BytecodeBinder.bindModuleInfo(path.toString(), ze);
-        modules.put(new ModuleSymbol(moduleInfo.name()), moduleInfo);
+        modules.add(BytecodeBinder.bindModuleInfo(path.toString(), ze));
         continue;
       }
-      ClassSymbol sym = new ClassSymbol(name.substring(0, name.length() - ".class".length()));
-      env.putIfAbsent(sym, BytecodeBoundClass.lazy(sym, ze, benv, path));
+      classes.add(name, 0, name.length() - ".class".length(), ze);
     }
+    String jarFile = path.toString();
+    return new Jar(
+        classes.build(jarFile),
+        transitive.build(jarFile),
+        modules.build(),
+        ImmutableMap.copyOf(resources));
   }
 
   private ClassPathBinder() {}
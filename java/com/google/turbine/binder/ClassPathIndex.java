@@ -0,0 +1,198 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.turbine.binder;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Longs;
+import com.google.turbine.zip.Zip;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.jar.JarFile;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An index of the entries in a jar written by turbine, which lets {@link ClassPathBinder} find the
+ * jar's classes without scanning its central directory.
+ *
+ * <p>The index is stored uncompressed as the last entry of the jar, {@value #NAME}, and the jar's
+ * comment records the offsets of the index's local header and of the central directory: {@code
+ * turbine-classpath-index:<index offset>:<central directory offset>}. The index is only used if the
+ * central directory is still where it was when the jar was written, and the index's content hash
+ * is valid, so jars that are modified by other tools are scanned as usual.
+ *
+ * <p>The index is a table of packages sorted by name, each with the sorted names and local header
+ * offsets of its entries:
+ *
+ * <pre>
+ * int magic, int version, long hash of the rest of the index
+ * int package count, and for each package:
+ *   UTF package name, int entry count, and for each entry:
+ *     UTF entry name, relative to the package; long local header offset
+ * </pre>
+ */
+public final class ClassPathIndex {
+
+  /** The name of the index entry. */
+  public static final String NAME = "META-INF/TURBINE/classpath.index";
+
+  private static final String COMMENT_PREFIX = "turbine-classpath-index:";
+
+  private static final int MAGIC = 0x54434958; // "TCIX"
+  private static final int VERSION = 1;
+
+  /** The size of the magic number, version, and hash at the start of the index. */
+  private static final int HEADER_SIZE = 16;
+
+  /** Returns a writer for the index of a new jar. */
+  public static Writer writer() {
+    return new Writer();
+  }
+
+  /** Records the entries of a jar as it's written, and then serializes the index. */
+  public static final class Writer {
+
+    /** The local header offset of each entry, by entry name, by package. */
+    private final Map<String, Map<String, Long>> packages = new TreeMap<>();
+
+    private Writer() {}
+
+    /** Records an entry, whose local header is at {@code offset}. */
+    public void add(String name, long offset) {
+      int idx = name.lastIndexOf('/', name.length() - 2);
+      String pkg = idx == -1 ? "" : name.substring(0, idx);
+      String simpleName = idx == -1 ? name : name.substring(idx + 1);
+      packages.computeIfAbsent(pkg, k -> new TreeMap<>()).put(simpleName, offset);
+    }
+
+    /** Returns the serialized index. */
+    public byte[] toByteArray() {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (DataOutputStream out = new DataOutputStream(bytes)) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(0); // the hash, which is filled in below
+        out.writeInt(packages.size());
+        for (Map.Entry<String, Map<String, Long>> pkg : packages.entrySet()) {
+          out.writeUTF(pkg.getKey());
+          out.writeInt(pkg.getValue().size());
+          for (Map.Entry<String, Long> entry : pkg.getValue().entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeLong(entry.getValue());
+          }
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      byte[] result = bytes.toByteArray();
+      byte[] hash = Longs.toByteArray(hash(result));
+      System.arraycopy(hash, 0, result, HEADER_SIZE - hash.length, hash.length);
+      return result;
+    }
+  }
+
+  /**
+   * Returns the jar comment that locates an index whose local header is at {@code indexOffset},
+   * in a jar whose central directory is at {@code centralDirectoryOffset}.
+   */
+  public static String comment(long indexOffset, long centralDirectoryOffset) {
+    return COMMENT_PREFIX + indexOffset + ":" + centralDirectoryOffset;
+  }
+
+  /**
+   * Returns the entries listed in the index of {@code zip}, or {@code null} if it doesn't have a
+   * valid index. The manifest comes first, if the jar has one.
+   */
+  static @Nullable ImmutableList<Zip.Entry> read(Zip.ZipIterable zip) {
+    try {
+      return readIndex(zip);
+    } catch (IOException e) {
+      // a truncated or otherwise malformed index; fall back to the central directory
+      return null;
+    }
+  }
+
+  private static @Nullable ImmutableList<Zip.Entry> readIndex(Zip.ZipIterable zip)
+      throws IOException {
+    String comment = zip.comment();
+    if (!comment.startsWith(COMMENT_PREFIX)) {
+      return null;
+    }
+    List<String> offsets = Splitter.on(':').splitToList(comment.substring(COMMENT_PREFIX.length()));
+    if (offsets.size() != 2) {
+      return null;
+    }
+    Long indexOffset = Longs.tryParse(offsets.get(0));
+    Long centralDirectoryOffset = Longs.tryParse(offsets.get(1));
+    if (indexOffset == null
+        || centralDirectoryOffset == null
+        || centralDirectoryOffset != zip.centralDirectoryOffset()
+        || !zip.hasLocalEntry(NAME, indexOffset)) {
+      return null;
+    }
+    byte[] bytes = zip.localEntry(NAME, indexOffset).data();
+    if (bytes.length < HEADER_SIZE) {
+      return null;
+    }
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != hash(bytes)) {
+        return null;
+      }
+      ImmutableList.Builder<Zip.Entry> entries = ImmutableList.builder();
+      Zip.@Nullable Entry manifest = null;
+      int packages = in.readInt();
+      for (int i = 0; i < packages; i++) {
+        String pkg = in.readUTF();
+        String prefix = pkg.isEmpty() ? "" : pkg + "/";
+        int count = in.readInt();
+        for (int j = 0; j < count; j++) {
+          String name = prefix + in.readUTF();
+          Zip.Entry entry = zip.localEntry(name, in.readLong());
+          if (name.equals(JarFile.MANIFEST_NAME)) {
+            manifest = entry;
+          } else {
+            entries.add(entry);
+          }
+        }
+      }
+      ImmutableList<Zip.Entry> result = entries.build();
+      if (manifest != null) {
+        // the manifest may change the path that's reported for the jar's classes
+        result = ImmutableList.<Zip.Entry>builder().add(manifest).addAll(result).build();
+      }
+      return result;
+    }
+  }
+
+  /** Hashes the contents of a serialized index, after its header. */
+  private static long hash(byte[] bytes) {
+    return Hashing.farmHashFingerprint64()
+        .hashBytes(Arrays.copyOfRange(bytes, HEADER_SIZE, bytes.length))
+        .asLong();
+  }
+
+  private ClassPathIndex() {}
+}
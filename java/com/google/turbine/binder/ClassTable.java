@@ -0,0 +1,350 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.turbine.binder;
+
+import com.google.common.base.Supplier;
+import com.google.turbine.binder.ClassPathBinder.ClassEntry;
+import com.google.turbine.binder.bytecode.BytecodeBoundClass;
+import com.google.turbine.binder.lookup.StringCache;
+import com.google.turbine.binder.sym.ClassSymbol;
+import com.google.turbine.bytecode.ClassFile;
+import com.google.turbine.zip.Zip;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A compact table of the classes in a classpath jar.
+ *
+ * <p>Classpaths can contain hundreds of thousands of classes, and most of them are never used by a
+ * compilation. Instead of creating symbols and suppliers for every class up front, the table stores
+ * the classes' names in a flat character array, their packages in a table of interned names, and
+ * everything else in primitive arrays, and classes are found with an open-addressing hash table.
+ * {@link ClassSymbol}s and class file suppliers are only created for classes that are looked up.
+ *
+ * <p>The classes are grouped by package, and the hash of each class is the {@link String#hashCode}
+ * of its binary name, so lookups by a symbol's binary name don't need to rehash it.
+ */
+final class ClassTable {
+
+  /** The path of the jar reported for its classes in jdeps. */
+  private final String jarFile;
+
+  /** The interned names of the packages in the jar. */
+  private final String[] packages;
+
+  /** The index of the first class in each package, followed by the number of classes. */
+  private final int[] packageStart;
+
+  /** The package of each class, as an index into {@link #packages}. */
+  private final int[] packageOf;
+
+  /** The simple names of the classes, as ranges of {@link #chars}. */
+  private final int[] nameOffset;
+
+  private final int[] nameLength;
+  private final char[] chars;
+
+  /** The hash of each class's binary name. */
+  private final int[] hashes;
+
+  private final Zip.Entry[] entries;
+
+  /** The open-addressing hash table; each slot holds a class index plus one, or zero if empty. */
+  private final int[] slots;
+
+  /** The decoded class files, which are created the first time each class is looked up. */
+  private final AtomicReferenceArray<Supplier<ClassFile>> classFiles;
+
+  private ClassTable(
+      String jarFile,
+      String[] packages,
+      int[] packageStart,
+      int[] packageOf,
+      int[] nameOffset,
+      int[] nameLength,
+      char[] chars,
+      int[] hashes,
+      Zip.Entry[] entries) {
+    this.jarFile = jarFile;
+    this.packages = packages;
+    this.packageStart = packageStart;
+    this.packageOf = packageOf;
+    this.nameOffset = nameOffset;
+    this.nameLength = nameLength;
+    this.chars = chars;
+    this.hashes = hashes;
+    this.entries = entries;
+    // keep the table at most half full
+    this.slots = new int[Integer.highestOneBit(Math.max(2, entries.length * 2 - 1)) << 1];
+    this.classFiles = new AtomicReferenceArray<>(entries.length);
+    int mask = slots.length - 1;
+    for (int i = 0; i < entries.length; i++) {
+      int slot = mix(hashes[i]) & mask;
+      while (true) {
+        int existing = slots[slot] - 1;
+        if (existing == -1) {
+          slots[slot] = i + 1;
+          break;
+        }
+        // if the jar contains duplicate entries, the first one wins
+        if (hashes[existing] == hashes[i]
+            && packageOf[existing] == packageOf[i]
+            && nameMatches(existing, chars, nameOffset[i], nameLength[i])) {
+          break;
+        }
+        slot = (slot + 1) & mask;
+      }
+    }
+  }
+
+  /** Returns a builder for the table of a jar. */
+  static Builder builder() {
+    return new Builder();
+  }
+
+  /** Accumulates the classes of a jar. */
+  static final class Builder {
+
+    private final StringCache stringCache = new StringCache(/* expectedSize= */ 64);
+    private final Map<String, Integer> packageIds = new HashMap<>();
+    private final List<String> packages = new ArrayList<>();
+    private final List<Zip.Entry> entries = new ArrayList<>();
+
+    private char[] chars = new char[1024];
+    private int charCount;
+    private int[] packageOf = new int[64];
+    private int[] nameOffset = new int[64];
+    private int[] nameLength = new int[64];
+    private int[] hashes = new int[64];
+
+    /** The package of the most recently added class, since jars are usually grouped by package. */
+    private int lastPackage = -1;
+
+    private Builder() {}
+
+    /**
+     * Adds a class whose binary name is the substring of {@code name} from {@code start} to {@code
+     * end}, e.g. the name of a jar entry without its {@code .class} suffix.
+     */
+    void add(String name, int start, int end, Zip.Entry entry) {
+      int idx = name.lastIndexOf('/', end - 1);
+      int packageEnd = idx < start ? start : idx;
+      int simpleStart = idx < start ? start : idx + 1;
+
+      int pkg = lastPackage;
+      if (pkg == -1 || !regionEquals(packages.get(pkg), name, start, packageEnd)) {
+        String packageName = stringCache.getSubstring(name, start, packageEnd);
+        Integer id = packageIds.get(packageName);
+        if (id == null) {
+          id = packages.size();
+          packages.add(packageName);
+          packageIds.put(packageName, id);
+        }
+        pkg = id;
+        lastPackage = pkg;
+      }
+
+      int i = entries.size();
+      if (i == hashes.length) {
+        int size = i * 2;
+        packageOf = Arrays.copyOf(packageOf, size);
+        nameOffset = Arrays.copyOf(nameOffset, size);
+        nameLength = Arrays.copyOf(nameLength, size);
+        hashes = Arrays.copyOf(hashes, size);
+      }
+      int length = end - simpleStart;
+      if (charCount + length > chars.length) {
+        chars = Arrays.copyOf(chars, Math.max(chars.length * 2, charCount + length));
+      }
+      name.getChars(simpleStart, end, chars, charCount);
+      int hash = 0;
+      for (int j = start; j < end; j++) {
+        hash = 31 * hash + name.charAt(j);
+      }
+      packageOf[i] = pkg;
+      nameOffset[i] = charCount;
+      nameLength[i] = length;
+      hashes[i] = hash;
+      entries.add(entry);
+      charCount += length;
+    }
+
+    /** Returns a table of the classes in a jar, which are reported in jdeps as {@code jarFile}. */
+    ClassTable build(String jarFile) {
+      int size = entries.size();
+      // group the classes by package, preserving their order within each package
+      int[] packageStart = new int[packages.size() + 1];
+      for (int i = 0; i < size; i++) {
+        packageStart[packageOf[i] + 1]++;
+      }
+      for (int p = 0; p < packages.size(); p++) {
+        packageStart[p + 1] += packageStart[p];
+      }
+      int[] next = Arrays.copyOf(packageStart, packages.size());
+      int[] sortedPackageOf = new int[size];
+      int[] sortedNameOffset = new int[size];
+      int[] sortedNameLength = new int[size];
+      int[] sortedHashes = new int[size];
+      Zip.Entry[] sortedEntries = new Zip.Entry[size];
+      for (int i = 0; i < size; i++) {
+        int j = next[packageOf[i]]++;
+        sortedPackageOf[j] = packageOf[i];
+        sortedNameOffset[j] = nameOffset[i];
+        sortedNameLength[j] = nameLength[i];
+        sortedHashes[j] = hashes[i];
+        sortedEntries[j] = entries.get(i);
+      }
+      return new ClassTable(
+          jarFile,
+          packages.toArray(new String[0]),
+          packageStart,
+          sortedPackageOf,
+          sortedNameOffset,
+          sortedNameLength,
+          Arrays.copyOf(chars, charCount),
+          sortedHashes,
+          sortedEntries);
+    }
+  }
+
+  /** Spreads the bits of a string hash code, since only the low bits are used to pick a slot. */
+  private static int mix(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  private static boolean regionEquals(String s, String other, int start, int end) {
+    return s.length() == end - start && s.regionMatches(0, other, start, end - start);
+  }
+
+  /** Returns true if the simple name of class {@code i} is the given range of {@code other}. */
+  private boolean nameMatches(int i, char[] other, int offset, int length) {
+    if (nameLength[i] != length) {
+      return false;
+    }
+    return Arrays.equals(
+        chars, nameOffset[i], nameOffset[i] + length, other, offset, offset + length);
+  }
+
+  /** Returns true if the simple name of class {@code i} is the rest of {@code s}. */
+  private boolean nameMatches(int i, String s, int start) {
+    int length = nameLength[i];
+    if (length != s.length() - start) {
+      return false;
+    }
+    int offset = nameOffset[i];
+    for (int j = 0; j < length; j++) {
+      if (chars[offset + j] != s.charAt(start + j)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the index of the class whose package is {@code pkg} from {@code pkgStart} to {@code
+   * pkgEnd}, and whose simple name is the rest of {@code simpleName} from {@code simpleStart}, or
+   * {@code -1} if there is no such class.
+   */
+  private int find(
+      int hash, String pkg, int pkgStart, int pkgEnd, String simpleName, int simpleStart) {
+    int mask = slots.length - 1;
+    for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+      int i = slots[slot] - 1;
+      if (i == -1) {
+        return -1;
+      }
+      if (hashes[i] == hash
+          && regionEquals(packages[packageOf[i]], pkg, pkgStart, pkgEnd)
+          && nameMatches(i, simpleName, simpleStart)) {
+        return i;
+      }
+    }
+  }
+
+  /** Returns the index of the class with the given binary name, or {@code -1}. */
+  int find(String binaryName) {
+    int idx = binaryName.lastIndexOf('/');
+    return find(binaryName.hashCode(), binaryName, 0, Math.max(idx, 0), binaryName, idx + 1);
+  }
+
+  /**
+   * Returns the index of the class with the given simple name in the given package, or {@code -1}.
+   *
+   * @param pkg the binary ({@code '/'}-delimited) package name
+   */
+  int find(String pkg, String simpleName) {
+    int hash = pkg.hashCode();
+    if (!pkg.isEmpty()) {
+      hash = 31 * hash + '/';
+    }
+    for (int i = 0; i < simpleName.length(); i++) {
+      hash = 31 * hash + simpleName.charAt(i);
+    }
+    return find(hash, pkg, 0, pkg.length(), simpleName, 0);
+  }
+
+  /** The number of classes in the table, including any duplicates. */
+  int size() {
+    return entries.length;
+  }
+
+  /** The names of the packages in the jar. */
+  List<String> packages() {
+    return Arrays.asList(packages);
+  }
+
+  /** Returns the index of the first class in package {@code pkg}. */
+  int packageStart(int pkg) {
+    return packageStart[pkg];
+  }
+
+  /** Returns the index after the last class in package {@code pkg}. */
+  int packageEnd(int pkg) {
+    return packageStart[pkg + 1];
+  }
+
+  /** Returns the binary name of class {@code i}. */
+  String binaryName(int i) {
+    String pkg = packages[packageOf[i]];
+    String simpleName = new String(chars, nameOffset[i], nameLength[i]);
+    return pkg.isEmpty() ? simpleName : pkg + '/' + simpleName;
+  }
+
+  /** Returns a symbol for class {@code i}. */
+  ClassSymbol symbol(int i) {
+    return new ClassSymbol(binaryName(i));
+  }
+
+  /**
+   * Returns the class file of class {@code i}. The class file is decoded lazily, and shared by all
+   * compilations that use this table.
+   */
+  ClassEntry entry(int i) {
+    Supplier<ClassFile> classFile = classFiles.get(i);
+    if (classFile == null) {
+      classFile = BytecodeBoundClass.classFile(symbol(i), entries[i], jarFile);
+      if (!classFiles.compareAndSet(i, null, classFile)) {
+        classFile = classFiles.get(i);
+      }
+    }
+    return new ClassEntry(classFile, jarFile);
+  }
+}
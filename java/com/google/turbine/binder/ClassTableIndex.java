@@ -0,0 +1,192 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.turbine.binder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.turbine.binder.ClassPathBinder.ClassEntry;
+import com.google.turbine.binder.lookup.LookupKey;
+import com.google.turbine.binder.lookup.LookupResult;
+import com.google.turbine.binder.lookup.PackageFilter;
+import com.google.turbine.binder.lookup.PackageScope;
+import com.google.turbine.binder.lookup.Scope;
+import com.google.turbine.binder.lookup.TopLevelIndex;
+import com.google.turbine.binder.sym.ClassSymbol;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An index of the classes in a sequence of {@link ClassTable}s, where the first table containing a
+ * class wins.
+ *
+ * <p>Only the packages of the tables are indexed, so creating the index for a compilation is
+ * proportional to the number of packages on the classpath instead of the number of classes. Classes
+ * are found by searching the tables that contain their package.
+ */
+final class ClassTableIndex implements TopLevelIndex {
+
+  /** A table that contains a package, and the index of the package in the table. */
+  private record PackageRef(ClassTable table, int pkg) {}
+
+  /**
+   * The tables containing each package, in order. Packages that only contain other packages are
+   * also present, with no tables.
+   */
+  private final Map<String, ImmutableList<PackageRef>> packages;
+
+  private final PackageFilter packageFilter;
+
+  private ClassTableIndex(
+      Map<String, ImmutableList<PackageRef>> packages, PackageFilter packageFilter) {
+    this.packages = packages;
+    this.packageFilter = packageFilter;
+  }
+
+  /** Creates an index of the given tables, in order of precedence. */
+  static ClassTableIndex of(Iterable<ClassTable> tables) {
+    Map<String, List<PackageRef>> packages = new HashMap<>();
+    for (ClassTable table : tables) {
+      List<String> names = table.packages();
+      for (int pkg = 0; pkg < names.size(); pkg++) {
+        String name = names.get(pkg);
+        packages.computeIfAbsent(name, k -> new ArrayList<>()).add(new PackageRef(table, pkg));
+        for (int idx = name.lastIndexOf('/'); idx != -1; idx = name.lastIndexOf('/', idx - 1)) {
+          if (packages.putIfAbsent(name.substring(0, idx), new ArrayList<>()) != null) {
+            // the enclosing packages were already added
+            break;
+          }
+        }
+      }
+    }
+    // the filter only contains the default package if one of the tables has classes in it
+    PackageFilter packageFilter = PackageFilter.of(packages.keySet());
+    // the default package encloses every other package
+    packages.putIfAbsent("", new ArrayList<>());
+    Map<String, ImmutableList<PackageRef>> result = new HashMap<>();
+    packages.forEach((name, refs) -> result.put(name, ImmutableList.copyOf(refs)));
+    return new ClassTableIndex(result, packageFilter);
+  }
+
+  /** Returns the entry for the class with the given binary name, or {@code null}. */
+  @Nullable ClassEntry entry(String binaryName) {
+    int idx = binaryName.lastIndexOf('/');
+    ImmutableList<PackageRef> refs = packages.get(idx == -1 ? "" : binaryName.substring(0, idx));
+    if (refs == null) {
+      return null;
+    }
+    for (PackageRef ref : refs) {
+      int i = ref.table().find(binaryName);
+      if (i != -1) {
+        return ref.table().entry(i);
+      }
+    }
+    return null;
+  }
+
+  /** Returns the class with the given simple name in the given package, or {@code null}. */
+  private @Nullable ClassSymbol lookup(String pkg, String simpleName) {
+    ImmutableList<PackageRef> refs = packages.get(pkg);
+    if (refs == null) {
+      return null;
+    }
+    return lookup(refs, pkg, simpleName);
+  }
+
+  private static @Nullable ClassSymbol lookup(
+      ImmutableList<PackageRef> refs, String pkg, String simpleName) {
+    for (PackageRef ref : refs) {
+      int i = ref.table().find(pkg, simpleName);
+      if (i != -1) {
+        return ref.table().symbol(i);
+      }
+    }
+    return null;
+  }
+
+  /** Looks up top-level qualified type names. */
+  private final Scope scope =
+      new Scope() {
+        @Override
+        public @Nullable LookupResult lookup(LookupKey lookupKey) {
+          String pkg = "";
+          while (true) {
+            String name = lookupKey.first().value();
+            ClassSymbol sym = ClassTableIndex.this.lookup(pkg, name);
+            if (sym != null) {
+              return new LookupResult(sym, lookupKey);
+            }
+            pkg = pkg.isEmpty() ? name : pkg + '/' + name;
+            if (!packages.containsKey(pkg) || lookupKey.simpleNames().size() == 1) {
+              return null;
+            }
+            lookupKey = lookupKey.rest();
+          }
+        }
+      };
+
+  @Override
+  public Scope scope() {
+    return scope;
+  }
+
+  @Override
+  public PackageFilter packageFilter() {
+    return packageFilter;
+  }
+
+  @Override
+  public @Nullable PackageScope lookupPackage(Iterable<String> packagename) {
+    StringBuilder sb = new StringBuilder();
+    for (String bit : packagename) {
+      if (bit.isEmpty()) {
+        throw new IllegalArgumentException("Empty package name");
+      }
+      if (sb.length() > 0) {
+        sb.append('/');
+      }
+      sb.append(bit);
+    }
+    String pkg = sb.toString();
+    ImmutableList<PackageRef> refs = packages.get(pkg);
+    if (refs == null) {
+      return null;
+    }
+    return new PackageScope() {
+      @Override
+      public @Nullable LookupResult lookup(LookupKey lookupKey) {
+        ClassSymbol sym = ClassTableIndex.lookup(refs, pkg, lookupKey.first().value());
+        return sym != null ? new LookupResult(sym, lookupKey) : null;
+      }
+
+      @Override
+      public Iterable<ClassSymbol> classes() {
+        Set<ClassSymbol> classes = new LinkedHashSet<>();
+        for (PackageRef ref : refs) {
+          ClassTable table = ref.table();
+          for (int i = table.packageStart(ref.pkg()); i < table.packageEnd(ref.pkg()); i++) {
+            classes.add(table.symbol(i));
+          }
+        }
+        return classes;
+      }
+    };
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.turbine.binder;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashCode;
+import com.google.turbine.binder.ClassPathBinder.Jar;
+import com.google.turbine.zip.ArchivePool;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A cache of the contents of classpath jars, which can be shared by the compilations in a
+ * long-lived process like a persistent worker.
+ *
+ * <p>Only the parts of a jar that are independent of the rest of the classpath are cached: the
+ * index of its entries, its modules and resources, and the decoded class files. The environment
+ * each compilation binds classes in is still created for that compilation.
+ *
+ * <p>Jars are identified by their path, and by a digest of their contents if the build system
+ * supplied one, or otherwise by their size and modification time. The least recently used jars are
+ * evicted once the cache is full.
+ *
+ * <p>The archives of the jars that are read through a cache are kept open by an {@link
+ * ArchivePool}, which bounds the number of open archives, and releases them all when a compilation
+ * is finished.
+ */
+public final class JarCache {
+
+  /** The default maximum number of jar archives to keep open at once. */
+  static final int DEFAULT_MAX_OPEN_ARCHIVES = 512;
+
+  /**
+   * Returns a cache that doesn't retain any jars, and reads every jar each time it is requested.
+   *
+   * <p>Each call returns a cache with its own archives, so releasing them at the end of one
+   * compilation doesn't affect other compilations in the same process.
+   */
+  public static JarCache none() {
+    return new JarCache(null, ImmutableMap.of(), ArchivePool.create(DEFAULT_MAX_OPEN_ARCHIVES));
+  }
+
+  /** Creates a cache that retains at most {@code maxSize} jars. */
+  public static JarCache create(int maxSize) {
+    return create(maxSize, DEFAULT_MAX_OPEN_ARCHIVES);
+  }
+
+  /**
+   * Creates a cache that retains at most {@code maxSize} jars, and keeps at most {@code
+   * maxOpenArchives} of their archives open at once.
+   */
+  public static JarCache create(int maxSize, int maxOpenArchives) {
+    return new JarCache(new Lru(maxSize), ImmutableMap.of(), ArchivePool.create(maxOpenArchives));
+  }
+
+  /** The identity of a particular version of a jar. */
+  record Key(Path path, @Nullable HashCode digest, long size, @Nullable FileTime lastModified) {
+
+    /**
+     * Identifies the jar at {@code path} by its digest if there is one in {@code digests}, and
+     * otherwise by its size and modification time.
+     */
+    static Key of(Path path, ImmutableMap<Path, HashCode> digests) throws IOException {
+      Path normalized = normalize(path);
+      HashCode digest = digests.get(normalized);
+      if (digest != null) {
+        return new Key(normalized, digest, -1, null);
+      }
+      BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+      return new Key(normalized, null, attributes.size(), attributes.lastModifiedTime());
+    }
+  }
+
+  /** The cached jars, shared by all views of the cache. Guarded by itself. */
+  private static final class Lru extends LinkedHashMap<Key, Jar> {
+    private final int maxSize;
+
+    Lru(int maxSize) {
+      super(/* initialCapacity= */ 16, /* loadFactor= */ 0.75f, /* accessOrder= */ true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Key, Jar> eldest) {
+      return size() > maxSize;
+    }
+  }
+
+  private final @Nullable Lru jars;
+  private final ImmutableMap<Path, HashCode> digests;
+  private final ArchivePool archives;
+
+  private JarCache(
+      @Nullable Lru jars, ImmutableMap<Path, HashCode> digests, ArchivePool archives) {
+    this.jars = jars;
+    this.digests = digests;
+    this.archives = archives;
+  }
+
+  /**
+   * Returns a view of this cache that identifies the given jars by their digests instead of their
+   * size and modification time. The view shares its contents with this cache.
+   */
+  public JarCache withDigests(Map<Path, HashCode> digests) {
+    return new JarCache(jars, normalize(digests), archives);
+  }
+
+  /** Returns the contents of the jar at {@code path}, reading it if it isn't already cached. */
+  Jar get(Path path) throws IOException {
+    if (jars == null) {
+      return ClassPathBinder.readJar(path, archives);
+    }
+    Key key = Key.of(path, digests);
+    synchronized (jars) {
+      Jar jar = jars.get(key);
+      if (jar != null) {
+        return jar;
+      }
+    }
+    // Read the jar without holding the lock, so concurrent compilations aren't serialized. If two
+    // compilations race to read the same jar, the first result to be cached wins.
+    Jar jar = ClassPathBinder.readJar(path, archives);
+    synchronized (jars) {
+      Jar existing = jars.putIfAbsent(key, jar);
+      return existing != null ? existing : jar;
+    }
+  }
+
+  /** Normalizes the paths of the given digests, so they can be matched against {@link Key}s. */
+  static ImmutableMap<Path, HashCode> normalize(Map<Path, HashCode> digests) {
+    ImmutableMap.Builder<Path, HashCode> normalized = ImmutableMap.builder();
+    digests.forEach((path, digest) -> normalized.put(normalize(path), digest));
+    return normalized.buildKeepingLast();
+  }
+
+  private static Path normalize(Path path) {
+    return path.toAbsolutePath().normalize();
+  }
+
+  /**
+   * Closes the archives of the jars read through this cache, which releases their file descriptors
+   * and mappings. Archives are reopened if they're read again, so this is safe to call while other
+   * compilations are still using the cache.
+   */
+  public void releaseArchives() {
+    archives.release();
+  }
+
+  /** The number of jars currently in the cache. */
+  int size() {
+    if (jars == null) {
+      return 0;
+    }
+    synchronized (jars) {
+      return jars.size();
+    }
+  }
+}
@@ -32,6 +32,7 @@ import com.google.turbine.binder.env.Env;
 import com.google.turbine.binder.env.SimpleEnv;
 import com.google.turbine.binder.lookup.LookupKey;
 import com.google.turbine.binder.lookup.LookupResult;
+import com.google.turbine.binder.lookup.PackageFilter;
 import com.google.turbine.binder.lookup.PackageScope;
 import com.google.turbine.binder.lookup.Scope;
 import com.google.turbine.binder.lookup.TopLevelIndex;
@@ -176,6 +177,8 @@ public class JimageClassBinder {
 
   private class JimageTopLevelIndex implements TopLevelIndex {
 
+    final PackageFilter packageFilter = PackageFilter.of(packageMap.keySet());
+
     final Scope topLevelScope =
         new Scope() {
           @Override
@@ -208,6 +211,11 @@ public class JimageClassBinder {
       return topLevelScope;
     }
 
+    @Override
+    public PackageFilter packageFilter() {
+      return packageFilter;
+    }
+
     @Override
     public @Nullable PackageScope lookupPackage(Iterable<String> packageName) {
       return lookupPackage(String.join("/", packageName));
@@ -22,26 +22,30 @@ import com.google.auto.value.AutoValue;
 import com.google.common.base.Joiner;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.turbine.binder.Binder.BindingResult;
+import com.google.turbine.binder.Binder.ProcessorStatistics;
+import com.google.turbine.binder.Binder.RoundStatistics;
 import com.google.turbine.binder.Binder.Statistics;
 import com.google.turbine.binder.bound.SourceTypeBoundClass;
 import com.google.turbine.binder.bound.TypeBoundClass;
-import com.google.turbine.binder.bound.TypeBoundClass.FieldInfo;
 import com.google.turbine.binder.env.CompoundEnv;
 import com.google.turbine.binder.env.Env;
 import com.google.turbine.binder.env.SimpleEnv;
 import com.google.turbine.binder.sym.ClassSymbol;
-import com.google.turbine.binder.sym.Symbol;
 import com.google.turbine.diag.AnnotationProcessingError;
 import com.google.turbine.diag.SourceFile;
+import com.google.turbine.diag.TurbineDiagnostic;
 import com.google.turbine.diag.TurbineLog;
 import com.google.turbine.options.TurbineJavacOptions;
 import com.google.turbine.parallel.TurbineExecutor;
 import com.google.turbine.parse.Parser;
+import com.google.turbine.processing.AnnotationIndex;
 import com.google.turbine.processing.ModelFactory;
 import com.google.turbine.processing.TurbineElements;
 import com.google.turbine.processing.TurbineFiler;
@@ -49,8 +53,10 @@ import com.google.turbine.processing.TurbineMessager;
 import com.google.turbine.processing.TurbineProcessingEnvironment;
 import com.google.turbine.processing.TurbineRoundEnvironment;
 import com.google.turbine.processing.TurbineTypes;
+import com.google.turbine.profile.Profiler;
 import com.google.turbine.tree.Tree.CompUnit;
-import com.google.turbine.type.AnnoInfo;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
@@ -58,18 +64,20 @@ import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.regex.Pattern;
 import javax.annotation.processing.Processor;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject.Kind;
 import org.jspecify.annotations.Nullable;
 
 /** Top level annotation processing logic, see also {@link Binder}. */
@@ -112,17 +120,19 @@ public class Processing {
     Map<String, byte[]> statistics = new LinkedHashMap<>();
 
     TurbineTypes turbineTypes = new TurbineTypes(factory);
+    TurbineMessager messager = new TurbineMessager(factory, log);
     TurbineProcessingEnvironment processingEnv =
         new TurbineProcessingEnvironment(
             filer,
             turbineTypes,
             new TurbineElements(factory, turbineTypes),
-            new TurbineMessager(factory, log),
+            messager,
             processorInfo.options(),
             processorInfo.sourceVersion(),
             processorInfo.loader(),
             statistics);
-    Timers timers = new Timers();
+    Profiler profiler = executor.profiler();
+    Timers timers = new Timers(profiler, factory);
     for (Processor processor : processorInfo.processors()) {
       try (Timers.Timer unused = timers.start(processor)) {
         processor.init(processingEnv);
@@ -141,7 +151,10 @@ public class Processing {
 
     Set<Processor> toRun = new LinkedHashSet<>();
 
+    ReusableClasses reusable = new ReusableClasses();
+
     boolean errorRaised = false;
+    int round = 0;
 
     while (true) {
       ImmutableSet<ClassSymbol> syms =
@@ -150,47 +163,59 @@ public class Processing {
       if (syms.isEmpty()) {
         break;
       }
-      ImmutableSetMultimap<ClassSymbol, Symbol> allAnnotations = getAllAnnotations(env, syms);
-      TurbineRoundEnvironment roundEnv = null;
-      for (Map.Entry<Processor, SupportedAnnotationTypes> e : wanted.entrySet()) {
-        Processor processor = e.getKey();
-        SupportedAnnotationTypes supportedAnnotationTypes = e.getValue();
-        Set<TypeElement> annotations = new HashSet<>();
-        boolean run = supportedAnnotationTypes.everything() || toRun.contains(processor);
-        for (ClassSymbol a : allAnnotations.keySet()) {
-          if (supportedAnnotationTypes.everything()
-              || supportedAnnotationTypes.pattern().matcher(a.toString()).matches()) {
-            annotations.add(factory.typeElement(a));
-            run = true;
-          }
+      round++;
+      timers.round(round);
+      try (Profiler.Span roundSpan = profiler.span("Processing round " + round)) {
+        AnnotationIndex annotationIndex;
+        try (Profiler.Span unused = profiler.span("Processing.getAllAnnotations")) {
+          annotationIndex = AnnotationIndex.create(env, syms);
         }
-        if (run) {
-          toRun.add(processor);
-          if (roundEnv == null) {
-            roundEnv =
-                new TurbineRoundEnvironment(factory, syms, false, errorRaised, allAnnotations);
+        Map<Processor, Set<TypeElement>> running = new LinkedHashMap<>();
+        for (Map.Entry<Processor, SupportedAnnotationTypes> e : wanted.entrySet()) {
+          Processor processor = e.getKey();
+          SupportedAnnotationTypes supportedAnnotationTypes = e.getValue();
+          Set<TypeElement> annotations = new HashSet<>();
+          boolean run = supportedAnnotationTypes.everything() || toRun.contains(processor);
+          for (ClassSymbol a : annotationIndex.annotationTypes()) {
+            if (supportedAnnotationTypes.supports(a)) {
+              annotations.add(factory.typeElement(a));
+              run = true;
+            }
           }
-          try (Timers.Timer unused = timers.start(processor)) {
-            // discard the result of Processor#process because 'claiming' annotations is a bad idea
-            // TODO(cushon): consider disallowing this, or reporting a diagnostic
-            processor.process(annotations, roundEnv);
-          } catch (Throwable t) {
-            throw new AnnotationProcessingError(processor, t, log.diagnostics());
+          if (run) {
+            toRun.add(processor);
+            running.put(processor, annotations);
           }
         }
+        if (!running.isEmpty()) {
+          runProcessors(
+              executor,
+              log,
+              filer,
+              messager,
+              timers,
+              processorInfo.parallelProcessors(),
+              running,
+              new TurbineRoundEnvironment(factory, syms, false, errorRaised, annotationIndex));
+        }
       }
       Collection<SourceFile> files = filer.finishRound();
       if (files.isEmpty()) {
         break;
       }
-      for (SourceFile file : files) {
-        units.add(Parser.parse(file));
+      ImmutableList<CompUnit> generated;
+      try (Profiler.Span unused = profiler.span("Processing.parseGeneratedSources")) {
+        generated = parse(executor, reusable, result, files);
       }
+      units.addAll(generated);
       errorRaised = log.errorRaised();
       if (errorRaised) {
         break;
       }
+      ImmutableMap<ClassSymbol, SourceTypeBoundClass> reused =
+          reusable.reusable(result, generated, errors(log));
       log.clear();
+      Stopwatch rebind = Stopwatch.createStarted();
       result =
           Binder.bind(
               executor,
@@ -200,27 +225,35 @@ public class Processing {
               filer.generatedClasses(),
               classpath,
               bootclasspath,
-              moduleVersion);
+              moduleVersion,
+              reused);
+      timers.rebind(rebind.elapsed());
       tenv = new SimpleEnv<>(result.units());
       env = CompoundEnv.<ClassSymbol, TypeBoundClass>of(result.classPathEnv()).append(tenv);
       factory.round(env, result.tli());
     }
 
-    TurbineRoundEnvironment roundEnv = null;
-    for (Processor processor : toRun) {
-      if (roundEnv == null) {
-        roundEnv =
+    timers.round(round + 1);
+    try (Profiler.Span unused = profiler.span("Processing final round")) {
+      if (!toRun.isEmpty()) {
+        Map<Processor, Set<TypeElement>> running = new LinkedHashMap<>();
+        for (Processor processor : toRun) {
+          running.put(processor, ImmutableSet.of());
+        }
+        runProcessors(
+            executor,
+            log,
+            filer,
+            messager,
+            timers,
+            processorInfo.parallelProcessors(),
+            running,
             new TurbineRoundEnvironment(
                 factory,
                 ImmutableSet.of(),
                 /* processingOver= */ true,
                 errorRaised,
-                ImmutableSetMultimap.of());
-      }
-      try (Timers.Timer unused = timers.start(processor)) {
-        processor.process(ImmutableSet.of(), roundEnv);
-      } catch (Throwable t) {
-        throw new AnnotationProcessingError(processor, t, log.diagnostics());
+                AnnotationIndex.create(env, ImmutableSet.of())));
       }
     }
 
@@ -229,9 +262,11 @@ public class Processing {
       // processors aren't supposed to generate sources on the final processing round, but javac
       // tolerates it anyway
       // TODO(cushon): consider disallowing this, or reporting a diagnostic
-      for (SourceFile file : files) {
-        units.add(Parser.parse(file));
-      }
+      ImmutableList<CompUnit> generated = parse(executor, reusable, result, files);
+      units.addAll(generated);
+      ImmutableMap<ClassSymbol, SourceTypeBoundClass> reused =
+          reusable.reusable(result, generated, errors(log));
+      Stopwatch rebind = Stopwatch.createStarted();
       result =
           Binder.bind(
               executor,
@@ -241,7 +276,9 @@ public class Processing {
               filer.generatedClasses(),
               classpath,
               bootclasspath,
-              moduleVersion);
+              moduleVersion,
+              reused);
+      timers.rebind(rebind.elapsed());
       if (log.anyErrors()) {
         return null;
       }
@@ -257,11 +294,159 @@ public class Processing {
     }
 
     result =
-        result.withStatistics(Statistics.create(timers.build(), ImmutableMap.copyOf(statistics)));
+        result.withStatistics(
+            Statistics.create(
+                timers.build(),
+                ImmutableMap.copyOf(statistics),
+                turbineTypes.memoStats(),
+                timers.rounds()));
 
     return result;
   }
 
+  /**
+   * Runs the given processors for a round, with the annotations each of them supports.
+   *
+   * <p>Processors run in the given order, except that consecutive processors that are all listed in
+   * {@code parallelProcessors} run concurrently on the executor, once every processor before them
+   * has finished. Their diagnostics are recorded in the given order, and processors after a failed
+   * one don't run.
+   */
+  private static void runProcessors(
+      TurbineExecutor executor,
+      TurbineLog log,
+      TurbineFiler filer,
+      TurbineMessager messager,
+      Timers timers,
+      ImmutableSet<String> parallelProcessors,
+      Map<Processor, Set<TypeElement>> running,
+      TurbineRoundEnvironment roundEnv) {
+    ImmutableList<Processor> processors = ImmutableList.copyOf(running.keySet());
+    int i = 0;
+    while (i < processors.size()) {
+      int end = i;
+      while (end < processors.size()
+          && parallelProcessors.contains(processors.get(end).getClass().getName())) {
+        end++;
+      }
+      if (end - i >= 2) {
+        runConcurrently(
+            executor, log, filer, messager, timers, processors, i, end, running, roundEnv);
+        i = end;
+        continue;
+      }
+      Processor processor = processors.get(i);
+      filer.owner(i);
+      try (Timers.Timer unused = timers.start(processor)) {
+        // discard the result of Processor#process because 'claiming' annotations is a bad idea
+        // TODO(cushon): consider disallowing this, or reporting a diagnostic
+        processor.process(running.get(processor), roundEnv);
+      } catch (Throwable t) {
+        throw new AnnotationProcessingError(processor, t, log.diagnostics());
+      }
+      i++;
+    }
+
+    ImmutableListMultimap<Integer, Kind> generated = filer.roundFiles();
+    for (int j = 0; j < processors.size(); j++) {
+      timers.generated(processors.get(j), generated.get(j));
+    }
+  }
+
+  /**
+   * Runs {@code processors[start, end)} concurrently. Their diagnostics are buffered until all of
+   * them have finished, and then added to the log in order, and the first exception any of them
+   * threw is rethrown after the diagnostics of the processors before it.
+   */
+  private static void runConcurrently(
+      TurbineExecutor executor,
+      TurbineLog log,
+      TurbineFiler filer,
+      TurbineMessager messager,
+      Timers timers,
+      ImmutableList<Processor> processors,
+      int start,
+      int end,
+      Map<Processor, Set<TypeElement>> running,
+      TurbineRoundEnvironment roundEnv) {
+    List<ListenableFuture<ProcessorRun>> futures = new ArrayList<>();
+    for (int i = start; i < end; i++) {
+      int owner = i;
+      Processor processor = processors.get(i);
+      Set<TypeElement> annotations = running.get(processor);
+      futures.add(
+          executor.submit(
+              () -> {
+                TurbineLog buffer = new TurbineLog();
+                try (Timers.Timer unused = timers.start(processor)) {
+                  filer.owner(owner);
+                  messager.buffer(buffer);
+                  processor.process(annotations, roundEnv);
+                  return new ProcessorRun(buffer, null);
+                } catch (Throwable t) {
+                  return new ProcessorRun(buffer, t);
+                } finally {
+                  messager.buffer(null);
+                }
+              }));
+    }
+    // Wait for all of the processors before recording any of their results, so none of them are
+    // still writing to the filer if one of them failed. Their tasks don't throw.
+    List<ProcessorRun> runs = new ArrayList<>();
+    for (ListenableFuture<ProcessorRun> future : futures) {
+      runs.add(Futures.getUnchecked(future));
+    }
+    for (int i = start; i < end; i++) {
+      ProcessorRun run = runs.get(i - start);
+      for (TurbineDiagnostic diagnostic : run.log().diagnostics()) {
+        log.add(diagnostic);
+      }
+      Throwable failure = run.failure();
+      if (failure != null) {
+        throw new AnnotationProcessingError(processors.get(i), failure, log.diagnostics());
+      }
+    }
+  }
+
+  /** The diagnostics reported by a processor that ran concurrently, and any exception it threw. */
+  private record ProcessorRun(TurbineLog log, @Nullable Throwable failure) {}
+
+  /**
+   * Parses the sources generated by a round in parallel, and meanwhile prepares to rebind the
+   * sources from the previous round.
+   */
+  private static ImmutableList<CompUnit> parse(
+      TurbineExecutor executor,
+      ReusableClasses reusable,
+      BindingResult previous,
+      Collection<SourceFile> files) {
+    ListenableFuture<?> prepared =
+        executor.submit(
+            () -> {
+              reusable.prepare(previous);
+              return null;
+            });
+    ImmutableList<CompUnit> units =
+        executor.map(
+            "Parser.parse",
+            ImmutableList.copyOf(files),
+            sourceFile -> sourceFile.source().length(),
+            Parser::parse);
+    Futures.getUnchecked(prepared);
+    return units;
+  }
+
+  /** Returns the errors reported so far, which {@link TurbineLog#clear} discards. */
+  private static ImmutableList<TurbineDiagnostic> errors(TurbineLog log) {
+    ImmutableList.Builder<TurbineDiagnostic> errors = ImmutableList.builder();
+    for (TurbineDiagnostic diagnostic : log.diagnostics()) {
+      if (diagnostic.severity().equals(Diagnostic.Kind.ERROR)) {
+        errors.add(diagnostic);
+      }
+    }
+    return errors.build();
+  }
+
   private static ImmutableMap<Processor, SupportedAnnotationTypes>
       initializeSupportedAnnotationTypes(ProcessorInfo processorInfo) {
     ImmutableMap.Builder<Processor, SupportedAnnotationTypes> result = ImmutableMap.builder();
@@ -271,7 +456,19 @@ public class Processing {
     return result.buildOrThrow();
   }
 
-  record SupportedAnnotationTypes(boolean everything, Pattern pattern) {
+  /** The annotation types supported by a processor. */
+  static final class SupportedAnnotationTypes {
+
+    private final boolean everything;
+    private final Pattern pattern;
+
+    /** Caches whether each annotation type seen so far matches {@link #pattern}. */
+    private final Map<ClassSymbol, Boolean> matches = new HashMap<>();
+
+    private SupportedAnnotationTypes(boolean everything, Pattern pattern) {
+      this.everything = everything;
+      this.pattern = pattern;
+    }
 
     static SupportedAnnotationTypes create(Processor processor) {
       List<String> patterns = new ArrayList<>();
@@ -287,88 +484,23 @@ public class Processing {
       return new SupportedAnnotationTypes(
           everything, Pattern.compile(Joiner.on('|').join(patterns)));
     }
-  }
-
 
-  /** Returns a map from annotations present in the compilation to the annotated elements. */
-  private static ImmutableSetMultimap<ClassSymbol, Symbol> getAllAnnotations(
-      Env<ClassSymbol, TypeBoundClass> env, Iterable<ClassSymbol> syms) {
-    ImmutableSetMultimap.Builder<ClassSymbol, Symbol> result = ImmutableSetMultimap.builder();
-    for (ClassSymbol sym : syms) {
-      TypeBoundClass info = env.getNonNull(sym);
-      for (AnnoInfo annoInfo : info.annotations()) {
-        if (sym.simpleName().equals("package-info")) {
-          addAnno(result, annoInfo, sym.owner());
-        } else {
-          addAnno(result, annoInfo, sym);
-        }
-      }
-      for (ClassSymbol inheritedAnno :
-          inheritedAnnotations(new HashSet<>(), info.superclass(), env)) {
-        result.put(inheritedAnno, sym);
-      }
-      for (TypeBoundClass.MethodInfo method : info.methods()) {
-        for (AnnoInfo annoInfo : method.annotations()) {
-          addAnno(result, annoInfo, method.sym());
-        }
-        for (TypeBoundClass.ParamInfo param : method.parameters()) {
-          for (AnnoInfo annoInfo : param.annotations()) {
-            addAnno(result, annoInfo, param.sym());
-          }
-        }
-      }
-      for (FieldInfo field : info.fields()) {
-        for (AnnoInfo annoInfo : field.annotations()) {
-          addAnno(result, annoInfo, field.sym());
-        }
-      }
-    }
-    return result.build();
-  }
-
-  // TODO(cushon): consider memoizing this (or isAnnotationInherited) if they show up in profiles
-  private static ImmutableSet<ClassSymbol> inheritedAnnotations(
-      Set<ClassSymbol> seen, @Nullable ClassSymbol sym, Env<ClassSymbol, TypeBoundClass> env) {
-    ImmutableSet.Builder<ClassSymbol> result = ImmutableSet.builder();
-    ClassSymbol curr = sym;
-    while (curr != null && seen.add(curr)) {
-      TypeBoundClass info = env.get(curr);
-      if (info == null) {
-        break;
-      }
-      for (AnnoInfo anno : info.annotations()) {
-        ClassSymbol annoSym = anno.sym();
-        if (annoSym == null) {
-          continue;
-        }
-        if (isAnnotationInherited(env, annoSym)) {
-          result.add(annoSym);
-        }
-      }
-      curr = info.superclass();
+    /** Returns true if the processor supports all annotation types. */
+    boolean everything() {
+      return everything;
     }
-    return result.build();
-  }
 
-  private static boolean isAnnotationInherited(
-      Env<ClassSymbol, TypeBoundClass> env, ClassSymbol sym) {
-    TypeBoundClass annoInfo = env.get(sym);
-    if (annoInfo == null) {
-      return false;
-    }
-    for (AnnoInfo anno : annoInfo.annotations()) {
-      if (Objects.equals(anno.sym(), ClassSymbol.INHERITED)) {
+    /** Returns true if the processor supports the given annotation type. */
+    boolean supports(ClassSymbol annotation) {
+      if (everything) {
         return true;
       }
-    }
-    return false;
-  }
-
-  private static void addAnno(
-      ImmutableSetMultimap.Builder<ClassSymbol, Symbol> result, AnnoInfo annoInfo, Symbol owner) {
-    ClassSymbol sym = annoInfo.sym();
-    if (sym != null) {
-      result.put(sym, owner);
+      Boolean result = matches.get(annotation);
+      if (result == null) {
+        result = pattern.matcher(annotation.toString()).matches();
+        matches.put(annotation, result);
+      }
+      return result;
     }
   }
 
@@ -382,7 +514,11 @@ public class Processing {
     }
     ImmutableList<Processor> processors = instantiateProcessors(processorNames, processorLoader);
     return ProcessorInfo.create(
-        processors, processorLoader, javacopts.processorOptions(), sourceVersion);
+        processors,
+        processorLoader,
+        javacopts.processorOptions(),
+        sourceVersion,
+        javacopts.parallelProcessors());
   }
 
   private static ImmutableList<Processor> instantiateProcessors(
@@ -458,12 +594,28 @@ public class Processing {
 
     public abstract SourceVersion sourceVersion();
 
+    /**
+     * The class names of processors that don't depend on each other, and can run concurrently
+     * within a processing round, passed to turbine with {@code -XDturbine.processing.parallel}.
+     */
+    abstract ImmutableSet<String> parallelProcessors();
+
     public static ProcessorInfo create(
         ImmutableList<Processor> processors,
         @Nullable ClassLoader loader,
         ImmutableMap<String, String> options,
         SourceVersion sourceVersion) {
-      return new AutoValue_Processing_ProcessorInfo(processors, loader, options, sourceVersion);
+      return create(processors, loader, options, sourceVersion, ImmutableSet.of());
+    }
+
+    public static ProcessorInfo create(
+        ImmutableList<Processor> processors,
+        @Nullable ClassLoader loader,
+        ImmutableMap<String, String> options,
+        SourceVersion sourceVersion,
+        ImmutableSet<String> parallelProcessors) {
+      return new AutoValue_Processing_ProcessorInfo(
+          processors, loader, options, sourceVersion, parallelProcessors);
     }
 
     public static ProcessorInfo empty() {
@@ -475,10 +627,32 @@ public class Processing {
     }
   }
 
+  /**
+   * Records the resources used by each processor, in total and in each round.
+   *
+   * <p>CPU time, allocations and model queries are measured on the thread that runs the processor,
+   * so they're attributed to the right processor when processors run concurrently.
+   */
   private static class Timers {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
     private final Map<Class<?>, Stopwatch> processorTimers = new LinkedHashMap<>();
+    private final Map<Integer, RoundUsage> rounds = new LinkedHashMap<>();
+    private final Profiler profiler;
+    private final ModelFactory factory;
+    private int round = 0;
+
+    Timers(Profiler profiler, ModelFactory factory) {
+      this.profiler = profiler;
+      this.factory = factory;
+    }
 
-    Timer start(Processor processor) {
+    /** Attributes the resources used from now on to the given round. */
+    synchronized void round(int round) {
+      this.round = round;
+    }
+
+    synchronized Timer start(Processor processor) {
       Class<? extends Processor> clazz = processor.getClass();
       Stopwatch sw = processorTimers.get(clazz);
       if (sw == null) {
@@ -486,31 +660,130 @@ public class Processing {
         processorTimers.put(clazz, sw);
       }
       sw.start();
-      return new Timer(sw);
+      return new Timer(sw, profiler.span(clazz.getName()), usage(clazz));
     }
 
-    private static class Timer implements AutoCloseable {
+    /** Records the kinds of files generated by the given processor in the current round. */
+    synchronized void generated(Processor processor, List<Kind> kinds) {
+      Usage usage = usage(processor.getClass());
+      for (Kind kind : kinds) {
+        switch (kind) {
+          case SOURCE -> usage.generatedSources++;
+          case CLASS -> usage.generatedClasses++;
+          default -> usage.generatedResources++;
+        }
+      }
+    }
 
-      private final Stopwatch sw;
+    /** Records the time spent binding the sources generated in the current round. */
+    synchronized void rebind(Duration rebindTime) {
+      roundUsage().rebindTime = rebindTime;
+    }
 
-      public Timer(Stopwatch sw) {
+    private RoundUsage roundUsage() {
+      return rounds.computeIfAbsent(round, r -> new RoundUsage());
+    }
+
+    private Usage usage(Class<?> clazz) {
+      return roundUsage().processors.computeIfAbsent(clazz, c -> new Usage());
+    }
+
+    private class Timer implements AutoCloseable {
+
+      private final Stopwatch sw;
+      private final Profiler.Span span;
+      private final Usage usage;
+      private final long startNanos = System.nanoTime();
+      private final long startCpuNanos = cpuTime();
+      private final long startAllocatedBytes = allocatedBytes();
+      private final long startElementsQueried = factory.elementsQueried();
+
+      Timer(Stopwatch sw, Profiler.Span span, Usage usage) {
         this.sw = sw;
+        this.span = span;
+        this.usage = usage;
       }
 
       @Override
       public void close() {
         sw.stop();
+        span.close();
+        synchronized (Timers.this) {
+          usage.wallNanos += System.nanoTime() - startNanos;
+          usage.cpuNanos += cpuTime() - startCpuNanos;
+          usage.allocatedBytes += allocatedBytes() - startAllocatedBytes;
+          usage.elementsQueried += factory.elementsQueried() - startElementsQueried;
+        }
       }
     }
 
-    ImmutableMap<String, Duration> build() {
+    /** The CPU time used by the current thread, or 0 if it can't be measured. */
+    private static long cpuTime() {
+      return THREADS.isCurrentThreadCpuTimeSupported()
+          ? Math.max(THREADS.getCurrentThreadCpuTime(), 0)
+          : 0;
+    }
+
+    /** The memory allocated by the current thread, or 0 if it can't be measured. */
+    private static long allocatedBytes() {
+      return THREADS instanceof com.sun.management.ThreadMXBean threads
+              && threads.isThreadAllocatedMemorySupported()
+          ? Math.max(threads.getCurrentThreadAllocatedBytes(), 0)
+          : 0;
+    }
+
+    synchronized ImmutableMap<String, Duration> build() {
       ImmutableMap.Builder<String, Duration> result = ImmutableMap.builder();
       for (Map.Entry<Class<?>, Stopwatch> e : processorTimers.entrySet()) {
-        // requireNonNull is safe, barring bizarre processor implementations (e.g., anonymous class)
-        result.put(requireNonNull(e.getKey().getCanonicalName()), e.getValue().elapsed());
+        result.put(name(e.getKey()), e.getValue().elapsed());
       }
       return result.buildOrThrow();
     }
+
+    synchronized ImmutableList<RoundStatistics> rounds() {
+      ImmutableList.Builder<RoundStatistics> result = ImmutableList.builder();
+      for (Map.Entry<Integer, RoundUsage> e : rounds.entrySet()) {
+        ImmutableMap.Builder<String, ProcessorStatistics> processors = ImmutableMap.builder();
+        for (Map.Entry<Class<?>, Usage> p : e.getValue().processors.entrySet()) {
+          Usage usage = p.getValue();
+          processors.put(
+              name(p.getKey()),
+              new ProcessorStatistics(
+                  Duration.ofNanos(usage.wallNanos),
+                  Duration.ofNanos(usage.cpuNanos),
+                  usage.allocatedBytes,
+                  usage.elementsQueried,
+                  usage.generatedSources,
+                  usage.generatedClasses,
+                  usage.generatedResources));
+        }
+        result.add(
+            new RoundStatistics(e.getKey(), e.getValue().rebindTime, processors.buildOrThrow()));
+      }
+      return result.build();
+    }
+
+    private static String name(Class<?> clazz) {
+      // requireNonNull is safe, barring bizarre processor implementations (e.g., anonymous class)
+      return requireNonNull(clazz.getCanonicalName());
+    }
+
+    /** The resources used in a round. */
+    private static class RoundUsage {
+      Duration rebindTime = Duration.ZERO;
+      final Map<Class<?>, Usage> processors = new LinkedHashMap<>();
+    }
+
+    /** The resources used by a processor in a round. */
+    private static class Usage {
+      long wallNanos;
+      long cpuNanos;
+      long allocatedBytes;
+      long elementsQueried;
+      int generatedSources;
+      int generatedClasses;
+      int generatedResources;
+    }
   }
 
   private Processing() {}
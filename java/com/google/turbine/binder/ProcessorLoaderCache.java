@@ -0,0 +1,209 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.turbine.binder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import com.google.turbine.binder.JarCache.Key;
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A cache of annotation processor class loaders, which can be shared by the compilations in a
+ * long-lived process like a persistent worker.
+ *
+ * <p>Reusing a class loader means processor classes are only loaded, verified, and JIT-compiled
+ * once, instead of once per compilation. Processor instances are still created for each
+ * compilation, since {@link javax.annotation.processing.Processor#init} may only be called once.
+ *
+ * <p>Loaders are identified by the jars on the processor path, each by its digest if the build
+ * system supplied one and otherwise by its size and modification time, and by the builtin
+ * processors that are loaded from turbine's own class loader. The least recently used loaders are
+ * evicted once the cache is full. Loaders are closed when they are evicted, or after the last
+ * compilation using them has released them, whichever happens later.
+ */
+public final class ProcessorLoaderCache {
+
+  /** A cache that doesn't retain any loaders, and creates a new loader for each compilation. */
+  public static final ProcessorLoaderCache NONE =
+      new ProcessorLoaderCache(null, ImmutableMap.of());
+
+  /** Creates a cache that retains at most {@code maxSize} loaders. */
+  public static ProcessorLoaderCache create(int maxSize) {
+    return new ProcessorLoaderCache(new Lru(maxSize), ImmutableMap.of());
+  }
+
+  /** The identity of a processor path. */
+  private record PathKey(ImmutableList<Key> jars, ImmutableSet<String> builtinProcessors) {}
+
+  /** A class loader, and the number of compilations that are using it. */
+  private static final class Entry {
+    private final ClassLoader loader;
+
+    /** The number of leases that haven't been released yet. Guarded by the cache. */
+    private int users;
+
+    /** Whether the loader is no longer in the cache. Guarded by the cache. */
+    private boolean evicted;
+
+    Entry(ClassLoader loader) {
+      this.loader = loader;
+    }
+
+    void close() throws IOException {
+      // an empty processor path uses turbine's own class loader, which must not be closed
+      if (loader != Processing.class.getClassLoader()
+          && loader instanceof URLClassLoader urlClassLoader) {
+        urlClassLoader.close();
+      }
+    }
+  }
+
+  /** The cached loaders, shared by all views of the cache. Guarded by itself. */
+  private static final class Lru extends LinkedHashMap<PathKey, Entry> {
+    private final int maxSize;
+
+    Lru(int maxSize) {
+      super(/* initialCapacity= */ 16, /* loadFactor= */ 0.75f, /* accessOrder= */ true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<PathKey, Entry> eldest) {
+      if (size() <= maxSize) {
+        return false;
+      }
+      Entry entry = eldest.getValue();
+      entry.evicted = true;
+      if (entry.users == 0) {
+        try {
+          entry.close();
+        } catch (IOException e) {
+          // the loader is no longer reachable from the cache, so there's nothing else to do
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * A class loader that has been acquired by a compilation. Closing the lease releases the loader,
+   * and the lease's loader should not be used afterwards.
+   */
+  public final class Lease implements AutoCloseable {
+    private final Entry entry;
+    private boolean released;
+
+    private Lease(Entry entry) {
+      this.entry = entry;
+    }
+
+    public ClassLoader loader() {
+      return entry.loader;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (released) {
+        return;
+      }
+      released = true;
+      if (release(entry)) {
+        entry.close();
+      }
+    }
+  }
+
+  private final @Nullable Lru loaders;
+  private final ImmutableMap<Path, HashCode> digests;
+
+  private ProcessorLoaderCache(@Nullable Lru loaders, ImmutableMap<Path, HashCode> digests) {
+    this.loaders = loaders;
+    this.digests = digests;
+  }
+
+  /**
+   * Returns a view of this cache that identifies the given jars by their digests instead of their
+   * size and modification time. The view shares its contents with this cache.
+   */
+  public ProcessorLoaderCache withDigests(Map<Path, HashCode> digests) {
+    return new ProcessorLoaderCache(loaders, JarCache.normalize(digests));
+  }
+
+  /**
+   * Returns a lease on a class loader for the given processor path, creating the loader if it isn't
+   * already cached. The lease must be closed once the compilation's processors are finished.
+   */
+  public Lease acquire(ImmutableList<String> processorPath, ImmutableSet<String> builtinProcessors)
+      throws IOException {
+    if (loaders == null || processorPath.isEmpty()) {
+      Entry entry = new Entry(Processing.processorLoader(processorPath, builtinProcessors));
+      entry.users = 1;
+      entry.evicted = true;
+      return new Lease(entry);
+    }
+    ImmutableList.Builder<Key> jars = ImmutableList.builder();
+    for (String path : processorPath) {
+      jars.add(Key.of(Path.of(path), digests));
+    }
+    PathKey key = new PathKey(jars.build(), builtinProcessors);
+    synchronized (loaders) {
+      Entry entry = loaders.get(key);
+      if (entry != null) {
+        entry.users++;
+        return new Lease(entry);
+      }
+      // creating a loader doesn't open its jars, so it's cheap enough to do under the lock
+      entry = new Entry(Processing.processorLoader(processorPath, builtinProcessors));
+      // acquire the entry before caching it, so it isn't closed if it's evicted immediately
+      entry.users = 1;
+      loaders.put(key, entry);
+      return new Lease(entry);
+    }
+  }
+
+  /** Releases a lease on {@code entry}, and returns true if its loader should be closed. */
+  private boolean release(Entry entry) {
+    if (loaders == null) {
+      return releaseLocked(entry);
+    }
+    synchronized (loaders) {
+      return releaseLocked(entry);
+    }
+  }
+
+  private static boolean releaseLocked(Entry entry) {
+    entry.users--;
+    return entry.users == 0 && entry.evicted;
+  }
+
+  /** The number of loaders currently in the cache. */
+  int size() {
+    if (loaders == null) {
+      return 0;
+    }
+    synchronized (loaders) {
+      return loaders.size();
+    }
+  }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.turbine.binder;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.turbine.binder.Binder.BindingResult;
+import com.google.turbine.binder.bound.SourceTypeBoundClass;
+import com.google.turbine.binder.sym.ClassSymbol;
+import com.google.turbine.diag.SourceFile;
+import com.google.turbine.diag.TurbineDiagnostic;
+import com.google.turbine.tree.Tree;
+import com.google.turbine.tree.Tree.CompUnit;
+import com.google.turbine.tree.Tree.TyDecl;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides which classes bound in one annotation processing round can be reused in the next one.
+ *
+ * <p>Sources generated by a round can only change the meaning of existing code that refers to
+ * them by name: a generated class may be a supertype of an existing class, or shadow a type it
+ * imports. A compilation unit that doesn't mention the simple name of any generated class, or of
+ * any class that has to be bound again, is reused as-is. This is deliberately conservative: names
+ * are matched against all identifiers in the source, including those in comments and string
+ * literals, and any unit with errors from the previous round is bound again so they're reported
+ * again.
+ *
+ * <p>The identifiers in each source file are cached across rounds.
+ */
+final class ReusableClasses {
+
+  /**
+   * Recorded instead of the identifiers of a source that contains unicode escapes, which can spell
+   * any identifier. This is never a valid identifier itself.
+   */
+  private static final String EVERYTHING = "\\u";
+
+  private final Map<SourceFile, ImmutableSet<String>> identifiers = new ConcurrentHashMap<>();
+
+  /**
+   * Finds the identifiers in the sources bound by {@code previous} ahead of time. This is
+   * thread-safe, and can be overlapped with parsing the sources generated by a round.
+   */
+  void prepare(BindingResult previous) {
+    for (SourceTypeBoundClass info : previous.units().values()) {
+      SourceFile source = info.source();
+      if (!identifiers.containsKey(source)) {
+        identifiers.putIfAbsent(source, identifiers(source));
+      }
+    }
+  }
+
+  /**
+   * Returns classes from {@code previous} that don't need to be bound again after adding the
+   * {@code generated} compilation units.
+   *
+   * @param errors the errors reported by the previous round
+   */
+  ImmutableMap<ClassSymbol, SourceTypeBoundClass> reusable(
+      BindingResult previous,
+      ImmutableList<CompUnit> generated,
+      ImmutableList<TurbineDiagnostic> errors) {
+    if (!previous.modules().isEmpty()) {
+      return ImmutableMap.of();
+    }
+    Set<String> errorPaths = new HashSet<>();
+    for (TurbineDiagnostic error : errors) {
+      if (error.path().isEmpty()) {
+        // we don't know which unit the error belongs to
+        return ImmutableMap.of();
+      }
+      errorPaths.add(error.path().get());
+    }
+    Set<String> names = new HashSet<>();
+    for (CompUnit unit : generated) {
+      if (unit.mod().isPresent()) {
+        return ImmutableMap.of();
+      }
+      for (TyDecl decl : unit.decls()) {
+        addNames(names, decl);
+      }
+    }
+
+    Map<SourceFile, List<ClassSymbol>> units = new LinkedHashMap<>();
+    for (Map.Entry<ClassSymbol, SourceTypeBoundClass> e : previous.units().entrySet()) {
+      units.computeIfAbsent(e.getValue().source(), k -> new ArrayList<>()).add(e.getKey());
+    }
+
+    Set<SourceFile> affected = new HashSet<>();
+    for (SourceFile source : units.keySet()) {
+      if (source.path() != null && errorPaths.contains(source.path())) {
+        affect(affected, names, source, units.get(source));
+      }
+    }
+    // Binding a unit again may change the meaning of other units that refer to its classes, so
+    // iterate until no more units are affected.
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (Map.Entry<SourceFile, List<ClassSymbol>> e : units.entrySet()) {
+        SourceFile source = e.getKey();
+        if (!affected.contains(source) && mentions(source, names)) {
+          affect(affected, names, source, e.getValue());
+          changed = true;
+        }
+      }
+    }
+
+    ImmutableMap.Builder<ClassSymbol, SourceTypeBoundClass> result = ImmutableMap.builder();
+    for (Map.Entry<ClassSymbol, SourceTypeBoundClass> e : previous.units().entrySet()) {
+      if (!affected.contains(e.getValue().source())) {
+        result.put(e);
+      }
+    }
+    return result.buildOrThrow();
+  }
+
+  private static void affect(
+      Set<SourceFile> affected, Set<String> names, SourceFile source, List<ClassSymbol> syms) {
+    affected.add(source);
+    for (ClassSymbol sym : syms) {
+      String binaryName = sym.binaryName();
+      names.addAll(
+          Splitter.on('$').splitToList(binaryName.substring(binaryName.lastIndexOf('/') + 1)));
+    }
+  }
+
+  private static void addNames(Set<String> names, TyDecl decl) {
+    names.add(decl.name().value());
+    for (Tree member : decl.members()) {
+      if (member instanceof TyDecl tyDecl) {
+        addNames(names, tyDecl);
+      }
+    }
+  }
+
+  private boolean mentions(SourceFile source, Set<String> names) {
+    ImmutableSet<String> ids = identifiers.computeIfAbsent(source, ReusableClasses::identifiers);
+    if (ids.contains(EVERYTHING)) {
+      return true;
+    }
+    for (String name : names) {
+      if (ids.contains(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Returns all of the identifiers in the given source. */
+  private static ImmutableSet<String> identifiers(SourceFile source) {
+    String text = source.source();
+    if (text.contains("\\u")) {
+      return ImmutableSet.of(EVERYTHING);
+    }
+    ImmutableSet.Builder<String> result = ImmutableSet.builder();
+    int start = -1;
+    for (int i = 0; i < text.length(); ) {
+      int c = text.codePointAt(i);
+      if (start == -1) {
+        if (Character.isJavaIdentifierStart(c)) {
+          start = i;
+        }
+      } else if (!Character.isJavaIdentifierPart(c)) {
+        result.add(text.substring(start, i));
+        start = -1;
+      }
+      i += Character.charCount(c);
+    }
+    if (start != -1) {
+      result.add(text.substring(start));
+    }
+    return result.build();
+  }
+}
@@ -83,6 +83,34 @@ public class BytecodeBoundClass implements TypeBoundClass {
     return Suppliers.memoize(() -> new BytecodeBoundClass(sym, bytes, env, path.toString()));
   }
 
+  /**
+   * Returns a bound class for an already-decoded class file. The class file is independent of the
+   * rest of the classpath, so it can be shared between environments, e.g. by {@link
+   * com.google.turbine.binder.JarCache}.
+   */
+  public static BytecodeBoundClass fromClassFile(
+      ClassSymbol sym,
+      Supplier<ClassFile> classFile,
+      Env<ClassSymbol, BytecodeBoundClass> env,
+      @Nullable String jarFile) {
+    return new BytecodeBoundClass(sym, env, jarFile, classFile);
+  }
+
+  /** Returns a memoized supplier that decodes the class file for {@code sym} from {@code bytes}. */
+  public static Supplier<ClassFile> classFile(
+      ClassSymbol sym, Supplier<byte[]> bytes, @Nullable String jarFile) {
+    return Suppliers.memoize(
+        () -> {
+          ClassFile cf = ClassReader.read(jarFile + "!" + sym.binaryName(), bytes.get());
+          verify(
+              cf.name().equals(sym.binaryName()),
+              "expected class data for %s, saw %s instead",
+              sym.binaryName(),
+              cf.name());
+          return cf;
+        });
+  }
+
   private final ClassSymbol sym;
   private final Env<ClassSymbol, BytecodeBoundClass> env;
   private final Supplier<ClassFile> classFile;
@@ -93,20 +121,18 @@ public class BytecodeBoundClass implements TypeBoundClass {
       Supplier<byte[]> bytes,
       Env<ClassSymbol, BytecodeBoundClass> env,
       @Nullable String jarFile) {
+    this(sym, env, jarFile, classFile(sym, bytes, jarFile));
+  }
+
+  private BytecodeBoundClass(
+      ClassSymbol sym,
+      Env<ClassSymbol, BytecodeBoundClass> env,
+      @Nullable String jarFile,
+      Supplier<ClassFile> classFile) {
     this.sym = sym;
     this.env = env;
     this.jarFile = jarFile;
-    this.classFile =
-        Suppliers.memoize(
-            () -> {
-              ClassFile cf = ClassReader.read(jarFile + "!" + sym.binaryName(), bytes.get());
-              verify(
-                  cf.name().equals(sym.binaryName()),
-                  "expected class data for %s, saw %s instead",
-                  sym.binaryName(),
-                  cf.name());
-              return cf;
-            });
+    this.classFile = classFile;
   }
 
   private final Supplier<TurbineTyKind> kind =
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.turbine.binder.env;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import com.google.turbine.binder.env.LazyEnv.Completer;
+import com.google.turbine.binder.env.LazyEnv.LazyBindingError;
+import com.google.turbine.binder.sym.Symbol;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A thread-safe version of {@link LazyEnv}, which allows symbols to be completed concurrently.
+ *
+ * <p>Each symbol is completed at most once, by the first thread that asks for it. Other threads
+ * that ask for the symbol while it is being completed wait for the result.
+ *
+ * <p>As with {@link LazyEnv}, if a thread asks for a symbol it is already completing a {@link
+ * LazyBindingError} is thrown, which the completer that caused the cycle may handle. If threads
+ * wait for each other's symbols, which would otherwise deadlock, completion is instead abandoned
+ * with a {@link CycleException}. Which completer observes that kind of cycle depends on how the
+ * threads were scheduled, so callers should discard the results, see {@link #cyclic}, and complete
+ * the symbols again with a {@link LazyEnv}.
+ */
+public class ConcurrentLazyEnv<S extends Symbol, T, V extends T> implements Env<S, V> {
+
+  /** Lazy value providers for the symbols in the environment. */
+  private final ImmutableMap<S, Completer<S, T, V>> completers;
+
+  /** Symbols that have been, or are being, completed. */
+  private final Map<S, Completion<V>> completions = new ConcurrentHashMap<>();
+
+  /** An underlying env of already-computed {@code T}s that can be queried during completion. */
+  private final Env<S, T> rec;
+
+  /** The symbol each thread is waiting for another thread to complete, used to check for cycles. */
+  @GuardedBy("waiting")
+  private final Map<Thread, S> waiting = new HashMap<>();
+
+  /** The symbols that are being completed by the current thread, used to report cycles. */
+  private final ThreadLocal<LinkedHashSet<S>> completing =
+      ThreadLocal.withInitial(LinkedHashSet::new);
+
+  private volatile boolean cyclic = false;
+
+  public ConcurrentLazyEnv(
+      ImmutableMap<S, Completer<S, T, V>> completers, Env<S, ? extends T> base) {
+    this.completers = completers;
+    this.rec = CompoundEnv.<S, T>of(base).append(this);
+  }
+
+  /** A symbol's value, and the thread that is responsible for completing it. */
+  private record Completion<V>(Thread owner, SettableFuture<@Nullable V> future) {}
+
+  /**
+   * Returns the value of the given symbol.
+   *
+   * @throws LazyBindingError if the current thread is already completing the symbol
+   * @throws CycleException if threads are waiting for each other's symbols
+   */
+  @Override
+  public @Nullable V get(S sym) {
+    Completer<S, T, V> completer = completers.get(sym);
+    if (completer == null) {
+      return null;
+    }
+    Completion<V> completion = completions.get(sym);
+    if (completion == null) {
+      Completion<V> created = new Completion<>(Thread.currentThread(), SettableFuture.create());
+      completion = completions.putIfAbsent(sym, created);
+      if (completion == null) {
+        return complete(sym, completer, created);
+      }
+    }
+    if (!completion.future().isDone()) {
+      if (completion.owner().equals(Thread.currentThread())) {
+        throw new LazyBindingError(Joiner.on(" -> ").join(completing.get()) + " -> " + sym);
+      }
+      await(sym, completion);
+    }
+    return getDone(completion.future());
+  }
+
+  private @Nullable V complete(S sym, Completer<S, T, V> completer, Completion<V> completion) {
+    if (cyclic) {
+      CycleException e = new CycleException();
+      completion.future().setException(e);
+      throw e;
+    }
+    LinkedHashSet<S> seen = completing.get();
+    seen.add(sym);
+    try {
+      V v = completer.complete(rec, sym);
+      completion.future().set(v);
+      return v;
+    } catch (Throwable t) {
+      // unblock any other threads waiting for this symbol
+      completion.future().setException(t);
+      throw t;
+    } finally {
+      seen.remove(sym);
+    }
+  }
+
+  /**
+   * Waits for another thread to complete {@code sym}, unless the other thread is (transitively)
+   * waiting for the current thread.
+   */
+  private void await(S sym, Completion<V> completion) {
+    Thread current = Thread.currentThread();
+    synchronized (waiting) {
+      // Follow the chain of threads that are waiting on each other, starting with the owner of the
+      // symbol. Symbols are completed synchronously by their owners, so if the chain leads back to
+      // the current thread no thread in it can make progress.
+      Completion<V> next = completion;
+      while (!next.future().isDone()) {
+        if (next.owner().equals(current)) {
+          cyclic = true;
+          throw new CycleException();
+        }
+        S blocked = waiting.get(next.owner());
+        if (blocked == null) {
+          break;
+        }
+        next = requireNonNull(completions.get(blocked));
+      }
+      waiting.put(current, sym);
+    }
+    try {
+      Uninterruptibles.getUninterruptibly(completion.future());
+    } catch (ExecutionException e) {
+      // handled by getDone
+    } finally {
+      synchronized (waiting) {
+        waiting.remove(current);
+      }
+    }
+  }
+
+  private static <V> @Nullable V getDone(SettableFuture<@Nullable V> future) {
+    try {
+      return Uninterruptibles.getUninterruptibly(future);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof CycleException) {
+        throw new CycleException();
+      }
+      Throwables.throwIfUnchecked(cause);
+      throw new AssertionError(cause);
+    }
+  }
+
+  /** Returns true if threads were waiting for each other, and completion was abandoned. */
+  public boolean cyclic() {
+    return cyclic;
+  }
+
+  /**
+   * Indicates that completion was abandoned because threads were waiting for each other's symbols.
+   * This is deliberately not a {@link LazyBindingError}, so it isn't handled by completers.
+   */
+  public static class CycleException extends RuntimeException {
+    public CycleException() {
+      super("cycle detected during lazy completion");
+    }
+  }
+}
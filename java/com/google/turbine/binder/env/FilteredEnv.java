@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.turbine.binder.env;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.turbine.binder.lookup.LookupStatistics;
+import com.google.turbine.binder.lookup.PackageFilter;
+import com.google.turbine.binder.sym.ClassSymbol;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An {@link Env} that skips lookups of classes in packages that its {@link PackageFilter} rules
+ * out, e.g. so a {@link CompoundEnv} of classpath envs only searches the envs that can contain a
+ * class.
+ */
+public class FilteredEnv<V> implements Env<ClassSymbol, V> {
+
+  private final Env<ClassSymbol, ? extends V> env;
+  private final PackageFilter packageFilter;
+  private final LookupStatistics.Layer statistics;
+
+  private FilteredEnv(
+      Env<ClassSymbol, ? extends V> env,
+      PackageFilter packageFilter,
+      LookupStatistics.Layer statistics) {
+    this.env = requireNonNull(env);
+    this.packageFilter = requireNonNull(packageFilter);
+    this.statistics = requireNonNull(statistics);
+  }
+
+  /**
+   * Creates an env that only searches {@code env} for classes in packages that might be in {@code
+   * packageFilter}, and records its lookups in {@code statistics}.
+   */
+  public static <V> FilteredEnv<V> of(
+      Env<ClassSymbol, ? extends V> env,
+      PackageFilter packageFilter,
+      LookupStatistics.Layer statistics) {
+    return new FilteredEnv<>(env, packageFilter, statistics);
+  }
+
+  @Override
+  public @Nullable V get(ClassSymbol sym) {
+    if (!packageFilter.mightContain(sym)) {
+      statistics.skip();
+      return null;
+    }
+    V result = env.get(sym);
+    statistics.search(result != null);
+    return result;
+  }
+}
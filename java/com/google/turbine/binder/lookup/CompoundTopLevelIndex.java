@@ -19,6 +19,8 @@ package com.google.turbine.binder.lookup;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
 import org.jspecify.annotations.Nullable;
 
 /** A {@link TopLevelIndex} that aggregates multiple indices into one. */
@@ -29,24 +31,51 @@ import org.jspecify.annotations.Nullable;
 // TODO(cushon): improve error handling
 public class CompoundTopLevelIndex implements TopLevelIndex {
 
-  private final ImmutableList<TopLevelIndex> indexes;
+  /** An index in the chain, and its filter and lookup statistics. */
+  private record Layer(
+      TopLevelIndex index, PackageFilter packageFilter, LookupStatistics.Layer statistics) {}
 
-  private CompoundTopLevelIndex(ImmutableList<TopLevelIndex> indexes) {
-    this.indexes = checkNotNull(indexes);
+  private final ImmutableList<Layer> layers;
+
+  private CompoundTopLevelIndex(ImmutableList<Layer> layers) {
+    this.layers = checkNotNull(layers);
   }
 
   /** Creates a {@link CompoundTopLevelIndex}. */
   public static CompoundTopLevelIndex of(TopLevelIndex... indexes) {
-    return new CompoundTopLevelIndex(ImmutableList.copyOf(indexes));
+    ImmutableMap.Builder<String, TopLevelIndex> named = ImmutableMap.builder();
+    for (int i = 0; i < indexes.length; i++) {
+      named.put(Integer.toString(i), indexes[i]);
+    }
+    return of(LookupStatistics.DISABLED, named.buildOrThrow());
+  }
+
+  /**
+   * Creates a {@link CompoundTopLevelIndex} of the given named indices, in order of precedence, and
+   * records the lookups in each index in {@code statistics}.
+   */
+  public static CompoundTopLevelIndex of(
+      LookupStatistics statistics, ImmutableMap<String, TopLevelIndex> indexes) {
+    ImmutableList.Builder<Layer> layers = ImmutableList.builder();
+    indexes.forEach(
+        (name, index) ->
+            layers.add(new Layer(index, index.packageFilter(), statistics.layer(name))));
+    return new CompoundTopLevelIndex(layers.build());
   }
 
   private final Scope scope =
       new Scope() {
         @Override
         public @Nullable LookupResult lookup(LookupKey lookupKey) {
+          String first = lookupKey.first().value();
           // Return the first matching symbol.
-          for (TopLevelIndex index : indexes) {
-            LookupResult result = index.scope().lookup(lookupKey);
+          for (Layer layer : layers) {
+            if (!layer.packageFilter().mightContainQualifiedName(first)) {
+              layer.statistics().skip();
+              continue;
+            }
+            LookupResult result = layer.index().scope().lookup(lookupKey);
+            layer.statistics().search(result != null);
             if (result != null) {
               return result;
             }
@@ -62,11 +91,18 @@ public class CompoundTopLevelIndex implements TopLevelIndex {
 
   @Override
   public @Nullable PackageScope lookupPackage(Iterable<String> packagename) {
+    // Every index has a scope for the default package, even if it doesn't contain any classes.
+    boolean filter = !Iterables.isEmpty(packagename);
     // When returning package scopes, build up a compound scope containing entries from all
     // indices with matching packages.
     PackageScope result = null;
-    for (TopLevelIndex index : indexes) {
-      PackageScope packageScope = index.lookupPackage(packagename);
+    for (Layer layer : layers) {
+      if (filter && !layer.packageFilter().mightContainPackage(packagename)) {
+        layer.statistics().skip();
+        continue;
+      }
+      PackageScope packageScope = layer.index().lookupPackage(packagename);
+      layer.statistics().search(packageScope != null);
       if (packageScope == null) {
         continue;
       }
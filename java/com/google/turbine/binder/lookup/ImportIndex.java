@@ -42,14 +42,15 @@ import org.jspecify.annotations.Nullable;
  */
 public class ImportIndex implements ImportScope {
 
-  /**
-   * A map from simple names of imported symbols to an {@link ImportScope} for a named (possibly
-   * static) import; e.g. {@code `Map` -> ImportScope(`import java.util.Map;`)}.
-   */
-  private final ImmutableMap<String, Supplier<ImportScope>> thunks;
+  private final TurbineLogWithSource log;
+  private final ImmutableList<ImportDecl> imports;
+  private final Resolutions resolutions;
 
-  public ImportIndex(TurbineLogWithSource log, ImmutableMap<String, Supplier<ImportScope>> thunks) {
-    this.thunks = thunks;
+  private ImportIndex(
+      TurbineLogWithSource log, ImmutableList<ImportDecl> imports, Resolutions resolutions) {
+    this.log = log;
+    this.imports = imports;
+    this.resolutions = resolutions;
   }
 
   /** Creates an import index for the given top-level environment. */
@@ -58,63 +59,110 @@ public class ImportIndex implements ImportScope {
       CanonicalSymbolResolver resolve,
       final TopLevelIndex cpi,
       ImmutableList<ImportDecl> imports) {
-    Map<String, Supplier<@Nullable ImportScope>> thunks = new HashMap<>();
-    for (final Tree.ImportDecl i : imports) {
+    return create(log, imports, resolve(resolve, cpi, imports));
+  }
+
+  /**
+   * Creates an import index that shares already-created {@link Resolutions}, for example with other
+   * compilation units in the same package that have the same imports.
+   *
+   * @param imports the imports of the current compilation unit, which must be the same as the
+   *     imports the resolutions were created for except for their source positions. Diagnostics are
+   *     reported at positions in these imports.
+   */
+  public static ImportIndex create(
+      TurbineLogWithSource log, ImmutableList<ImportDecl> imports, Resolutions resolutions) {
+    return new ImportIndex(log, imports, resolutions);
+  }
+
+  /** Prepares to lazily resolve the given imports. */
+  public static Resolutions resolve(
+      CanonicalSymbolResolver resolve, TopLevelIndex cpi, ImmutableList<ImportDecl> imports) {
+    Map<String, Supplier<Resolution>> thunks = new HashMap<>();
+    for (int idx = 0; idx < imports.size(); idx++) {
+      Tree.ImportDecl i = imports.get(idx);
       if (i.stat() || i.wild()) {
         continue;
       }
+      int importIndex = idx;
       thunks.put(
           i.type().getLast().value(),
-          Suppliers.<@Nullable ImportScope>memoize(() -> namedImport(log, cpi, i, resolve)));
+          Suppliers.memoize(() -> namedImport(importIndex, cpi, i, resolve)));
     }
     // Process static imports as a separate pass. If a static and non-static named import share a
     // simple name the non-static import wins.
-    for (final Tree.ImportDecl i : imports) {
+    for (int idx = 0; idx < imports.size(); idx++) {
+      Tree.ImportDecl i = imports.get(idx);
       if (!i.stat() || i.wild()) {
         continue;
       }
+      int importIndex = idx;
       String last = i.type().getLast().value();
-      thunks.putIfAbsent(
-          last, Suppliers.<@Nullable ImportScope>memoize(() -> staticNamedImport(log, cpi, i)));
+      thunks.putIfAbsent(last, Suppliers.memoize(() -> staticNamedImport(importIndex, cpi, i)));
     }
-    return new ImportIndex(log, ImmutableMap.copyOf(thunks));
+    return new Resolutions(ImmutableMap.copyOf(thunks));
   }
 
+  /**
+   * The lazily resolved single-type imports of a compilation unit. Resolutions don't refer to the
+   * compilation unit's source file, so they can be shared between compilation units that have the
+   * same imports.
+   */
+  public static final class Resolutions {
+
+    /**
+     * A map from simple names of imported symbols to the resolution of a named (possibly static)
+     * import; e.g. {@code `Map` -> ImportScope(`import java.util.Map;`)}.
+     */
+    private final ImmutableMap<String, Supplier<Resolution>> thunks;
+
+    private Resolutions(ImmutableMap<String, Supplier<Resolution>> thunks) {
+      this.thunks = thunks;
+    }
+  }
+
+  /** The resolved scope for an import, or the reason it couldn't be resolved. */
+  private record Resolution(@Nullable ImportScope scope, @Nullable Failure failure) {}
+
+  /**
+   * A symbol that could not be found while resolving an import.
+   *
+   * @param importIndex the index of the import in the compilation unit's imports
+   * @param identIndex the index of the simple name in the import that could not be resolved, or
+   *     {@code -1} if the import's canonical prefix could not be resolved
+   */
+  private record Failure(int importIndex, int identIndex, ClassSymbol sym) {}
+
   /** Fully resolve the canonical name of a non-static named import. */
-  private static @Nullable ImportScope namedImport(
-      TurbineLogWithSource log, TopLevelIndex cpi, ImportDecl i, CanonicalSymbolResolver resolve) {
+  private static Resolution namedImport(
+      int importIndex, TopLevelIndex cpi, ImportDecl i, CanonicalSymbolResolver resolve) {
     LookupResult result = cpi.scope().lookup(new LookupKey(i.type()));
     if (result == null) {
-      log.error(
-          i.position(), ErrorKind.SYMBOL_NOT_FOUND, new ClassSymbol(Joiner.on('/').join(i.type())));
-      return null;
+      return new Resolution(
+          null, new Failure(importIndex, -1, new ClassSymbol(Joiner.on('/').join(i.type()))));
     }
     ClassSymbol sym = (ClassSymbol) result.sym();
+    // the remaining simple names are a suffix of the import's name
+    int identIndex = i.type().size() - result.remaining().size();
     for (Tree.Ident bit : result.remaining()) {
-      sym = resolveNext(log, resolve, sym, bit);
-      if (sym == null) {
-        return null;
+      ClassSymbol next = resolve.resolveOne(sym, bit);
+      if (next == null) {
+        return new Resolution(
+            null,
+            new Failure(importIndex, identIndex, new ClassSymbol(sym.binaryName() + '$' + bit)));
       }
+      sym = next;
+      identIndex++;
     }
     ClassSymbol resolved = sym;
-    return new ImportScope() {
-      @Override
-      public LookupResult lookup(LookupKey lookupKey, ResolveFunction unused) {
-        return new LookupResult(resolved, lookupKey);
-      }
-    };
-  }
-
-  private static @Nullable ClassSymbol resolveNext(
-      TurbineLogWithSource log, CanonicalSymbolResolver resolve, ClassSymbol sym, Ident bit) {
-    ClassSymbol next = resolve.resolveOne(sym, bit);
-    if (next == null) {
-      log.error(
-          bit.position(),
-          ErrorKind.SYMBOL_NOT_FOUND,
-          new ClassSymbol(sym.binaryName() + '$' + bit));
-    }
-    return next;
+    return new Resolution(
+        new ImportScope() {
+          @Override
+          public LookupResult lookup(LookupKey lookupKey, ResolveFunction unused) {
+            return new LookupResult(resolved, lookupKey);
+          }
+        },
+        null);
   }
 
   /**
@@ -124,38 +172,48 @@ public class ImportIndex implements ImportScope {
    * hierarchy analysis is complete, so for now we resolve the base {@code java.util.HashMap} and
    * defer the rest.
    */
-  private static @Nullable ImportScope staticNamedImport(
-      TurbineLogWithSource log, TopLevelIndex cpi, ImportDecl i) {
+  private static Resolution staticNamedImport(int importIndex, TopLevelIndex cpi, ImportDecl i) {
     LookupResult base = cpi.scope().lookup(new LookupKey(i.type()));
     if (base == null) {
-      log.error(
-          i.position(), ErrorKind.SYMBOL_NOT_FOUND, new ClassSymbol(Joiner.on("/").join(i.type())));
-      return null;
+      return new Resolution(
+          null, new Failure(importIndex, -1, new ClassSymbol(Joiner.on("/").join(i.type()))));
     }
-    return new ImportScope() {
-      @Override
-      public @Nullable LookupResult lookup(LookupKey lookupKey, ResolveFunction resolve) {
-        ClassSymbol sym = (ClassSymbol) base.sym();
-        for (Tree.Ident bit : base.remaining()) {
-          sym = resolve.resolveOne(sym, bit);
-          if (sym == null) {
-            // Assume that static imports that don't resolve to types are non-type member imports,
-            // even if the simple name matched what we're looking for.
-            return null;
+    return new Resolution(
+        new ImportScope() {
+          @Override
+          public @Nullable LookupResult lookup(LookupKey lookupKey, ResolveFunction resolve) {
+            ClassSymbol sym = (ClassSymbol) base.sym();
+            for (Tree.Ident bit : base.remaining()) {
+              sym = resolve.resolveOne(sym, bit);
+              if (sym == null) {
+                // Assume that static imports that don't resolve to types are non-type member
+                // imports, even if the simple name matched what we're looking for.
+                return null;
+              }
+            }
+            return new LookupResult(sym, lookupKey);
           }
-        }
-        return new LookupResult(sym, lookupKey);
-      }
-    };
+        },
+        null);
   }
 
   @Override
   public @Nullable LookupResult lookup(LookupKey lookup, ResolveFunction resolve) {
-    Supplier<ImportScope> thunk = thunks.get(lookup.first().value());
+    Supplier<Resolution> thunk = resolutions.thunks.get(lookup.first().value());
     if (thunk == null) {
       return null;
     }
-    ImportScope scope = thunk.get();
+    Resolution resolution = thunk.get();
+    Failure failure = resolution.failure();
+    if (failure != null) {
+      // The log ignores duplicate diagnostics, so this is reported once per compilation unit even
+      // if the name is looked up repeatedly.
+      ImportDecl i = imports.get(failure.importIndex());
+      int position =
+          failure.identIndex() < 0 ? i.position() : i.type().get(failure.identIndex()).position();
+      log.error(position, ErrorKind.SYMBOL_NOT_FOUND, failure.sym());
+    }
+    ImportScope scope = resolution.scope();
     if (scope == null) {
       return null;
     }
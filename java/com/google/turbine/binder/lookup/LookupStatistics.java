@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.turbine.binder.lookup;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts lookups in each layer of a chain of indices or envs, and how many of them were skipped by
+ * the layer's {@link PackageFilter}.
+ *
+ * <p>Lookups may be recorded concurrently from multiple threads.
+ */
+public final class LookupStatistics {
+
+  /** Statistics that don't record anything, for when they won't be reported. */
+  public static final LookupStatistics DISABLED = new LookupStatistics(/* enabled= */ false);
+
+  /** The lookups in a single layer. */
+  public static final class Layer {
+
+    private final String name;
+    private final boolean enabled;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private Layer(String name, boolean enabled) {
+      this.name = name;
+      this.enabled = enabled;
+    }
+
+    /** Records a lookup that was skipped, because the layer's filter ruled it out. */
+    public void skip() {
+      if (!enabled) {
+        return;
+      }
+      lookups.increment();
+      skipped.increment();
+    }
+
+    /** Records a lookup that searched the layer, and whether it found anything. */
+    public void search(boolean found) {
+      if (!enabled) {
+        return;
+      }
+      lookups.increment();
+      if (!found) {
+        misses.increment();
+      }
+    }
+
+    public String name() {
+      return name;
+    }
+
+    /** The total number of lookups in the layer. */
+    public long lookups() {
+      return lookups.sum();
+    }
+
+    /** The number of lookups that were ruled out by the layer's filter. */
+    public long skipped() {
+      return skipped.sum();
+    }
+
+    /** The number of lookups that searched the layer without finding anything. */
+    public long misses() {
+      return misses.sum();
+    }
+  }
+
+  private final boolean enabled;
+  private final List<Layer> layers = new CopyOnWriteArrayList<>();
+
+  public LookupStatistics() {
+    this(/* enabled= */ true);
+  }
+
+  private LookupStatistics(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Adds a layer with the given name. The layers of {@link #DISABLED} don't record any lookups, and
+   * aren't added to {@link #layers}.
+   */
+  public Layer layer(String name) {
+    Layer layer = new Layer(name, enabled);
+    if (enabled) {
+      layers.add(layer);
+    }
+    return layer;
+  }
+
+  /** Returns the layers, in the order they were added. */
+  public ImmutableList<Layer> layers() {
+    return ImmutableList.copyOf(layers);
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.turbine.binder.lookup;
+
+import com.google.turbine.binder.sym.ClassSymbol;
+import java.util.Collection;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A Bloom filter of the packages in an index, which lets lookups skip indices that can't contain a
+ * class.
+ *
+ * <p>The filter may report that it contains packages that aren't actually in the index, but never
+ * the reverse. The enclosing packages of each package are also added, so a qualified name can be
+ * ruled out by its first simple name.
+ *
+ * <p>Packages are hashed with {@link String#hashCode} of their binary name, so names can be tested
+ * without allocating, e.g. using a prefix of a class's binary name.
+ */
+public final class PackageFilter {
+
+  /** A filter that may contain any package. */
+  public static final PackageFilter ALL = new PackageFilter(null, /* defaultPackage= */ true);
+
+  /** The number of bits set for each package. */
+  private static final int HASHES = 4;
+
+  /** The bits of the filter, or {@code null} if it may contain any package. */
+  private final long @Nullable [] bits;
+
+  /** Whether the index contains classes in the default package. */
+  private final boolean defaultPackage;
+
+  private PackageFilter(long @Nullable [] bits, boolean defaultPackage) {
+    this.bits = bits;
+    this.defaultPackage = defaultPackage;
+  }
+
+  /**
+   * Creates a filter for the given binary ({@code '/'}-delimited) package names. The default
+   * package is represented by an empty string.
+   */
+  public static PackageFilter of(Collection<String> packages) {
+    // At least 32 bits per package. Enclosing packages are mostly shared, so the filter is usually
+    // less than a fifth full, and less than one in a thousand missing packages is a false positive.
+    long[] bits = new long[Integer.highestOneBit(Math.max(1, packages.size()))];
+    boolean defaultPackage = false;
+    for (String pkg : packages) {
+      if (pkg.isEmpty()) {
+        defaultPackage = true;
+        continue;
+      }
+      int hash = 0;
+      for (int i = 0; i < pkg.length(); i++) {
+        char c = pkg.charAt(i);
+        if (c == '/') {
+          set(bits, hash);
+        }
+        hash = 31 * hash + c;
+      }
+      set(bits, hash);
+    }
+    return new PackageFilter(bits, defaultPackage);
+  }
+
+  private static void set(long[] bits, int hash) {
+    int mask = bits.length * Long.SIZE - 1;
+    int h1 = mix(hash);
+    int h2 = (h1 >>> 16) | 1;
+    for (int i = 0; i < HASHES; i++) {
+      int bit = (h1 + i * h2) & mask;
+      bits[bit >>> 6] |= 1L << bit;
+    }
+  }
+
+  private boolean test(int hash) {
+    long[] bits = this.bits;
+    if (bits == null) {
+      return true;
+    }
+    int mask = bits.length * Long.SIZE - 1;
+    int h1 = mix(hash);
+    int h2 = (h1 >>> 16) | 1;
+    for (int i = 0; i < HASHES; i++) {
+      int bit = (h1 + i * h2) & mask;
+      if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Spreads the bits of a string hash code. */
+  private static int mix(int hash) {
+    hash *= 0x9e3779b9;
+    return hash ^ (hash >>> 15);
+  }
+
+  /**
+   * Returns false if the index definitely doesn't contain the given package.
+   *
+   * @param packageName the binary ({@code '/'}-delimited) package name
+   */
+  public boolean mightContainPackage(String packageName) {
+    return packageName.isEmpty() ? defaultPackage : test(packageName.hashCode());
+  }
+
+  /** Returns false if the index definitely doesn't contain the package with the given parts. */
+  public boolean mightContainPackage(Iterable<String> packageName) {
+    int hash = 0;
+    boolean first = true;
+    for (String part : packageName) {
+      if (!first) {
+        hash = 31 * hash + '/';
+      }
+      first = false;
+      for (int i = 0; i < part.length(); i++) {
+        hash = 31 * hash + part.charAt(i);
+      }
+    }
+    return first ? defaultPackage : test(hash);
+  }
+
+  /** Returns false if the index definitely doesn't contain the package of the given class. */
+  public boolean mightContain(ClassSymbol sym) {
+    String binaryName = sym.binaryName();
+    int idx = binaryName.lastIndexOf('/');
+    if (idx == -1) {
+      return defaultPackage;
+    }
+    int hash = 0;
+    for (int i = 0; i < idx; i++) {
+      hash = 31 * hash + binaryName.charAt(i);
+    }
+    return test(hash);
+  }
+
+  /**
+   * Returns false if the index definitely doesn't contain a top-level class whose qualified name
+   * starts with {@code simpleName}, i.e. if it doesn't contain a package with that name, or any
+   * classes in the default package.
+   */
+  public boolean mightContainQualifiedName(String simpleName) {
+    return defaultPackage || test(simpleName.hashCode());
+  }
+}
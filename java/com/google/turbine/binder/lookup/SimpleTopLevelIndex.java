@@ -23,7 +23,9 @@ import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.turbine.binder.sym.ClassSymbol;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Objects;
+import java.util.Set;
 import org.jspecify.annotations.Nullable;
 
 /**
@@ -82,10 +84,13 @@ public class SimpleTopLevelIndex implements TopLevelIndex {
     // isn't significant.
     private final StringCache stringCache = new StringCache(1024);
 
+    /** The packages of the inserted symbols, including any that were shadowed. */
+    private final Set<String> packages = new HashSet<>();
+
     public TopLevelIndex build() {
       // Freeze the index. The immutability of nodes is enforced by making insert private, doing
       // a deep copy here isn't necessary.
-      return new SimpleTopLevelIndex(root);
+      return new SimpleTopLevelIndex(root, PackageFilter.of(packages));
     }
 
     /** The root of the lookup tree, effectively the package node of the default package. */
@@ -94,6 +99,8 @@ public class SimpleTopLevelIndex implements TopLevelIndex {
     /** Inserts a {@link ClassSymbol} into the index, creating any needed packages. */
     public void insert(ClassSymbol sym) {
       String binaryName = sym.binaryName();
+      int idx = binaryName.lastIndexOf('/');
+      packages.add(idx == -1 ? "" : stringCache.getSubstring(binaryName, 0, idx));
       int start = 0;
       int end = binaryName.indexOf('/');
       Node curr = root;
@@ -132,12 +139,15 @@ public class SimpleTopLevelIndex implements TopLevelIndex {
     return builder.build();
   }
 
-  private SimpleTopLevelIndex(Node root) {
+  private SimpleTopLevelIndex(Node root, PackageFilter packageFilter) {
     this.root = root;
+    this.packageFilter = packageFilter;
   }
 
   final Node root;
 
+  private final PackageFilter packageFilter;
+
   /** Looks up top-level qualified type names. */
   final Scope scope =
       new Scope() {
@@ -165,6 +175,11 @@ public class SimpleTopLevelIndex implements TopLevelIndex {
     return scope;
   }
 
+  @Override
+  public PackageFilter packageFilter() {
+    return packageFilter;
+  }
+
   /** Returns a {@link Scope} that performs lookups in the given qualified package name. */
   @Override
   public @Nullable PackageScope lookupPackage(Iterable<String> packagename) {
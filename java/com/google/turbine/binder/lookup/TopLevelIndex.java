@@ -40,6 +40,14 @@ public interface TopLevelIndex {
   /** Returns a scope to look up members of the given package. */
   @Nullable PackageScope lookupPackage(Iterable<String> packagename);
 
+  /**
+   * Returns a filter of the packages in this index, which is used to skip the index when looking up
+   * names it can't contain. By default, the index may contain any package.
+   */
+  default PackageFilter packageFilter() {
+    return PackageFilter.ALL;
+  }
+
   /**
    * Returns a scope to look up members of the given package.
    *
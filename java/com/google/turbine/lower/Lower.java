@@ -124,7 +124,9 @@ public class Lower {
 
     ImmutableList<TaskResult> classResults =
         executor.map(
+            "Lower.lowerAll",
             pruned.entrySet().asList(),
+            entry -> entry.getValue().methods().size() + entry.getValue().fields().size(),
             entry -> {
               ClassSymbol sym = entry.getKey();
               return lower(
@@ -133,6 +135,7 @@ public class Lower {
 
     ImmutableList<TaskResult> moduleResults =
         executor.map(
+            "Lower.lowerModules",
             modules,
             module ->
                 lower(
@@ -24,15 +24,24 @@ import com.google.auto.value.AutoValue;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.hash.Hashing;
+import com.google.common.io.CountingOutputStream;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import com.google.turbine.binder.Binder;
 import com.google.turbine.binder.Binder.BindingResult;
+import com.google.turbine.binder.Binder.ProcessorStatistics;
+import com.google.turbine.binder.Binder.RoundStatistics;
 import com.google.turbine.binder.Binder.Statistics;
 import com.google.turbine.binder.ClassPath;
 import com.google.turbine.binder.ClassPathBinder;
+import com.google.turbine.binder.ClassPathIndex;
 import com.google.turbine.binder.CtSymClassBinder;
+import com.google.turbine.binder.JarCache;
 import com.google.turbine.binder.JimageClassBinder;
 import com.google.turbine.binder.Processing;
+import com.google.turbine.binder.Processing.ProcessorInfo;
+import com.google.turbine.binder.ProcessorLoaderCache;
 import com.google.turbine.binder.bound.SourceTypeBoundClass;
 import com.google.turbine.binder.sym.ClassSymbol;
 import com.google.turbine.deps.Dependencies;
@@ -47,6 +56,7 @@ import com.google.turbine.options.TurbineOptions.ReducedClasspathMode;
 import com.google.turbine.options.TurbineOptionsParser;
 import com.google.turbine.parallel.TurbineExecutor;
 import com.google.turbine.parse.Parser;
+import com.google.turbine.profile.Profiler;
 import com.google.turbine.proto.DepsProto;
 import com.google.turbine.proto.ManifestProto;
 import com.google.turbine.proto.ManifestProto.CompilationUnit;
@@ -56,6 +66,8 @@ import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
@@ -66,12 +78,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 import java.util.jar.Attributes;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.JarOutputStream;
 import java.util.jar.Manifest;
 import java.util.zip.ZipEntry;
+import org.jspecify.annotations.Nullable;
 
 /** Main entry point for the turbine CLI. */
 public final class Main {
@@ -86,26 +102,64 @@ public final class Main {
   static final Attributes.Name INJECTING_RULE_KIND = new Attributes.Name("Injecting-Rule-Kind");
   static final Attributes.Name ORIGINAL_JAR_PATH = new Attributes.Name("Original-Jar-Path");
 
-  public static void main(String[] args) {
-    boolean ok;
+  public static void main(String[] args) throws IOException {
+    if (Arrays.asList(args).contains(Worker.PERSISTENT_WORKER_FLAG)) {
+      // Anything written to stdout would corrupt the worker protocol, so send any output from
+      // annotation processors to stderr instead.
+      PrintStream stdout = System.out;
+      System.setOut(System.err);
+      Worker.run(System.in, stdout);
+      System.exit(0);
+    }
+    PrintWriter err = new PrintWriter(System.err, /* autoFlush= */ true);
+    boolean ok = run(args, err);
+    err.flush();
+    System.exit(ok ? 0 : 1);
+  }
+
+  /**
+   * Runs a compilation with the given command line arguments, reporting any diagnostics or crashes
+   * to {@code err}.
+   *
+   * @return {@code true} if the compilation succeeded
+   */
+  static boolean run(String[] args, PrintWriter err) {
+    return run(args, err, Main::executor, JarCache.none(), ProcessorLoaderCache.NONE);
+  }
+
+  /**
+   * Runs a compilation with the given command line arguments, using an executor created by {@code
+   * executorFactory}, and reporting any diagnostics or crashes to {@code err}.
+   *
+   * @param jarCache a cache of classpath jars, which may be shared with other compilations
+   * @param processorLoaders a cache of processor class loaders, which may be shared with other
+   *     compilations
+   * @return {@code true} if the compilation succeeded
+   */
+  static boolean run(
+      String[] args,
+      PrintWriter err,
+      Function<TurbineOptions, TurbineExecutor> executorFactory,
+      JarCache jarCache,
+      ProcessorLoaderCache processorLoaders) {
     try {
-      compile(args);
-      ok = true;
+      TurbineOptions options = TurbineOptionsParser.parse(Arrays.asList(args));
+      try (TurbineExecutor executor = executorFactory.apply(options)) {
+        compile(options, executor, jarCache, processorLoaders);
+      }
+      return true;
     } catch (TurbineError | UsageException e) {
-      System.err.println(e.getMessage());
-      ok = false;
+      err.println(e.getMessage());
     } catch (AnnotationProcessingError e) {
-      System.err.println(e.getMessage());
+      err.println(e.getMessage());
       var cause = e.getCause();
       if (cause != null) {
-        cause.printStackTrace(System.err);
+        cause.printStackTrace(err);
       }
-      ok = false;
     } catch (Throwable turbineCrash) {
-      turbineCrash.printStackTrace();
-      ok = false;
+      turbineCrash.printStackTrace(err);
     }
-    System.exit(ok ? 0 : 1);
+    return false;
   }
 
   /** The result of a turbine invocation. */
@@ -125,16 +179,24 @@ public final class Main {
 
     public abstract Statistics processorStatistics();
 
+    /**
+     * The decisions made about whether to run each phase in parallel, if {@code
+     * -XDturbine.parallel.adaptive} is enabled.
+     */
+    public abstract ImmutableList<TurbineExecutor.Decision> parallelismDecisions();
+
     static Result create(
         boolean transitiveClasspathFallback,
         int transitiveClasspathLength,
         int reducedClasspathLength,
-        Statistics processorStatistics) {
+        Statistics processorStatistics,
+        ImmutableList<TurbineExecutor.Decision> parallelismDecisions) {
       return new AutoValue_Main_Result(
           transitiveClasspathFallback,
           transitiveClasspathLength,
           reducedClasspathLength,
-          processorStatistics);
+          processorStatistics,
+          parallelismDecisions);
     }
   }
 
@@ -145,21 +207,70 @@ public final class Main {
 
   @CanIgnoreReturnValue
   public static Result compile(TurbineOptions options) throws IOException {
+    try (TurbineExecutor executor = executor(options)) {
+      return compile(options, executor, JarCache.none(), ProcessorLoaderCache.NONE);
+    }
+  }
+
+  private static TurbineExecutor executor(TurbineOptions options) {
+    return TurbineExecutor.create(
+        options.parallel(),
+        options.javacOpts().parallelMinThreshold(),
+        options.javacOpts().parallelMaxThreads(),
+        options.javacOpts().parallelAdaptive());
+  }
+
+  /**
+   * Compiles using the given executor, which is not closed when the compilation is complete, and
+   * the given caches of classpath jars and processor class loaders.
+   */
+  @CanIgnoreReturnValue
+  static Result compile(
+      TurbineOptions options,
+      TurbineExecutor executor,
+      JarCache jarCache,
+      ProcessorLoaderCache processorLoaders)
+      throws IOException {
     usage(options);
 
-    try (TurbineExecutor executor =
-        TurbineExecutor.create(options.parallel(), options.javacOpts().parallelMinThreshold())) {
-      return compile(options, executor);
+    Profiler profiler = options.profile().isPresent() ? Profiler.create() : Profiler.NONE;
+    try {
+      Result result;
+      try (Profiler.Span unused = profiler.span("Main.compile")) {
+        result =
+            doCompile(options, executor.withProfiler(profiler), jarCache, processorLoaders);
+      }
+      if (options.processorStatisticsOutput().isPresent()) {
+        writeProcessorStatistics(
+            Path.of(options.processorStatisticsOutput().get()), result.processorStatistics());
+      }
+      return result;
+    } finally {
+      // release the classpath's file descriptors and mappings between compilations
+      jarCache.releaseArchives();
+      if (options.profile().isPresent()) {
+        profiler.write(Path.of(options.profile().get()));
+      }
     }
   }
 
-  private static Result compile(TurbineOptions options, TurbineExecutor executor)
-      throws IOException {
-    ImmutableList<CompUnit> units = parseAll(executor, options);
+  /** Waits for a task to finish, ignoring its result or failure. */
+  private static void awaitQuietly(Future<?> future) {
+    try {
+      Uninterruptibles.getUninterruptibly(future);
+    } catch (ExecutionException | RuntimeException e) {
+      // the compilation has already failed
+    }
+  }
 
-    ClassPath bootclasspath = bootclasspath(options);
+  private static Result doCompile(
+      TurbineOptions options,
+      TurbineExecutor executor,
+      JarCache jarCache,
+      ProcessorLoaderCache processorLoaders)
+      throws IOException {
+    Profiler profiler = executor.profiler();
 
-    BindingResult bound;
     ReducedClasspathMode reducedClasspathMode = options.reducedClasspathMode();
     if (reducedClasspathMode == ReducedClasspathMode.JAVABUILDER_REDUCED
         && options.directJars().isEmpty()) {
@@ -170,36 +281,73 @@ public final class Main {
     boolean transitiveClasspathFallback = false;
     ImmutableList<String> classPath = options.classPath();
     int transitiveClasspathLength = classPath.size();
-    int reducedClasspathLength = classPath.size();
+    Collection<String> initialClasspath =
+        reducedClasspathMode == ReducedClasspathMode.JAVABUILDER_REDUCED
+            ? Dependencies.reduceClasspath(classPath, options.directJars(), options.depsArtifacts())
+            : classPath;
+    int reducedClasspathLength = initialClasspath.size();
+
+    // Scanning the bootclasspath and classpath jars is mostly I/O, and doesn't depend on the
+    // sources, so start it first and let it overlap with parsing.
+    ListenableFuture<ClassPath> bootclasspathFuture =
+        executor.submit(() -> bootclasspath(profiler, options, jarCache));
+    ListenableFuture<ClassPath> classpathFuture =
+        executor.submit(() -> bindClasspath(profiler, jarCache, initialClasspath));
+
+    ImmutableList<CompUnit> units;
+    ClassPath bootclasspath;
+    ClassPath boundClasspath;
+    try {
+      try (Profiler.Span unused = profiler.span("Main.parseAll")) {
+        units = parseAll(executor, options);
+      }
+      bootclasspath = TurbineExecutor.join(bootclasspathFuture);
+      boundClasspath = TurbineExecutor.join(classpathFuture);
+    } catch (Throwable t) {
+      // Finish reading the jars before the compilation fails, instead of reopening archives after
+      // they've been released for a result that won't be used.
+      awaitQuietly(bootclasspathFuture);
+      awaitQuietly(classpathFuture);
+      throw t;
+    }
+
+    BindingResult bound;
     switch (reducedClasspathMode) {
-      case NONE -> bound = bind(executor, options, units, bootclasspath, classPath);
+      case NONE ->
+          bound = bind(executor, processorLoaders, options, units, bootclasspath, boundClasspath);
       case BAZEL_FALLBACK -> {
         reducedClasspathLength = options.reducedClasspathLength();
-        bound = bind(executor, options, units, bootclasspath, classPath);
+        bound = bind(executor, processorLoaders, options, units, bootclasspath, boundClasspath);
         transitiveClasspathFallback = true;
       }
       case JAVABUILDER_REDUCED -> {
-        Collection<String> reducedClasspath =
-            Dependencies.reduceClasspath(classPath, options.directJars(), options.depsArtifacts());
-        reducedClasspathLength = reducedClasspath.size();
         try {
-          bound = bind(executor, options, units, bootclasspath, reducedClasspath);
+          bound = bind(executor, processorLoaders, options, units, bootclasspath, boundClasspath);
         } catch (TurbineError e) {
-          bound = fallback(executor, options, units, bootclasspath, classPath);
+          bound =
+              fallback(
+                  executor,
+                  jarCache,
+                  processorLoaders,
+                  options,
+                  units,
+                  bootclasspath,
+                  classPath);
           transitiveClasspathFallback = true;
         }
       }
       case BAZEL_REDUCED -> {
         transitiveClasspathLength = options.fullClasspathLength();
         try {
-          bound = bind(executor, options, units, bootclasspath, classPath);
+          bound = bind(executor, processorLoaders, options, units, bootclasspath, boundClasspath);
         } catch (TurbineError e) {
           writeJdepsForFallback(options);
           return Result.create(
               /* transitiveClasspathFallback= */ true,
               /* transitiveClasspathLength= */ transitiveClasspathLength,
               /* reducedClasspathLength= */ reducedClasspathLength,
-              Statistics.empty());
+              Statistics.empty(),
+              executor.decisions());
         }
       }
       default -> throw new AssertionError(reducedClasspathMode);
@@ -209,62 +357,91 @@ public final class Main {
         || options.headerCompilationOutput().isPresent()
         || options.output().isPresent()
         || options.outputManifest().isPresent()) {
-      Lowered lowered =
-          Lower.lowerAll(
-              executor,
-              options.javacOpts().lowerOptions(),
-              bound.units(),
-              bound.modules(),
-              bound.classPathEnv());
+      Lowered lowered;
+      try (Profiler.Span unused = profiler.span("Lower.lowerAll")) {
+        lowered =
+            Lower.lowerAll(
+                executor,
+                options.javacOpts().lowerOptions(),
+                bound.units(),
+                bound.modules(),
+                bound.classPathEnv());
+      }
 
       if (options.outputDeps().isPresent()) {
-        DepsProto.Dependencies deps =
-            Dependencies.collectDeps(options.targetLabel(), bootclasspath, bound, lowered);
-        Path path = Path.of(options.outputDeps().get());
-        /*
-         * TODO: cpovirk - Consider checking outputDeps for validity earlier so that anyone who
-         * `--output_deps=/` or similar will get a proper error instead of NPE.
-         */
-        Files.createDirectories(requireNonNull(path.getParent()));
-        try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(path))) {
-          deps.writeTo(os);
+        try (Profiler.Span unused = profiler.span("Dependencies.collectDeps")) {
+          DepsProto.Dependencies deps =
+              Dependencies.collectDeps(options.targetLabel(), bootclasspath, bound, lowered);
+          Path path = Path.of(options.outputDeps().get());
+          /*
+           * TODO: cpovirk - Consider checking outputDeps for validity earlier so that anyone who
+           * `--output_deps=/` or similar will get a proper error instead of NPE.
+           */
+          Files.createDirectories(requireNonNull(path.getParent()));
+          try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(path))) {
+            deps.writeTo(os);
+          }
         }
       }
       if (options.output().isPresent()) {
-        ImmutableMap<String, byte[]> transitive =
-            options.headerCompilationOutput().isPresent()
-                ? ImmutableMap.of()
-                : Transitive.collectDeps(bootclasspath, bound);
-        writeOutput(options, bound.generatedClasses(), lowered.bytes(), transitive);
+        ImmutableMap<String, byte[]> transitive;
+        try (Profiler.Span unused = profiler.span("Transitive.collectDeps")) {
+          transitive =
+              options.headerCompilationOutput().isPresent()
+                  ? ImmutableMap.of()
+                  : Transitive.collectDeps(bootclasspath, bound);
+        }
+        try (Profiler.Span unused = profiler.span("Main.writeOutput")) {
+          writeOutput(options, bound.generatedClasses(), lowered.bytes(), transitive);
+        }
       }
       if (options.headerCompilationOutput().isPresent()) {
-        ImmutableMap<String, byte[]> trimmed = Transitive.trimOutput(lowered.bytes());
-        ImmutableMap<String, byte[]> transitive = Transitive.collectDeps(bootclasspath, bound);
-        writeHeaderCompilationOutput(options, trimmed, transitive);
+        ImmutableMap<String, byte[]> trimmed;
+        ImmutableMap<String, byte[]> transitive;
+        try (Profiler.Span unused = profiler.span("Transitive.collectDeps")) {
+          trimmed = Transitive.trimOutput(lowered.bytes());
+          transitive = Transitive.collectDeps(bootclasspath, bound);
+        }
+        try (Profiler.Span unused = profiler.span("Main.writeHeaderCompilationOutput")) {
+          writeHeaderCompilationOutput(options, trimmed, transitive);
+        }
       }
       if (options.outputManifest().isPresent()) {
-        writeManifestProto(options, bound.units(), bound.generatedSources());
+        try (Profiler.Span unused = profiler.span("Main.writeManifestProto")) {
+          writeManifestProto(options, bound.units(), bound.generatedSources());
+        }
       }
     }
 
-    writeSources(options, bound.generatedSources());
-    writeResources(options, bound.generatedClasses());
+    try (Profiler.Span unused = profiler.span("Main.writeGenerated")) {
+      writeSources(options, bound.generatedSources());
+      writeResources(options, bound.generatedClasses());
+    }
     return Result.create(
         /* transitiveClasspathFallback= */ transitiveClasspathFallback,
         /* transitiveClasspathLength= */ transitiveClasspathLength,
         /* reducedClasspathLength= */ reducedClasspathLength,
-        bound.statistics());
+        bound.statistics(),
+        executor.decisions());
   }
 
   // don't inline this; we want it to show up in profiles
   private static BindingResult fallback(
       TurbineExecutor executor,
+      JarCache jarCache,
+      ProcessorLoaderCache processorLoaders,
       TurbineOptions options,
       ImmutableList<CompUnit> units,
       ClassPath bootclasspath,
       ImmutableList<String> classPath)
       throws IOException {
-    return bind(executor, options, units, bootclasspath, classPath);
+    return bind(
+        executor,
+        processorLoaders,
+        options,
+        units,
+        bootclasspath,
+        bindClasspath(executor.profiler(), jarCache, classPath));
   }
 
   /**
@@ -285,24 +462,44 @@ public final class Main {
 
   private static BindingResult bind(
       TurbineExecutor executor,
+      ProcessorLoaderCache processorLoaders,
       TurbineOptions options,
       ImmutableList<CompUnit> units,
       ClassPath bootclasspath,
-      Collection<String> classpath)
+      ClassPath classpath)
       throws IOException {
-    return Binder.bind(
-        executor,
-        units,
-        ClassPathBinder.bindClasspath(toPaths(classpath)),
-        Processing.initializeProcessors(
-            /* sourceVersion= */ options.languageVersion().sourceVersion(),
-            /* javacopts= */ options.javacOpts(),
-            /* processorNames= */ options.processors(),
-            Processing.processorLoader(
-                /* processorPath= */ options.processorPath(),
-                /* builtinProcessors= */ options.builtinProcessors())),
-        bootclasspath,
-        /* moduleVersion= */ Optional.empty());
+    Profiler profiler = executor.profiler();
+    // the processors are finished with the loader once binding is complete
+    try (ProcessorLoaderCache.Lease processorLoader =
+        processorLoaders.acquire(
+            /* processorPath= */ options.processorPath(),
+            /* builtinProcessors= */ options.builtinProcessors())) {
+      ProcessorInfo processorInfo;
+      try (Profiler.Span unused = profiler.span("Processing.initializeProcessors")) {
+        processorInfo =
+            Processing.initializeProcessors(
+                /* sourceVersion= */ options.languageVersion().sourceVersion(),
+                /* javacopts= */ options.javacOpts(),
+                /* processorNames= */ options.processors(),
+                processorLoader.loader());
+      }
+      try (Profiler.Span unused = profiler.span("Binder.bind")) {
+        return Binder.bind(
+            executor,
+            units,
+            classpath,
+            processorInfo,
+            bootclasspath,
+            /* moduleVersion= */ Optional.empty());
+      }
+    }
+  }
+
+  private static ClassPath bindClasspath(
+      Profiler profiler, JarCache jarCache, Collection<String> classpath) throws IOException {
+    try (Profiler.Span unused = profiler.span("Main.classpath")) {
+      return ClassPathBinder.bindClasspath(toPaths(classpath), jarCache);
+    }
   }
 
   private static void usage(TurbineOptions options) {
@@ -317,7 +514,15 @@ public final class Main {
     }
   }
 
-  private static ClassPath bootclasspath(TurbineOptions options) throws IOException {
+  private static ClassPath bootclasspath(
+      Profiler profiler, TurbineOptions options, JarCache jarCache) throws IOException {
+    try (Profiler.Span unused = profiler.span("Main.bootclasspath")) {
+      return bootclasspath(options, jarCache);
+    }
+  }
+
+  private static ClassPath bootclasspath(TurbineOptions options, JarCache jarCache)
+      throws IOException {
     // if both --release and --bootclasspath are specified, --release wins
     OptionalInt release = options.languageVersion().release();
     if (release.isPresent() && options.system().isPresent()) {
@@ -334,7 +539,7 @@ public final class Main {
     }
 
     // the bootclasspath might be empty, e.g. when compiling java.lang
-    return ClassPathBinder.bindClasspath(toPaths(options.bootClassPath()));
+    return ClassPathBinder.bindClasspath(toPaths(options.bootClassPath()), jarCache);
   }
 
   private static ClassPath release(int release) throws IOException {
@@ -375,7 +580,11 @@ public final class Main {
         }
       }
     }
-    return executor.map(ImmutableList.copyOf(sourceFiles), Parser::parse);
+    return executor.map(
+        "Parser.parse",
+        ImmutableList.copyOf(sourceFiles),
+        sourceFile -> sourceFile.source().length(),
+        Parser::parse);
   }
 
   /** Writes source files generated by annotation processors. */
@@ -430,6 +639,45 @@ public final class Main {
     }
   }
 
+  /**
+   * Writes the resources used by each annotation processor in each round as JSON, with durations
+   * in nanoseconds.
+   */
+  private static void writeProcessorStatistics(Path path, Statistics statistics)
+      throws IOException {
+    StringBuilder sb = new StringBuilder("{\"rounds\":[");
+    boolean firstRound = true;
+    for (RoundStatistics round : statistics.rounds()) {
+      sb.append(firstRound ? "\n" : ",\n");
+      firstRound = false;
+      sb.append("{\"round\":").append(round.round());
+      sb.append(",\"rebindNanos\":").append(round.rebindTime().toNanos());
+      sb.append(",\"processors\":[");
+      boolean firstProcessor = true;
+      for (Map.Entry<String, ProcessorStatistics> e : round.processors().entrySet()) {
+        ProcessorStatistics processor = e.getValue();
+        sb.append(firstProcessor ? "\n" : ",\n");
+        firstProcessor = false;
+        sb.append("{\"name\":\"").append(e.getKey()).append('"');
+        sb.append(",\"wallNanos\":").append(processor.wallTime().toNanos());
+        sb.append(",\"cpuNanos\":").append(processor.cpuTime().toNanos());
+        sb.append(",\"allocatedBytes\":").append(processor.allocatedBytes());
+        sb.append(",\"elementsQueried\":").append(processor.elementsQueried());
+        sb.append(",\"generatedSources\":").append(processor.generatedSources());
+        sb.append(",\"generatedClasses\":").append(processor.generatedClasses());
+        sb.append(",\"generatedResources\":").append(processor.generatedResources());
+        sb.append('}');
+      }
+      sb.append("]}");
+    }
+    sb.append("]}\n");
+    Path parent = path.getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    Files.writeString(path, sb, UTF_8);
+  }
+
   /** Writes bytecode to the output jar. */
   private static void writeOutput(
       TurbineOptions options,
@@ -440,21 +688,27 @@ public final class Main {
     Path path = Path.of(options.output().get());
     try (OutputStream os = Files.newOutputStream(path);
         BufferedOutputStream bos = new BufferedOutputStream(os, BUFFER_SIZE);
-        JarOutputStream jos = new JarOutputStream(bos)) {
+        CountingOutputStream counting = new CountingOutputStream(bos);
+        JarOutputStream jos = new JarOutputStream(counting)) {
+      Indexer indexer = Indexer.create(options, counting);
       if (options.targetLabel().isPresent()) {
-        writeManifest(jos, manifest(options));
+        writeManifest(jos, indexer, manifest(options));
       }
       for (Map.Entry<String, byte[]> entry : transitive.entrySet()) {
         addEntry(
             jos,
+            indexer,
             ClassPathBinder.TRANSITIVE_PREFIX + entry.getKey() + ClassPathBinder.TRANSITIVE_SUFFIX,
             entry.getValue());
       }
       for (Map.Entry<String, byte[]> entry : lowered.entrySet()) {
-        addEntry(jos, entry.getKey() + ".class", entry.getValue());
+        addEntry(jos, indexer, entry.getKey() + ".class", entry.getValue());
       }
       for (Map.Entry<String, byte[]> entry : generated.entrySet()) {
-        addEntry(jos, entry.getKey(), entry.getValue());
+        addEntry(jos, indexer, entry.getKey(), entry.getValue());
+      }
+      if (indexer != null) {
+        indexer.finish(jos);
       }
     }
   }
@@ -465,21 +719,27 @@ public final class Main {
     Path path = Path.of(options.headerCompilationOutput().get());
     try (OutputStream os = Files.newOutputStream(path);
         BufferedOutputStream bos = new BufferedOutputStream(os, BUFFER_SIZE);
-        JarOutputStream jos = new JarOutputStream(bos)) {
+        CountingOutputStream counting = new CountingOutputStream(bos);
+        JarOutputStream jos = new JarOutputStream(counting)) {
+      Indexer indexer = Indexer.create(options, counting);
       Manifest manifest = manifest();
       Attributes attributes = manifest.getMainAttributes();
       if (options.output().isPresent()) {
         attributes.put(ORIGINAL_JAR_PATH, options.output().get());
       }
-      writeManifest(jos, manifest);
+      writeManifest(jos, indexer, manifest);
       for (Map.Entry<String, byte[]> entry : transitive.entrySet()) {
         addEntry(
             jos,
+            indexer,
             ClassPathBinder.TRANSITIVE_PREFIX + entry.getKey() + ClassPathBinder.TRANSITIVE_SUFFIX,
             entry.getValue());
       }
       for (Map.Entry<String, byte[]> entry : trimmed.entrySet()) {
-        addEntry(jos, entry.getKey() + ".class", entry.getValue());
+        addEntry(jos, indexer, entry.getKey() + ".class", entry.getValue());
+      }
+      if (indexer != null) {
+        indexer.finish(jos);
       }
     }
   }
@@ -519,11 +779,52 @@ public final class Main {
     jos.write(bytes);
   }
 
+  private static void addEntry(
+      JarOutputStream jos, @Nullable Indexer indexer, String name, byte[] bytes)
+      throws IOException {
+    if (indexer != null) {
+      indexer.add(name);
+    }
+    addEntry(jos, name, bytes);
+  }
+
   private static void writeManifest(JarOutputStream jos, Manifest manifest) throws IOException {
-    addEntry(jos, MANIFEST_DIR, new byte[] {});
+    writeManifest(jos, /* indexer= */ null, manifest);
+  }
+
+  private static void writeManifest(
+      JarOutputStream jos, @Nullable Indexer indexer, Manifest manifest) throws IOException {
+    addEntry(jos, indexer, MANIFEST_DIR, new byte[] {});
     ByteArrayOutputStream out = new ByteArrayOutputStream();
     manifest.write(out);
-    addEntry(jos, MANIFEST_NAME, out.toByteArray());
+    addEntry(jos, indexer, MANIFEST_NAME, out.toByteArray());
+  }
+
+  /**
+   * Records the offsets of the entries in an output jar, and writes a {@link ClassPathIndex} of
+   * them as the jar's last entry.
+   */
+  private record Indexer(CountingOutputStream counting, ClassPathIndex.Writer index) {
+
+    /** Returns an indexer for an output jar, or {@code null} if indexing is disabled. */
+    static @Nullable Indexer create(TurbineOptions options, CountingOutputStream counting) {
+      return options.classpathIndex() ? new Indexer(counting, ClassPathIndex.writer()) : null;
+    }
+
+    /** Records an entry that is about to be written. */
+    void add(String name) {
+      // entries are stored, so the previous entry has been completely written to the stream
+      index.add(name, counting.getCount());
+    }
+
+    /** Writes the index entry, and the comment that locates it. */
+    void finish(JarOutputStream jos) throws IOException {
+      long indexOffset = counting.getCount();
+      addEntry(jos, ClassPathIndex.NAME, index.toByteArray());
+      jos.closeEntry();
+      // the central directory is written when the stream is finished
+      jos.setComment(ClassPathIndex.comment(indexOffset, counting.getCount()));
+    }
   }
 
   /** Creates a default {@link Manifest}. */
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.turbine.main;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashCode;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.turbine.binder.JarCache;
+import com.google.turbine.binder.ProcessorLoaderCache;
+import com.google.turbine.options.TurbineOptions;
+import com.google.turbine.parallel.TurbineExecutor;
+import com.google.turbine.proto.WorkerProtocol.Input;
+import com.google.turbine.proto.WorkerProtocol.WorkRequest;
+import com.google.turbine.proto.WorkerProtocol.WorkResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A <a href="https://bazel.build/remote/persistent">persistent worker</a> for turbine.
+ *
+ * <p>The worker reads length-delimited {@link WorkRequest}s, compiles each one with the arguments
+ * in the request, and replies with a length-delimited {@link WorkResponse}. Keeping the process
+ * alive between compilations avoids paying for JVM startup, class loading, and JIT warmup on every
+ * header compilation.
+ *
+ * <p>Requests with a non-zero {@code request_id} are multiplexed: they are compiled concurrently,
+ * and responses are written as each compilation finishes. All compilations share a single pool of
+ * threads for parallel work, so running many requests at once doesn't multiply the number of
+ * threads.
+ *
+ * <p>The contents of classpath jars are cached between requests, see {@link JarCache}, and so are
+ * annotation processor class loaders, see {@link ProcessorLoaderCache}. Jars are identified by the
+ * digests Bazel supplies for the request's inputs.
+ */
+public final class Worker {
+
+  /** The flag Bazel passes to tools that are started as persistent workers. */
+  static final String PERSISTENT_WORKER_FLAG = "--persistent_worker";
+
+  /** The maximum number of classpath jars to retain between requests. */
+  private static final int MAX_CACHED_JARS = 2000;
+
+  /** The maximum number of processor class loaders to retain between requests. */
+  private static final int MAX_CACHED_PROCESSOR_LOADERS = 32;
+
+  private final OutputStream out;
+  private final int parallelism;
+
+  /** The pool used for parallel work by all compilations. */
+  private final ListeningExecutorService pool;
+
+  /** The threads that run multiplexed requests. */
+  private final ExecutorService requests;
+
+  /** Classpath jars retained between requests. */
+  private final JarCache jarCache = JarCache.create(MAX_CACHED_JARS);
+
+  /** Processor class loaders retained between requests. */
+  private final ProcessorLoaderCache processorLoaders =
+      ProcessorLoaderCache.create(MAX_CACHED_PROCESSOR_LOADERS);
+
+  /** Multiplexed requests that have not completed yet, by request id. */
+  private final Map<Integer, Future<?>> inFlight = new ConcurrentHashMap<>();
+
+  private Worker(OutputStream out, int parallelism) {
+    this.out = out;
+    this.parallelism = parallelism;
+    this.pool = TurbineExecutor.newPool(parallelism);
+    this.requests = newFixedThreadPool(parallelism);
+  }
+
+  /**
+   * Processes work requests from {@code in} until it is exhausted, writing responses to {@code
+   * out}.
+   */
+  public static void run(InputStream in, OutputStream out) throws IOException {
+    Worker worker = new Worker(out, TurbineExecutor.defaultParallelism());
+    try {
+      worker.loop(in);
+    } finally {
+      worker.close();
+    }
+  }
+
+  private void loop(InputStream in) throws IOException {
+    while (true) {
+      WorkRequest request = WorkRequest.parseDelimitedFrom(in);
+      if (request == null) {
+        // end of input
+        return;
+      }
+      int requestId = request.getRequestId();
+      if (request.getCancel()) {
+        cancel(requestId);
+        continue;
+      }
+      if (requestId == 0) {
+        // singleplex requests are processed one at a time
+        respond(process(request));
+        continue;
+      }
+      // register the request before it starts, so it can't complete before it's tracked
+      FutureTask<?> task =
+          new FutureTask<>(
+              () -> {
+                try {
+                  respond(process(request));
+                } finally {
+                  inFlight.remove(requestId);
+                }
+                return null;
+              });
+      inFlight.put(requestId, task);
+      requests.execute(task);
+    }
+  }
+
+  /**
+   * Cancels a multiplexed request if it hasn't started yet. Requests that are already running are
+   * allowed to finish, and respond normally.
+   */
+  private void cancel(int requestId) throws IOException {
+    Future<?> future = inFlight.get(requestId);
+    if (future != null && future.cancel(/* mayInterruptIfRunning= */ false)) {
+      inFlight.remove(requestId);
+      respond(WorkResponse.newBuilder().setRequestId(requestId).setWasCancelled(true).build());
+    }
+  }
+
+  /** Compiles a single work request. */
+  private WorkResponse process(WorkRequest request) {
+    StringWriter output = new StringWriter();
+    boolean ok;
+    ImmutableMap<Path, HashCode> digests = digests(request);
+    try (PrintWriter err = new PrintWriter(output)) {
+      ok =
+          Main.run(
+              request.getArgumentsList().toArray(new String[0]),
+              err,
+              this::executor,
+              jarCache.withDigests(digests),
+              processorLoaders.withDigests(digests));
+    }
+    return WorkResponse.newBuilder()
+        .setRequestId(request.getRequestId())
+        .setExitCode(ok ? 0 : 1)
+        .setOutput(output.toString())
+        .build();
+  }
+
+  /** Returns the digests of the request's inputs, which identify jars in the cache. */
+  private static ImmutableMap<Path, HashCode> digests(WorkRequest request) {
+    Map<Path, HashCode> digests = new HashMap<>();
+    for (Input input : request.getInputsList()) {
+      if (!input.getDigest().isEmpty()) {
+        digests.put(Path.of(input.getPath()), HashCode.fromBytes(input.getDigest().toByteArray()));
+      }
+    }
+    return ImmutableMap.copyOf(digests);
+  }
+
+  private TurbineExecutor executor(TurbineOptions options) {
+    if (!options.parallel()) {
+      return TurbineExecutor.direct();
+    }
+    int maxThreads = options.javacOpts().parallelMaxThreads();
+    return TurbineExecutor.shared(
+        pool,
+        Math.min(parallelism, TurbineExecutor.parallelism(maxThreads)),
+        options.javacOpts().parallelMinThreshold(),
+        options.javacOpts().parallelAdaptive());
+  }
+
+  private void respond(WorkResponse response) throws IOException {
+    // responses to multiplexed requests may be written concurrently
+    synchronized (out) {
+      response.writeDelimitedTo(out);
+      out.flush();
+    }
+  }
+
+  /** Waits for any in-flight requests to finish, and then shuts down the worker's threads. */
+  private void close() {
+    requests.close();
+    pool.close();
+  }
+}
@@ -17,6 +17,7 @@
 package com.google.turbine.options;
 
 import com.google.auto.value.AutoBuilder;
+import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -30,6 +31,11 @@ import java.util.OptionalInt;
  * A structured representation of the javac options used by Turbine.
  *
  * @param parallelMinThreshold minimum number of files to consider processing parallel
+ * @param parallelMaxThreads maximum number of threads to use for parallel processing
+ * @param parallelAdaptive whether to decide between serial and parallel processing for each phase
+ *     based on the measured cost of its inputs, instead of {@code parallelMinThreshold}
+ * @param parallelProcessors the class names of annotation processors that don't depend on each
+ *     other, and can run concurrently within each processing round
  */
 public record TurbineJavacOptions(
     LowerOptions lowerOptions,
@@ -38,6 +44,9 @@ public record TurbineJavacOptions(
     boolean enablePreview,
     boolean parallel,
     int parallelMinThreshold,
+    int parallelMaxThreads,
+    boolean parallelAdaptive,
+    ImmutableSet<String> parallelProcessors,
     ImmutableList<String> rawJavacOpts) {
 
   public static Builder builder() {
@@ -48,6 +57,9 @@ public record TurbineJavacOptions(
         .enablePreview(false)
         .parallel(true)
         .parallelMinThreshold(20)
+        .parallelMaxThreads(8)
+        .parallelAdaptive(false)
+        .parallelProcessors(ImmutableSet.of())
         .rawJavacOpts(ImmutableList.of());
   }
 
@@ -66,6 +78,12 @@ public record TurbineJavacOptions(
 
     public abstract Builder parallelMinThreshold(int parallelMinThreshold);
 
+    public abstract Builder parallelMaxThreads(int parallelMaxThreads);
+
+    public abstract Builder parallelAdaptive(boolean parallelAdaptive);
+
+    public abstract Builder parallelProcessors(ImmutableSet<String> parallelProcessors);
+
     public abstract Builder rawJavacOpts(ImmutableList<String> rawJavacOpts);
 
     public abstract TurbineJavacOptions build();
@@ -165,6 +183,7 @@ public record TurbineJavacOptions(
             lowerOptionsBuilder.emitAllPrivateMemberClasses(true);
         case "-XDturbine.noMethodParameters" -> lowerOptionsBuilder.methodParameters(false);
         case "-XDnoParallel" -> builder.parallel(false);
+        case "-XDturbine.parallel.adaptive" -> builder.parallelAdaptive(true);
         default -> {
           if (opt.startsWith("-A")) {
             String arg = opt.substring("-A".length());
@@ -182,6 +201,18 @@ public record TurbineJavacOptions(
                   "invalid -XDturbine.parallel.min_threshold value: " + val);
             }
             builder.parallelMinThreshold(threshold);
+          } else if (opt.startsWith("-XDturbine.parallel.max_threads=")) {
+            String val = opt.substring("-XDturbine.parallel.max_threads=".length());
+            Integer maxThreads = Ints.tryParse(val);
+            if (maxThreads == null || maxThreads < 1) {
+              throw new IllegalArgumentException(
+                  "invalid -XDturbine.parallel.max_threads value: " + val);
+            }
+            builder.parallelMaxThreads(maxThreads);
+          } else if (opt.startsWith("-XDturbine.processing.parallel=")) {
+            String val = opt.substring("-XDturbine.processing.parallel=".length());
+            builder.parallelProcessors(
+                ImmutableSet.copyOf(Splitter.on(',').omitEmptyStrings().trimResults().split(val)));
           } else if (ONE_ARG_FLAGS.contains(opt)) {
             if (it.hasNext()) {
               it.next(); // Skip the argument of this unused option
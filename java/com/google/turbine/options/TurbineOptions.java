@@ -51,6 +51,10 @@ import java.util.Optional;
  * @param profile An optional path for profiling output.
  * @param gensrcOutput An optional path for generated source output.
  * @param resourceOutput An optional path for generated resource output.
+ * @param processorStatisticsOutput An optional path for statistics about the resources used by
+ *     each annotation processor in each round.
+ * @param classpathIndex Whether to write a {@code ClassPathIndex} into the output jars, which lets
+ *     downstream compilations find their classes without scanning the jars' central directories.
  */
 public record TurbineOptions(
     ImmutableList<String> sources,
@@ -76,9 +80,11 @@ public record TurbineOptions(
     Optional<String> profile,
     Optional<String> gensrcOutput,
     Optional<String> resourceOutput,
+    Optional<String> processorStatisticsOutput,
     int fullClasspathLength,
     int reducedClasspathLength,
-    boolean parallel) {
+    boolean parallel,
+    boolean classpathIndex) {
   public TurbineOptions {
     requireNonNull(sources, "sources");
     requireNonNull(classPath, "classPath");
@@ -101,6 +107,7 @@ public record TurbineOptions(
     requireNonNull(profile, "profile");
     requireNonNull(gensrcOutput, "gensrcOutput");
     requireNonNull(resourceOutput, "resourceOutput");
+    requireNonNull(processorStatisticsOutput, "processorStatisticsOutput");
     requireNonNull(experimentalFixDepsTool, "experimentalFixDepsTool");
   }
 
@@ -155,7 +162,8 @@ public record TurbineOptions(
         .setHelp(false)
         .setFullClasspathLength(0)
         .setReducedClasspathLength(0)
-        .setParallel(true);
+        .setParallel(true)
+        .setClasspathIndex(false);
   }
 
   /** A {@link Builder} for {@link TurbineOptions}. */
@@ -205,12 +213,16 @@ public record TurbineOptions(
 
     public abstract Builder setResourceOutput(String resourceOutput);
 
+    public abstract Builder setProcessorStatisticsOutput(String processorStatisticsOutput);
+
     public abstract Builder setFullClasspathLength(int fullClasspathLength);
 
     public abstract Builder setReducedClasspathLength(int reducedClasspathLength);
 
     public abstract Builder setParallel(boolean parallel);
 
+    public abstract Builder setClasspathIndex(boolean classpathIndex);
+
     public abstract Builder setExperimentalFixDepsTool(String experimentalFixDepsTool);
 
     public abstract TurbineOptions build();
@@ -91,10 +91,14 @@ public final class TurbineOptionsParser {
             builder.setReducedClasspathLength(Integer.parseInt(readOne(next, argumentDeque)));
         case "--parallel" -> builder.setParallel(true);
         case "--noparallel" -> builder.setParallel(false);
+        case "--classpath_index" -> builder.setClasspathIndex(true);
+        case "--noclasspath_index" -> builder.setClasspathIndex(false);
         case "--profile" -> builder.setProfile(readOne(next, argumentDeque));
         case "--generated_sources_output", "--gensrc_output" ->
             builder.setGensrcOutput(readOne(next, argumentDeque));
         case "--resource_output" -> builder.setResourceOutput(readOne(next, argumentDeque));
+        case "--processor_statistics_output" ->
+            builder.setProcessorStatisticsOutput(readOne(next, argumentDeque));
         case "--help" -> builder.setHelp(true);
         case "--experimental_fix_deps_tool" -> {
           builder.setExperimentalFixDepsTool(readOne(next, argumentDeque));
@@ -17,30 +17,95 @@
 package com.google.turbine.parallel;
 
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
-import static java.util.concurrent.Executors.newFixedThreadPool;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.ExecutionError;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.turbine.diag.TurbineError;
+import com.google.turbine.profile.Profiler;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
 /** Wrapper executor used by Turbine to manage parallel execution and chunking. */
 public final class TurbineExecutor implements AutoCloseable {
 
+  /** The maximum number of threads used by default. */
+  public static final int DEFAULT_MAX_THREADS = 8;
+
+  /**
+   * The number of chunks to split work into for each thread. Splitting work more finely than the
+   * number of threads lets threads that finish their chunks early pick up more work, instead of
+   * waiting for a thread that got an expensive chunk.
+   */
+  private static final int CHUNKS_PER_THREAD = 4;
+
+  /** The number of inputs that are timed to estimate the cost of a phase, in adaptive mode. */
+  private static final int ADAPTIVE_SAMPLE_SIZE = 8;
+
+  /**
+   * The smallest estimated duration of a chunk of work that is worth submitting to another thread,
+   * in adaptive mode. Below that the overhead of submitting and collecting the chunk dominates.
+   */
+  private static final long ADAPTIVE_MIN_CHUNK_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+
   private final ListeningExecutorService delegate;
   private final int parallelism;
   private final int minThreshold;
 
+  /**
+   * Whether to choose between serial and parallel execution, and the number of chunks, for each
+   * phase based on the measured cost of a sample of its inputs, instead of {@link #minThreshold}.
+   */
+  private final boolean adaptive;
+
+  /** Whether the delegate is shared with other executors, and should not be shut down on close. */
+  private final boolean shared;
+
+  private final Profiler profiler;
+
+  /** The decisions made in adaptive mode. */
+  private final Queue<Decision> decisions = new ConcurrentLinkedQueue<>();
+
   TurbineExecutor(ListeningExecutorService delegate, int parallelism, int minThreshold) {
+    this(
+        delegate,
+        parallelism,
+        minThreshold,
+        /* adaptive= */ false,
+        /* shared= */ false,
+        Profiler.NONE);
+  }
+
+  private TurbineExecutor(
+      ListeningExecutorService delegate,
+      int parallelism,
+      int minThreshold,
+      boolean adaptive,
+      boolean shared,
+      Profiler profiler) {
     this.delegate = delegate;
     this.parallelism = parallelism;
     this.minThreshold = minThreshold;
+    this.adaptive = adaptive;
+    this.shared = shared;
+    this.profiler = profiler;
   }
 
   public static TurbineExecutor direct() {
@@ -48,27 +113,176 @@ public final class TurbineExecutor implements AutoCloseable {
   }
 
   public static TurbineExecutor create(boolean parallel, int minThreshold) {
+    return create(parallel, minThreshold, DEFAULT_MAX_THREADS, /* adaptive= */ false);
+  }
+
+  /**
+   * Creates an executor that uses up to {@code maxThreads} threads, and no more threads than there
+   * are available processors. If {@code adaptive} is set, each phase decides whether to run in
+   * parallel based on the measured cost of its inputs, see {@link Decision}.
+   */
+  public static TurbineExecutor create(
+      boolean parallel, int minThreshold, int maxThreads, boolean adaptive) {
     if (parallel) {
-      // Limit parallelism to a maximum of 8 CPUs
-      int parallelism = Math.clamp(Runtime.getRuntime().availableProcessors(), 1, 8);
+      int parallelism = parallelism(maxThreads);
       return new TurbineExecutor(
-          listeningDecorator(newFixedThreadPool(parallelism)), parallelism, minThreshold);
+          newPool(parallelism),
+          parallelism,
+          minThreshold,
+          adaptive,
+          /* shared= */ false,
+          Profiler.NONE);
     } else {
       return direct();
     }
   }
 
+  /**
+   * Returns an executor that schedules work on the given pool, which may be shared with other
+   * concurrent compilations. Closing the returned executor does not shut down the pool, so e.g. a
+   * multiplexed worker can bound the total number of threads used by all in-flight compilations.
+   */
+  public static TurbineExecutor shared(
+      ListeningExecutorService pool, int parallelism, int minThreshold, boolean adaptive) {
+    return new TurbineExecutor(
+        pool, parallelism, minThreshold, adaptive, /* shared= */ true, Profiler.NONE);
+  }
+
+  /**
+   * Returns an executor that schedules work on the same threads as this one, and records spans for
+   * the work done on each thread to the given profiler. Closing the returned executor has no
+   * effect.
+   */
+  public TurbineExecutor withProfiler(Profiler profiler) {
+    return new TurbineExecutor(
+        delegate, parallelism, minThreshold, adaptive, /* shared= */ true, profiler);
+  }
+
+  /**
+   * A decision about how to run a phase in adaptive mode.
+   *
+   * @param name the name of the phase
+   * @param inputs the number of inputs to the phase
+   * @param sampled the number of inputs that were processed serially to estimate the cost of the
+   *     phase
+   * @param estimated the estimated time to process the remaining inputs on a single thread
+   * @param chunks the number of chunks the remaining inputs were split into, or one if they were
+   *     processed serially
+   */
+  public record Decision(String name, int inputs, int sampled, Duration estimated, int chunks) {}
+
+  /** Returns the decisions made by this executor in adaptive mode, in the order they were made. */
+  public ImmutableList<Decision> decisions() {
+    return ImmutableList.copyOf(decisions);
+  }
+
+  /** The profiler for the compilation this executor is used by. */
+  public Profiler profiler() {
+    return profiler;
+  }
+
+  /**
+   * Creates a pool of worker threads, for use with {@link #shared}. The pool is work-stealing, so
+   * idle threads pick up queued chunks from busy ones.
+   */
+  public static ListeningExecutorService newPool(int parallelism) {
+    return listeningDecorator(new ForkJoinPool(parallelism));
+  }
+
+  /** The default parallelism, limited to a maximum of {@link #DEFAULT_MAX_THREADS} CPUs. */
+  public static int defaultParallelism() {
+    return parallelism(DEFAULT_MAX_THREADS);
+  }
+
+  /** The number of available CPUs, limited to a maximum of {@code maxThreads}. */
+  public static int parallelism(int maxThreads) {
+    return Math.clamp(Runtime.getRuntime().availableProcessors(), 1, Math.max(maxThreads, 1));
+  }
+
   /**
    * Transforms the inputs in parallel, returning a collected ImmutableList in the original order.
    */
   public <I, O> ImmutableList<O> map(ImmutableList<I> inputs, Function<I, O> mapper) {
-    ImmutableList<ImmutableList<I>> chunks = partition(inputs, parallelism);
+    return map("map", inputs, mapper);
+  }
+
+  /**
+   * Transforms the inputs in parallel, returning a collected ImmutableList in the original order.
+   * The work done on each thread is recorded in the profile as a span with the given name.
+   */
+  public <I, O> ImmutableList<O> map(String name, ImmutableList<I> inputs, Function<I, O> mapper) {
+    return map(name, inputs, input -> 1, mapper);
+  }
+
+  /**
+   * Transforms the inputs in parallel, returning a collected ImmutableList in the original order.
+   * The inputs are split into chunks of roughly equal total cost, as estimated by {@code cost}, so
+   * a few expensive inputs don't end up on the same thread. The work done on each thread is
+   * recorded in the profile as a span with the given name.
+   */
+  public <I, O> ImmutableList<O> map(
+      String name, ImmutableList<I> inputs, ToLongFunction<? super I> cost, Function<I, O> mapper) {
+    if (adaptive && delegate != null && parallelism > 1) {
+      return adaptiveMap(name, inputs, cost, mapper);
+    }
+    ImmutableList.Builder<O> builder = ImmutableList.builder();
+    run(name, partition(inputs, cost), mapper, builder);
+    return builder.build();
+  }
+
+  /**
+   * Processes a sample of the inputs on the calling thread, and uses the time that took to decide
+   * whether the remaining inputs are worth processing in parallel, and how many chunks to split
+   * them into.
+   */
+  private <I, O> ImmutableList<O> adaptiveMap(
+      String name, ImmutableList<I> inputs, ToLongFunction<? super I> cost, Function<I, O> mapper) {
+    ImmutableList.Builder<O> builder = ImmutableList.builder();
+    int sampled = Math.min(inputs.size(), ADAPTIVE_SAMPLE_SIZE);
+    long sampleCost = 0;
+    long start = System.nanoTime();
+    for (I input : inputs.subList(0, sampled)) {
+      builder.add(mapper.apply(input));
+      sampleCost += Math.max(cost.applyAsLong(input), 1);
+    }
+    long sampleNanos = System.nanoTime() - start;
+
+    ImmutableList<I> rest = inputs.subList(sampled, inputs.size());
+    long restCost = 0;
+    for (I input : rest) {
+      restCost += Math.max(cost.applyAsLong(input), 1);
+    }
+    long estimatedNanos =
+        sampleCost == 0 ? 0 : (long) ((double) sampleNanos * restCost / sampleCost);
+    int numChunks =
+        (int)
+            Math.clamp(
+                estimatedNanos / ADAPTIVE_MIN_CHUNK_NANOS,
+                1,
+                Math.min((long) parallelism * CHUNKS_PER_THREAD, Math.max(rest.size(), 1)));
+    decisions.add(
+        new Decision(name, inputs.size(), sampled, Duration.ofNanos(estimatedNanos), numChunks));
+
+    run(name, partition(rest, cost, numChunks), mapper, builder);
+    return builder.build();
+  }
+
+  /**
+   * Transforms the chunks, in parallel if there is more than one, and adds the results to {@code
+   * builder} in the original order.
+   */
+  private <I, O> void run(
+      String name,
+      ImmutableList<ImmutableList<I>> chunks,
+      Function<I, O> mapper,
+      ImmutableList.Builder<O> builder) {
     if (chunks.size() <= 1) {
-      ImmutableList.Builder<O> builder = ImmutableList.builder();
-      for (I input : inputs) {
-        builder.add(mapper.apply(input));
+      for (ImmutableList<I> chunk : chunks) {
+        for (I input : chunk) {
+          builder.add(mapper.apply(input));
+        }
       }
-      return builder.build();
+      return;
     }
 
     List<ListenableFuture<List<O>>> futures = new ArrayList<>();
@@ -76,23 +290,45 @@ public final class TurbineExecutor implements AutoCloseable {
       futures.add(
           delegate.submit(
               () -> {
-                List<O> results = new ArrayList<>();
-                for (I input : chunk) {
-                  results.add(mapper.apply(input));
+                try (Profiler.Span unused = profiler.span(name)) {
+                  List<O> results = new ArrayList<>();
+                  for (I input : chunk) {
+                    results.add(mapper.apply(input));
+                  }
+                  return results;
                 }
-                return results;
               }));
     }
-    ImmutableList.Builder<O> builder = ImmutableList.builder();
     for (var future : futures) {
       builder.addAll(getUnchecked(future));
     }
-    return builder.build();
   }
 
   /** Transforms the input keys in parallel, returning a collected ImmutableMap. */
   public <K, V> ImmutableMap<K, V> toMap(ImmutableList<K> inputs, Function<K, V> valueFunction) {
-    ImmutableList<V> values = map(inputs, valueFunction);
+    return toMap("toMap", inputs, valueFunction);
+  }
+
+  /**
+   * Transforms the input keys in parallel, returning a collected ImmutableMap. The work done on
+   * each thread is recorded in the profile as a span with the given name.
+   */
+  public <K, V> ImmutableMap<K, V> toMap(
+      String name, ImmutableList<K> inputs, Function<K, V> valueFunction) {
+    return toMap(name, inputs, input -> 1, valueFunction);
+  }
+
+  /**
+   * Transforms the input keys in parallel, returning a collected ImmutableMap. The keys are split
+   * into chunks of roughly equal total cost, see {@link #map(String, ImmutableList, ToLongFunction,
+   * Function)}.
+   */
+  public <K, V> ImmutableMap<K, V> toMap(
+      String name,
+      ImmutableList<K> inputs,
+      ToLongFunction<? super K> cost,
+      Function<K, V> valueFunction) {
+    ImmutableList<V> values = map(name, inputs, cost, valueFunction);
     ImmutableMap.Builder<K, V> builder = ImmutableMap.builder();
     for (int i = 0; i < inputs.size(); i++) {
       builder.put(inputs.get(i), values.get(i));
@@ -100,21 +336,80 @@ public final class TurbineExecutor implements AutoCloseable {
     return builder.buildOrThrow();
   }
 
-  private <T> ImmutableList<ImmutableList<T>> partition(ImmutableList<T> list, int parallelism) {
+  /**
+   * Starts running {@code task} on another thread, so it can be overlapped with other work on the
+   * calling thread. If this executor isn't parallel, the task is run immediately on the calling
+   * thread. Use {@link #join} to get the result.
+   */
+  public <T> ListenableFuture<T> submit(Callable<T> task) {
+    if (delegate == null) {
+      try {
+        return Futures.immediateFuture(task.call());
+      } catch (Exception e) {
+        return Futures.immediateFailedFuture(e);
+      }
+    }
+    return delegate.submit(task);
+  }
+
+  /**
+   * Waits for the result of a task started by {@link #submit}, and rethrows any exception the task
+   * threw.
+   */
+  public static <T> T join(ListenableFuture<T> future) throws IOException {
+    try {
+      return Uninterruptibles.getUninterruptibly(future);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof TurbineError turbineError) {
+        throw new TurbineError(turbineError.diagnostics(), turbineError);
+      }
+      Throwables.throwIfInstanceOf(cause, IOException.class);
+      Throwables.throwIfUnchecked(cause);
+      throw new UncheckedExecutionException(cause);
+    }
+  }
+
+  /**
+   * Splits the list into contiguous chunks of roughly equal total cost. Every input has a cost of
+   * at least one, and an input whose cost exceeds the target size of a chunk is placed in a chunk
+   * of its own.
+   */
+  @VisibleForTesting
+  <T> ImmutableList<ImmutableList<T>> partition(
+      ImmutableList<T> list, ToLongFunction<? super T> cost) {
+    int size = list.size();
+    if (size == 0 || size < minThreshold || parallelism <= 1) {
+      return ImmutableList.of(list);
+    }
+    return partition(list, cost, Math.clamp((long) parallelism * CHUNKS_PER_THREAD, 1, size));
+  }
+
+  private static <T> ImmutableList<ImmutableList<T>> partition(
+      ImmutableList<T> list, ToLongFunction<? super T> cost, int numChunks) {
     int size = list.size();
-    if (size == 0 || size < minThreshold) {
+    if (size == 0 || numChunks <= 1) {
       return ImmutableList.of(list);
     }
-    int numChunks = Math.clamp(parallelism, 1, size);
-    int baseSize = size / numChunks;
-    int remainder = size % numChunks;
+    long[] costs = new long[size];
+    long total = 0;
+    for (int i = 0; i < size; i++) {
+      costs[i] = Math.max(cost.applyAsLong(list.get(i)), 1);
+      total += costs[i];
+    }
+    long target = Math.ceilDiv(total, numChunks);
     ImmutableList.Builder<ImmutableList<T>> result = ImmutableList.builder();
-    int offset = 0;
-    for (int i = 0; i < numChunks; i++) {
-      int chunkSize = baseSize + (i < remainder ? 1 : 0);
-      result.add(list.subList(offset, offset + chunkSize));
-      offset += chunkSize;
+    int start = 0;
+    long chunkCost = 0;
+    for (int i = 0; i < size; i++) {
+      if (i > start && chunkCost + costs[i] > target) {
+        result.add(list.subList(start, i));
+        start = i;
+        chunkCost = 0;
+      }
+      chunkCost += costs[i];
     }
+    result.add(list.subList(start, size));
     return result.build();
   }
 
@@ -131,7 +426,7 @@ public final class TurbineExecutor implements AutoCloseable {
 
   @Override
   public void close() {
-    if (delegate != null) {
+    if (delegate != null && !shared) {
       delegate.close();
     }
   }
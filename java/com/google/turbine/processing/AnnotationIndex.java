@@ -0,0 +1,220 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.turbine.processing;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.turbine.binder.bound.TypeBoundClass;
+import com.google.turbine.binder.bound.TypeBoundClass.FieldInfo;
+import com.google.turbine.binder.bound.TypeBoundClass.MethodInfo;
+import com.google.turbine.binder.bound.TypeBoundClass.ParamInfo;
+import com.google.turbine.binder.env.Env;
+import com.google.turbine.binder.sym.ClassSymbol;
+import com.google.turbine.binder.sym.Symbol;
+import com.google.turbine.type.AnnoInfo;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An index of the annotations present on the elements of a processing round.
+ *
+ * <p>Building the index only records which classes contain each annotation type, which is enough
+ * to decide which processors to run. The annotated elements are found on demand for each
+ * annotation type a processor asks about, by walking the members of just the classes that contain
+ * it.
+ *
+ * <p>Building the index still visits the annotations of every member, since the annotation types
+ * passed to {@link javax.annotation.processing.Processor#process} include those that are only
+ * present on members, and each processor is given all of the types it supports. So it can't be
+ * deferred until a processor claims a type.
+ */
+public final class AnnotationIndex {
+
+  private final Env<ClassSymbol, TypeBoundClass> env;
+
+  /** The classes of the round that contain each annotation type, in the order of the round. */
+  private final ImmutableSetMultimap<ClassSymbol, ClassSymbol> classes;
+
+  /** The annotation types that are inherited by the classes of the round. */
+  private final ImmutableSetMultimap<ClassSymbol, ClassSymbol> inherited;
+
+  /** The elements annotated with each annotation type that has been asked about. */
+  private final Map<ClassSymbol, ImmutableSet<Symbol>> elements = new HashMap<>();
+
+  /** Caches the annotation types inherited by each superclass. */
+  private final Map<ClassSymbol, ImmutableSet<ClassSymbol>> inheritedBy = new HashMap<>();
+
+  /** Caches whether each annotation type is {@code @Inherited}. */
+  private final Map<ClassSymbol, Boolean> isInherited = new HashMap<>();
+
+  /** Creates an index of the annotations on the given classes, and their members. */
+  public static AnnotationIndex create(
+      Env<ClassSymbol, TypeBoundClass> env, ImmutableSet<ClassSymbol> syms) {
+    return new AnnotationIndex(env, syms);
+  }
+
+  private AnnotationIndex(Env<ClassSymbol, TypeBoundClass> env, ImmutableSet<ClassSymbol> syms) {
+    this.env = env;
+    ImmutableSetMultimap.Builder<ClassSymbol, ClassSymbol> classes = ImmutableSetMultimap.builder();
+    ImmutableSetMultimap.Builder<ClassSymbol, ClassSymbol> inherited =
+        ImmutableSetMultimap.builder();
+    for (ClassSymbol sym : syms) {
+      TypeBoundClass info = env.getNonNull(sym);
+      for (AnnoInfo anno : info.annotations()) {
+        addAnno(classes, anno, sym);
+      }
+      ClassSymbol superclass = info.superclass();
+      if (superclass != null) {
+        for (ClassSymbol anno : inheritedAnnotations(superclass)) {
+          classes.put(anno, sym);
+          inherited.put(sym, anno);
+        }
+      }
+      for (MethodInfo method : info.methods()) {
+        for (AnnoInfo anno : method.annotations()) {
+          addAnno(classes, anno, sym);
+        }
+        for (ParamInfo param : method.parameters()) {
+          for (AnnoInfo anno : param.annotations()) {
+            addAnno(classes, anno, sym);
+          }
+        }
+      }
+      for (FieldInfo field : info.fields()) {
+        for (AnnoInfo anno : field.annotations()) {
+          addAnno(classes, anno, sym);
+        }
+      }
+    }
+    this.classes = classes.build();
+    this.inherited = inherited.build();
+  }
+
+  /** Returns the annotation types present in the round. */
+  public ImmutableSet<ClassSymbol> annotationTypes() {
+    return classes.keySet();
+  }
+
+  /** Returns the elements of the round annotated with the given annotation type. */
+  public synchronized ImmutableSet<Symbol> elementsAnnotatedWith(ClassSymbol annotation) {
+    ImmutableSet<Symbol> result = elements.get(annotation);
+    if (result == null) {
+      result = findElements(annotation);
+      elements.put(annotation, result);
+    }
+    return result;
+  }
+
+  private ImmutableSet<Symbol> findElements(ClassSymbol annotation) {
+    ImmutableSet.Builder<Symbol> result = ImmutableSet.builder();
+    for (ClassSymbol sym : classes.get(annotation)) {
+      TypeBoundClass info = env.getNonNull(sym);
+      if (has(info.annotations(), annotation)) {
+        result.add(sym.simpleName().equals("package-info") ? sym.owner() : sym);
+      }
+      if (inherited.containsEntry(sym, annotation)) {
+        result.add(sym);
+      }
+      for (MethodInfo method : info.methods()) {
+        if (has(method.annotations(), annotation)) {
+          result.add(method.sym());
+        }
+        for (ParamInfo param : method.parameters()) {
+          if (has(param.annotations(), annotation)) {
+            result.add(param.sym());
+          }
+        }
+      }
+      for (FieldInfo field : info.fields()) {
+        if (has(field.annotations(), annotation)) {
+          result.add(field.sym());
+        }
+      }
+    }
+    return result.build();
+  }
+
+  private static boolean has(Iterable<AnnoInfo> annos, ClassSymbol annotation) {
+    for (AnnoInfo anno : annos) {
+      if (annotation.equals(anno.sym())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void addAnno(
+      ImmutableSetMultimap.Builder<ClassSymbol, ClassSymbol> classes,
+      AnnoInfo anno,
+      ClassSymbol owner) {
+    ClassSymbol sym = anno.sym();
+    if (sym != null) {
+      classes.put(sym, owner);
+    }
+  }
+
+  /** Returns the {@code @Inherited} annotation types of the given class and its superclasses. */
+  private ImmutableSet<ClassSymbol> inheritedAnnotations(ClassSymbol sym) {
+    ImmutableSet<ClassSymbol> result = inheritedBy.get(sym);
+    if (result != null) {
+      return result;
+    }
+    // guard against cycles, which are reported as errors elsewhere
+    inheritedBy.put(sym, ImmutableSet.of());
+    TypeBoundClass info = env.get(sym);
+    if (info == null) {
+      return ImmutableSet.of();
+    }
+    ImmutableSet.Builder<ClassSymbol> builder = ImmutableSet.builder();
+    for (AnnoInfo anno : info.annotations()) {
+      ClassSymbol annoSym = anno.sym();
+      if (annoSym != null && isAnnotationInherited(annoSym)) {
+        builder.add(annoSym);
+      }
+    }
+    ClassSymbol superclass = info.superclass();
+    if (superclass != null) {
+      builder.addAll(inheritedAnnotations(superclass));
+    }
+    result = builder.build();
+    inheritedBy.put(sym, result);
+    return result;
+  }
+
+  private boolean isAnnotationInherited(ClassSymbol sym) {
+    Boolean result = isInherited.get(sym);
+    if (result == null) {
+      result = computeIsAnnotationInherited(sym);
+      isInherited.put(sym, result);
+    }
+    return result;
+  }
+
+  private boolean computeIsAnnotationInherited(ClassSymbol sym) {
+    TypeBoundClass annoInfo = env.get(sym);
+    if (annoInfo == null) {
+      return false;
+    }
+    for (AnnoInfo anno : annoInfo.annotations()) {
+      if (Objects.equals(anno.sym(), ClassSymbol.INHERITED)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -19,6 +19,7 @@ package com.google.turbine.processing;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.turbine.binder.bound.TypeBoundClass;
+import com.google.turbine.binder.bytecode.BytecodeBoundClass;
 import com.google.turbine.binder.env.CompoundEnv;
 import com.google.turbine.binder.env.Env;
 import com.google.turbine.binder.sym.ClassSymbol;
@@ -35,19 +36,37 @@ import java.util.Set;
 /**
  * A representation of the class hierarchy, with logic for performing search between subtypes and
  * their supertypes.
+ *
+ * <p>Lookups are thread-safe. Nodes are immutable once they have been added to a cache.
  */
 public class ClassHierarchy {
 
+  /** Nodes for classes whose supertype hierarchy includes any sources, which may change. */
   private final Map<ClassSymbol, HierarchyNode> cache = new HashMap<>();
+
+  /**
+   * Nodes for classpath classes whose supertype hierarchy is entirely on the classpath, which are
+   * kept for all annotation processing rounds.
+   */
+  private final Map<ClassSymbol, HierarchyNode> classPathCache = new HashMap<>();
+
   private Env<ClassSymbol, ? extends TypeBoundClass> env;
 
   ClassHierarchy(Env<ClassSymbol, ? extends TypeBoundClass> env) {
     this.env = env;
   }
 
-  public void round(CompoundEnv<ClassSymbol, TypeBoundClass> env) {
+  public synchronized void round(CompoundEnv<ClassSymbol, TypeBoundClass> env) {
     cache.clear();
     this.env = env;
+    // The supertype closure of each classpath node is also in the cache, so if a source now
+    // shadows any cached classpath class, some classpath nodes may be stale.
+    for (ClassSymbol sym : classPathCache.keySet()) {
+      if (!(env.get(sym) instanceof BytecodeBoundClass)) {
+        classPathCache.clear();
+        break;
+      }
+    }
   }
 
   /** A linked list between two types in the hierarchy. */
@@ -75,8 +94,12 @@ public class ClassHierarchy {
     private final ClassSymbol sym;
     private final Map<ClassSymbol, PathNode> ancestors = new LinkedHashMap<>();
 
-    HierarchyNode(ClassSymbol sym) {
+    /** True if this class and all of its supertypes are classpath classes. */
+    private boolean classPath;
+
+    HierarchyNode(ClassSymbol sym, boolean classPath) {
       this.sym = sym;
+      this.classPath = classPath;
     }
 
     /** Adds a child (direct supertype) of this node. */
@@ -87,6 +110,7 @@ public class ClassHierarchy {
       }
       ClassTy classTy = (ClassTy) type;
       HierarchyNode child = get(classTy.sym());
+      classPath &= child.classPath;
       // add a new edge to the direct supertype
       PathNode existing = ancestors.putIfAbsent(child.sym, new PathNode(classTy, null));
       if (existing != null) {
@@ -106,11 +130,11 @@ public class ClassHierarchy {
   }
 
   private HierarchyNode compute(ClassSymbol sym) {
-    HierarchyNode node = new HierarchyNode(sym);
     TypeBoundClass info = env.get(sym);
     if (info == null) {
       throw TurbineError.format(/* source= */ null, ErrorKind.SYMBOL_NOT_FOUND, sym);
     }
+    HierarchyNode node = new HierarchyNode(sym, info instanceof BytecodeBoundClass);
     if (info.superClassType() != null) {
       node.add(info.superClassType());
     }
@@ -120,14 +144,21 @@ public class ClassHierarchy {
     return node;
   }
 
-  private HierarchyNode get(ClassSymbol sym) {
+  private synchronized HierarchyNode get(ClassSymbol sym) {
     // dont use computeIfAbsent, to support re-entrant lookups
-    HierarchyNode result = cache.get(sym);
+    HierarchyNode result = classPathCache.get(sym);
+    if (result == null) {
+      result = cache.get(sym);
+    }
     if (result != null) {
       return result;
     }
     result = compute(sym);
-    cache.put(sym, result);
+    if (result.classPath) {
+      classPathCache.put(sym, result);
+    } else {
+      cache.put(sym, result);
+    }
     return result;
   }
 
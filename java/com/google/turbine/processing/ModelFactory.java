@@ -31,6 +31,7 @@ import com.google.turbine.binder.bound.TypeBoundClass.MethodInfo;
 import com.google.turbine.binder.bound.TypeBoundClass.ParamInfo;
 import com.google.turbine.binder.bound.TypeBoundClass.RecordComponentInfo;
 import com.google.turbine.binder.bound.TypeBoundClass.TyVarInfo;
+import com.google.turbine.binder.bytecode.BytecodeBoundClass;
 import com.google.turbine.binder.env.CompoundEnv;
 import com.google.turbine.binder.env.Env;
 import com.google.turbine.binder.lookup.LookupKey;
@@ -75,8 +76,9 @@ import com.google.turbine.type.Type.MethodTy;
 import com.google.turbine.type.Type.PrimTy;
 import com.google.turbine.type.Type.TyVar;
 import com.google.turbine.type.Type.WildTy;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.RecordComponentElement;
@@ -101,25 +103,52 @@ public class ModelFactory {
 
   private final AtomicInteger round = new AtomicInteger(0);
 
+  /**
+   * Incremented when information about classpath classes may have changed, which only happens if
+   * a source file shadows a classpath class that has already been modelled.
+   */
+  private final AtomicInteger classPathRound = new AtomicInteger(0);
+
+  /** Classpath classes with memoized information, see {@link #memoize(Supplier, Supplier)}. */
+  private final Set<ClassSymbol> classPathSymbols = ConcurrentHashMap.newKeySet();
+
   public void round(CompoundEnv<ClassSymbol, TypeBoundClass> env, TopLevelIndex tli) {
     this.env = env;
     this.tli = tli;
     round.getAndIncrement();
+    for (ClassSymbol sym : classPathSymbols) {
+      if (!(env.get(sym) instanceof BytecodeBoundClass)) {
+        classPathSymbols.clear();
+        classPathRound.getAndIncrement();
+        break;
+      }
+    }
     cha.round(env);
   }
 
-  private final HashMap<Type, TurbineTypeMirror> typeCache = new HashMap<>();
+  // The caches are concurrent to support annotation processors that run concurrently, see
+  // Processing#process. None of the computations in computeIfAbsent update the same cache.
+
+  private final Map<Type, TurbineTypeMirror> typeCache = new ConcurrentHashMap<>();
 
-  private final Map<FieldSymbol, TurbineFieldElement> fieldCache = new HashMap<>();
-  private final Map<MethodSymbol, TurbineExecutableElement> methodCache = new HashMap<>();
-  private final Map<ClassSymbol, TurbineTypeElement> classCache = new HashMap<>();
-  private final Map<ParamSymbol, TurbineParameterElement> paramCache = new HashMap<>();
+  private final Map<FieldSymbol, TurbineFieldElement> fieldCache = new ConcurrentHashMap<>();
+  private final Map<MethodSymbol, TurbineExecutableElement> methodCache =
+      new ConcurrentHashMap<>();
+  private final Map<ClassSymbol, TurbineTypeElement> classCache = new ConcurrentHashMap<>();
+  private final Map<ParamSymbol, TurbineParameterElement> paramCache = new ConcurrentHashMap<>();
   private final Map<RecordComponentSymbol, TurbineRecordComponentElement> recordComponentCache =
-      new HashMap<>();
-  private final Map<TyVarSymbol, TurbineTypeParameterElement> tyParamCache = new HashMap<>();
-  private final Map<PackageSymbol, TurbinePackageElement> packageCache = new HashMap<>();
+      new ConcurrentHashMap<>();
+  private final Map<TyVarSymbol, TurbineTypeParameterElement> tyParamCache =
+      new ConcurrentHashMap<>();
+  private final Map<PackageSymbol, TurbinePackageElement> packageCache = new ConcurrentHashMap<>();
 
-  private final HashMap<CharSequence, ClassSymbol> inferSymbolCache = new HashMap<>();
+  private final Map<CharSequence, ClassSymbol> inferSymbolCache = new ConcurrentHashMap<>();
+
+  /**
+   * The number of elements requested on each thread, which attributes model queries to the
+   * annotation processor running on that thread.
+   */
+  private final ThreadLocal<long[]> elementsQueried = ThreadLocal.withInitial(() -> new long[1]);
 
   private final ClassHierarchy cha;
 
@@ -141,6 +170,8 @@ public class ModelFactory {
    * <p>It ensures that the results are invalidated after each annotation processing round, to
    * support computations that depend on information in the current round and which might change in
    * future, e.g. as additional types are generated.
+   *
+   * <p>The supplier is thread-safe.
    */
   <T> Supplier<T> memoize(Supplier<T> s) {
     return new Supplier<T>() {
@@ -148,7 +179,7 @@ public class ModelFactory {
       int initializedInRound = -1;
 
       @Override
-      public T get() {
+      public synchronized T get() {
         int r = round.get();
         if (initializedInRound != r) {
           v = s.get();
@@ -159,6 +190,50 @@ public class ModelFactory {
     };
   }
 
+  /**
+   * Returns a supplier that memoizes the result of the input supplier, for information about the
+   * given symbol.
+   *
+   * <p>If the symbol belongs to a classpath class the results are kept for all annotation
+   * processing rounds, since classpath classes don't change between rounds. Otherwise they are
+   * invalidated after each round, as for {@link #memoize(Supplier)}. The symbol is only requested
+   * when the result is first computed.
+   */
+  <T> Supplier<T> memoize(Supplier<? extends Symbol> sym, Supplier<T> s) {
+    return new Supplier<T>() {
+      T v;
+      int initializedInRound = -1;
+      int initializedInClassPathRound = -1;
+      boolean classPath;
+
+      @Override
+      public synchronized T get() {
+        int r = round.get();
+        int c = classPathRound.get();
+        if (initializedInClassPathRound != c || (!classPath && initializedInRound != r)) {
+          v = s.get();
+          classPath = isClassPath(sym.get());
+          initializedInRound = r;
+          initializedInClassPathRound = c;
+        }
+        return v;
+      }
+    };
+  }
+
+  /** Returns true if the given symbol belongs to a classpath class. */
+  private boolean isClassPath(Symbol sym) {
+    if (sym.symKind() == Symbol.Kind.PACKAGE || sym.symKind() == Symbol.Kind.MODULE) {
+      return false;
+    }
+    ClassSymbol owner = enclosingClass(sym);
+    if (!(env.get(owner) instanceof BytecodeBoundClass)) {
+      return false;
+    }
+    classPathSymbols.add(owner);
+    return true;
+  }
+
   /** Creates a {@link TurbineTypeMirror} backed by a {@link Type}. */
   private TurbineTypeMirror createTypeMirror(Type type) {
     return switch (type.tyKind()) {
@@ -222,38 +297,52 @@ public class ModelFactory {
     };
   }
 
+  /** Returns the number of elements requested from this factory on the current thread. */
+  public long elementsQueried() {
+    return elementsQueried.get()[0];
+  }
+
+  private <T extends Element> T queried(T element) {
+    elementsQueried.get()[0]++;
+    return element;
+  }
+
   Element noElement(String name) {
     return new TurbineNoTypeElement(this, name);
   }
 
   TurbineFieldElement fieldElement(FieldSymbol symbol) {
-    return fieldCache.computeIfAbsent(symbol, k -> new TurbineFieldElement(this, symbol));
+    return queried(fieldCache.computeIfAbsent(symbol, k -> new TurbineFieldElement(this, symbol)));
   }
 
   TurbineExecutableElement executableElement(MethodSymbol symbol) {
-    return methodCache.computeIfAbsent(symbol, k -> new TurbineExecutableElement(this, symbol));
+    return queried(
+        methodCache.computeIfAbsent(symbol, k -> new TurbineExecutableElement(this, symbol)));
   }
 
   public TurbineTypeElement typeElement(ClassSymbol symbol) {
     Verify.verify(!symbol.simpleName().equals("package-info"), "%s", symbol);
-    return classCache.computeIfAbsent(symbol, k -> new TurbineTypeElement(this, symbol));
+    return queried(classCache.computeIfAbsent(symbol, k -> new TurbineTypeElement(this, symbol)));
   }
 
   TurbinePackageElement packageElement(PackageSymbol symbol) {
-    return packageCache.computeIfAbsent(symbol, k -> new TurbinePackageElement(this, symbol));
+    return queried(
+        packageCache.computeIfAbsent(symbol, k -> new TurbinePackageElement(this, symbol)));
   }
 
   VariableElement parameterElement(ParamSymbol sym) {
-    return paramCache.computeIfAbsent(sym, k -> new TurbineParameterElement(this, sym));
+    return queried(paramCache.computeIfAbsent(sym, k -> new TurbineParameterElement(this, sym)));
   }
 
   RecordComponentElement recordComponentElement(RecordComponentSymbol sym) {
-    return recordComponentCache.computeIfAbsent(
-        sym, k -> new TurbineRecordComponentElement(this, sym));
+    return queried(
+        recordComponentCache.computeIfAbsent(
+            sym, k -> new TurbineRecordComponentElement(this, sym)));
   }
 
   TurbineTypeParameterElement typeParameterElement(TyVarSymbol sym) {
-    return tyParamCache.computeIfAbsent(sym, k -> new TurbineTypeParameterElement(this, sym));
+    return queried(
+        tyParamCache.computeIfAbsent(sym, k -> new TurbineTypeParameterElement(this, sym)));
   }
 
   ImmutableSet<Element> elements(ImmutableSet<? extends Symbol> symbols) {
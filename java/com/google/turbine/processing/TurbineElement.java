@@ -97,13 +97,13 @@ public abstract class TurbineElement implements Element {
   private final Supplier<ImmutableList<AnnotationMirror>> annotationMirrors;
 
   protected <T> Supplier<T> memoize(Supplier<T> supplier) {
-    return factory.memoize(supplier);
+    return factory.memoize(this::sym, supplier);
   }
 
   protected TurbineElement(ModelFactory factory) {
     this.factory = requireNonNull(factory);
     this.annotationMirrors =
-        factory.memoize(
+        memoize(
             () -> {
               ImmutableList.Builder<AnnotationMirror> result = ImmutableList.builder();
               for (AnnoInfo anno : annos()) {
@@ -20,6 +20,7 @@ import static com.google.common.base.Preconditions.checkState;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
+import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.MultimapBuilder;
@@ -45,6 +46,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.Element;
@@ -65,6 +67,13 @@ public class TurbineElements implements Elements {
   private final ModelFactory factory;
   private final TurbineTypes types;
 
+  /**
+   * The results of {@link #getAllMembers} for each type. Processors often ask for the members of
+   * the same types repeatedly.
+   */
+  private final Map<ClassSymbol, Supplier<ImmutableList<Element>>> allMembers =
+      new ConcurrentHashMap<>();
+
   public TurbineElements(ModelFactory factory, TurbineTypes types) {
     this.factory = factory;
     this.types = types;
@@ -192,10 +201,28 @@ public class TurbineElements implements Elements {
   @Override
   public List<? extends Element> getAllMembers(TypeElement type) {
     ClassSymbol s = (ClassSymbol) asSymbol(type);
+    // the members of classpath types are kept across rounds, see ModelFactory#memoize
+    return allMembers
+        .computeIfAbsent(s, k -> factory.memoize(() -> k, () -> computeAllMembers(k)))
+        .get();
+  }
+
+  /**
+   * A method's name and number of parameters. A method can only override methods with the same
+   * key.
+   */
+  private record MethodKey(String name, int arity) {
+    static MethodKey of(TurbineExecutableElement m) {
+      return new MethodKey(m.info().name(), m.info().parameters().size());
+    }
+  }
+
+  private ImmutableList<Element> computeAllMembers(ClassSymbol s) {
     PackageSymbol from = packageSymbol(s);
 
-    // keep track of processed methods grouped by their names, to handle overrides more efficiently
-    Multimap<String, TurbineExecutableElement> methods =
+    // keep track of processed methods grouped by their names and arity, to handle overrides more
+    // efficiently
+    Multimap<MethodKey, TurbineExecutableElement> methods =
         MultimapBuilder.linkedHashKeys().linkedHashSetValues().build();
 
     // collect all members of each transitive supertype of the input
@@ -211,7 +238,7 @@ public class TurbineElements implements Elements {
           case METHOD -> {
             TurbineExecutableElement m = (TurbineExecutableElement) el;
             if (shouldAdd(s, from, m, methods, results)) {
-              methods.put(m.info().name(), m);
+              methods.put(MethodKey.of(m), m);
               results.add(el);
             }
           }
@@ -235,7 +262,7 @@ public class TurbineElements implements Elements {
       ClassSymbol s,
       PackageSymbol from,
       TurbineExecutableElement m,
-      Multimap<String, TurbineExecutableElement> methods,
+      Multimap<MethodKey, TurbineExecutableElement> methods,
       LinkedHashSet<Element> results) {
     if (m.sym().owner().equals(s)) {
       // always include methods (and constructors) declared in the given type
@@ -253,8 +280,8 @@ public class TurbineElements implements Elements {
     // current method
     Set<TurbineExecutableElement> overrides = new HashSet<>();
     Set<TurbineExecutableElement> overridden = new HashSet<>();
-    String name = m.info().name();
-    for (TurbineExecutableElement other : methods.get(name)) {
+    MethodKey key = MethodKey.of(m);
+    for (TurbineExecutableElement other : methods.get(key)) {
       if (overrides(m, other, (TypeElement) m.getEnclosingElement())) {
         overrides.add(other);
         continue;
@@ -274,7 +301,7 @@ public class TurbineElements implements Elements {
     }
     // Add this method, and remove any methods we've already processed that it overrides.
     for (TurbineExecutableElement override : overrides) {
-      methods.remove(name, override);
+      methods.remove(key, override);
       results.remove(override);
     }
     return true;
@@ -22,6 +22,7 @@ import static java.util.Objects.requireNonNull;
 
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.turbine.diag.SourceFile;
 import java.io.ByteArrayInputStream;
@@ -39,6 +40,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -55,7 +57,12 @@ import javax.tools.JavaFileObject;
 import javax.tools.JavaFileObject.Kind;
 import javax.tools.StandardLocation;
 
-/** Turbine's implementation of {@link Filer}. */
+/**
+ * Turbine's implementation of {@link Filer}.
+ *
+ * <p>The filer is thread-safe, to support processors that run concurrently. The files generated in
+ * a round are returned in the order of the processors that created them, see {@link #owner}.
+ */
 public class TurbineFiler implements Filer {
 
   /**
@@ -70,6 +77,9 @@ public class TurbineFiler implements Filer {
    */
   private final List<TurbineJavaFileObject> files = new ArrayList<>();
 
+  /** The index of the processor running on the current thread, see {@link #owner}. */
+  private final ThreadLocal<Integer> owner = ThreadLocal.withInitial(() -> 0);
+
   /** Loads resources from the classpath. */
   private final Function<String, Supplier<byte[]>> classPath;
 
@@ -80,12 +90,12 @@ public class TurbineFiler implements Filer {
   private final Map<String, byte[]> generatedClasses = new LinkedHashMap<>();
 
   /** Generated source file objects from all rounds. */
-  public ImmutableMap<String, SourceFile> generatedSources() {
+  public synchronized ImmutableMap<String, SourceFile> generatedSources() {
     return ImmutableMap.copyOf(generatedSources);
   }
 
   /** Generated class file objects from all rounds. */
-  public ImmutableMap<String, byte[]> generatedClasses() {
+  public synchronized ImmutableMap<String, byte[]> generatedClasses() {
     return ImmutableMap.copyOf(generatedClasses);
   }
 
@@ -96,11 +106,34 @@ public class TurbineFiler implements Filer {
     this.loader = loader;
   }
 
+  /**
+   * Records the index of the processor that is about to run on the current thread. Files are
+   * returned by {@link #finishRound} in the order of their owners, and then in the order they were
+   * created, so the output doesn't depend on the scheduling of processors that run concurrently.
+   */
+  public void owner(int owner) {
+    this.owner.set(owner);
+  }
+
+  /**
+   * Returns the kinds of the files generated so far in the current round, keyed by the index of the
+   * processor that created them, see {@link #owner}.
+   */
+  public synchronized ImmutableListMultimap<Integer, Kind> roundFiles() {
+    ImmutableListMultimap.Builder<Integer, Kind> result = ImmutableListMultimap.builder();
+    for (TurbineJavaFileObject file : files) {
+      result.put(file.owner(), file.getKind());
+    }
+    return result.build();
+  }
+
   /**
    * Called when the current annotation processing round is complete, and returns the sources
    * generated in that round.
    */
-  public Collection<SourceFile> finishRound() {
+  public synchronized Collection<SourceFile> finishRound() {
+    // the sort is stable, which preserves the creation order of each processor's files
+    files.sort(Comparator.comparingInt(TurbineJavaFileObject::owner));
     Map<String, SourceFile> roundSources = new LinkedHashMap<>();
     for (TurbineJavaFileObject e : files) {
       String path = e.getName();
@@ -151,19 +184,19 @@ public class TurbineFiler implements Filer {
     return create((StandardLocation) location, Kind.OTHER, path);
   }
 
-  private JavaFileObject create(StandardLocation location, Kind kind, String path)
+  private synchronized JavaFileObject create(StandardLocation location, Kind kind, String path)
       throws FilerException {
     checkArgument(location.isOutputLocation());
     if (!seen.add(path)) {
       throw new FilerException("already created " + path);
     }
-    TurbineJavaFileObject result = new TurbineJavaFileObject(location, kind, path);
+    TurbineJavaFileObject result = new TurbineJavaFileObject(location, kind, path, owner.get());
     files.add(result);
     return result;
   }
 
   @Override
-  public FileObject getResource(Location location, CharSequence p, CharSequence r)
+  public synchronized FileObject getResource(Location location, CharSequence p, CharSequence r)
       throws IOException {
     String pkg = p.toString();
     String relativeName = r.toString();
@@ -272,12 +305,15 @@ public class TurbineFiler implements Filer {
     private final StandardLocation location;
     private final Kind kind;
     private final CharSequence name;
+    private final int owner;
     private final ByteArrayOutputStream baos = new ByteArrayOutputStream();
 
-    public TurbineJavaFileObject(StandardLocation location, Kind kind, CharSequence name) {
+    public TurbineJavaFileObject(
+        StandardLocation location, Kind kind, CharSequence name, int owner) {
       this.location = location;
       this.kind = kind;
       this.name = name;
+      this.owner = owner;
     }
 
     @Override
@@ -341,6 +377,10 @@ public class TurbineFiler implements Filer {
     public StandardLocation location() {
       return location;
     }
+
+    public int owner() {
+      return owner;
+    }
   }
 
   private static class ResourceFileObject extends ReadOnlyFileObject {
@@ -49,15 +49,39 @@ public class TurbineMessager implements Messager {
   private final ModelFactory factory;
   private final TurbineLog log;
 
+  /**
+   * A log for the diagnostics reported by a processor running concurrently with others on the
+   * current thread, see {@link #buffer}.
+   */
+  private final ThreadLocal<@Nullable TurbineLog> buffer = new ThreadLocal<>();
+
   public TurbineMessager(ModelFactory factory, TurbineLog log) {
     this.factory = factory;
     this.log = log;
   }
 
+  /**
+   * Reports diagnostics from the current thread to the given log instead of the main log, or stops
+   * doing so if {@code buffer} is {@code null}. This allows the caller to add the diagnostics of
+   * processors that run concurrently to the main log in a deterministic order.
+   */
+  public void buffer(@Nullable TurbineLog buffer) {
+    if (buffer == null) {
+      this.buffer.remove();
+    } else {
+      this.buffer.set(buffer);
+    }
+  }
+
+  private TurbineLog log() {
+    TurbineLog result = buffer.get();
+    return result != null ? result : log;
+  }
+
   @Override
   public void printMessage(Diagnostic.Kind kind, CharSequence msg) {
     // TODO(cushon): null-check `msg` after fixing affected processors
-    log.diagnostic(kind, String.valueOf(msg));
+    log().diagnostic(kind, String.valueOf(msg));
   }
 
   @Override
@@ -69,7 +93,7 @@ public class TurbineMessager implements Messager {
     Symbol sym = ((TurbineElement) e).sym();
     SourceFile source = getSource(sym);
     int position = getPosition(sym);
-    log.withSource(source).diagnostic(kind, position, TurbineError.ErrorKind.PROC, msg);
+    log().withSource(source).diagnostic(kind, position, TurbineError.ErrorKind.PROC, msg);
   }
 
   @Override
@@ -80,7 +104,7 @@ public class TurbineMessager implements Messager {
     }
     SourceFile source = getSource(((TurbineElement) e).sym());
     int position = ((TurbineAnnotationMirror) a).anno().tree().position();
-    log.withSource(source).diagnostic(kind, position, TurbineError.ErrorKind.PROC, msg);
+    log().withSource(source).diagnostic(kind, position, TurbineError.ErrorKind.PROC, msg);
   }
 
   @Override
@@ -96,7 +120,7 @@ public class TurbineMessager implements Messager {
     if (position == -1) {
       position = anno.tree().position();
     }
-    log.withSource(source).diagnostic(kind, position, TurbineError.ErrorKind.PROC, msg);
+    log().withSource(source).diagnostic(kind, position, TurbineError.ErrorKind.PROC, msg);
   }
 
   /**
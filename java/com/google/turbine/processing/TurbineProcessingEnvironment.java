@@ -96,7 +96,7 @@ public class TurbineProcessingEnvironment implements ProcessingEnvironment {
     return processorLoader;
   }
 
-  public void addStatistics(String key, byte[] extension) {
+  public synchronized void addStatistics(String key, byte[] extension) {
     byte[] existing = statistics.put(key, extension);
     if (existing != null) {
       throw new IllegalStateException("duplicate statistics reported for " + key);
@@ -19,9 +19,7 @@ package com.google.turbine.processing;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.ImmutableSetMultimap;
 import com.google.turbine.binder.sym.ClassSymbol;
-import com.google.turbine.binder.sym.Symbol;
 import com.google.turbine.processing.TurbineElement.TurbineTypeElement;
 import java.lang.annotation.Annotation;
 import java.util.Set;
@@ -36,7 +34,7 @@ public class TurbineRoundEnvironment implements RoundEnvironment {
   private final ImmutableSet<ClassSymbol> syms;
   private final boolean processingOver;
   private final boolean errorRaised;
-  private final ImmutableSetMultimap<ClassSymbol, Symbol> allAnnotations;
+  private final AnnotationIndex annotationIndex;
 
   // the round environment doesn't outlive the round, so don't worry about resetting this cache
   private final Supplier<ImmutableSet<TurbineTypeElement>> rootElements =
@@ -63,12 +61,12 @@ public class TurbineRoundEnvironment implements RoundEnvironment {
       ImmutableSet<ClassSymbol> syms,
       boolean processingOver,
       boolean errorRaised,
-      ImmutableSetMultimap<ClassSymbol, Symbol> allAnnotations) {
+      AnnotationIndex annotationIndex) {
     this.factory = factory;
     this.syms = syms;
     this.processingOver = processingOver;
     this.errorRaised = errorRaised;
-    this.allAnnotations = allAnnotations;
+    this.annotationIndex = annotationIndex;
   }
 
   @Override
@@ -88,7 +86,7 @@ public class TurbineRoundEnvironment implements RoundEnvironment {
 
   @Override
   public Set<? extends Element> getElementsAnnotatedWith(TypeElement a) {
-    return factory.elements(allAnnotations.get(((TurbineTypeElement) a).sym()));
+    return factory.elements(annotationIndex.elementsAnnotatedWith(((TurbineTypeElement) a).sym()));
   }
 
   @Override
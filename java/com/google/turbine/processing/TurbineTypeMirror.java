@@ -168,6 +168,7 @@ public abstract class TurbineTypeMirror implements TypeMirror {
 
     final Supplier<Element> element =
         factory.memoize(
+            () -> type().sym(),
             new Supplier<Element>() {
               @Override
               public Element get() {
@@ -182,6 +183,7 @@ public abstract class TurbineTypeMirror implements TypeMirror {
 
     final Supplier<TypeMirror> enclosing =
         factory.memoize(
+            () -> type().sym(),
             new Supplier<TypeMirror>() {
               @Override
               public TypeMirror get() {
@@ -207,6 +209,7 @@ public abstract class TurbineTypeMirror implements TypeMirror {
 
     final Supplier<ImmutableList<TypeMirror>> typeArguments =
         factory.memoize(
+            () -> type().sym(),
             new Supplier<ImmutableList<TypeMirror>>() {
               @Override
               public ImmutableList<TypeMirror> get() {
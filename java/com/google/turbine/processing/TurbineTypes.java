@@ -21,6 +21,7 @@ import static com.google.common.base.Verify.verify;
 import static com.google.turbine.types.Deannotate.deannotate;
 import static java.util.Objects.requireNonNull;
 
+import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.turbine.binder.bound.TypeBoundClass;
@@ -47,9 +48,12 @@ import com.google.turbine.type.Type.WildTy;
 import com.google.turbine.type.Type.WildTy.BoundKind;
 import com.google.turbine.type.Type.WildUnboundedTy;
 import com.google.turbine.types.Erasure;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.ArrayType;
@@ -70,10 +74,75 @@ public class TurbineTypes implements Types {
 
   private final ModelFactory factory;
 
+  private final Memo<TypePair, Boolean> sameTypes;
+  private final Memo<TypePair, Boolean> subtypes;
+  private final Memo<TypePair, Boolean> assignable;
+  private final Memo<MemberKey, Optional<Type>> membersOf;
+
   public TurbineTypes(ModelFactory factory) {
     this.factory = factory;
+    this.sameTypes = new Memo<>(factory);
+    this.subtypes = new Memo<>(factory);
+    this.assignable = new Memo<>(factory);
+    this.membersOf = new Memo<>(factory);
+  }
+
+  /** The number of queries of a memoized relation that were answered from the memo table. */
+  public record MemoStats(long hits, long misses) {}
+
+  /** Returns the hit rates of the memo tables for the relations in {@link TurbineTypes}. */
+  public ImmutableMap<String, MemoStats> memoStats() {
+    return ImmutableMap.of(
+        "isSameType", sameTypes.stats(),
+        "isSubtype", subtypes.stats(),
+        "isAssignable", assignable.stats(),
+        "asMemberOf", membersOf.stats());
+  }
+
+  /**
+   * A memo table for a type relation, which is cleared after each annotation processing round
+   * since types from the sources may change as new sources are generated.
+   */
+  private static final class Memo<K, V> {
+
+    private final Supplier<Map<K, V>> table;
+    private long hits;
+    private long misses;
+
+    Memo(ModelFactory factory) {
+      this.table = factory.memoize(HashMap::new);
+    }
+
+    V get(K key, Function<K, V> compute) {
+      Map<K, V> map = table.get();
+      synchronized (this) {
+        V result = map.get(key);
+        if (result != null) {
+          hits++;
+          return result;
+        }
+        misses++;
+      }
+      // don't use computeIfAbsent, the computation may query the memo table recursively, and
+      // don't hold the lock while computing, since processors may query the table concurrently
+      V result = compute.apply(key);
+      synchronized (this) {
+        map.put(key, result);
+      }
+      return result;
+    }
+
+    synchronized MemoStats stats() {
+      return new MemoStats(hits, misses);
+    }
   }
 
+  /** A pair of types, with structural equality. */
+  private record TypePair(Type a, Type b) {}
+
+  /** A member, as viewed from a containing type. */
+  private record MemberKey(ClassTy containing, Symbol member) {}
+
   private static Type asTurbineType(TypeMirror typeMirror) {
     if (!(typeMirror instanceof TurbineTypeMirror turbineTypeMirror)) {
       throw new IllegalArgumentException(typeMirror.toString());
@@ -101,7 +170,7 @@ public class TurbineTypes implements Types {
       // `isSameType(Type, Type)` below does handle wildcards.
       return false;
     }
-    return isSameType(t1, t2);
+    return sameTypes.get(new TypePair(t1, t2), k -> isSameType(k.a(), k.b()));
   }
 
   private boolean isSameType(Type a, Type b) {
@@ -300,7 +369,9 @@ public class TurbineTypes implements Types {
   /** Returns true if type {@code a} is a subtype of type {@code b}. See JLS 4.1.0, 'subtyping'. */
   @Override
   public boolean isSubtype(TypeMirror a, TypeMirror b) {
-    return isSubtype(asTurbineType(a), asTurbineType(b), /* strict= */ true);
+    return subtypes.get(
+        new TypePair(asTurbineType(a), asTurbineType(b)),
+        k -> isSubtype(k.a(), k.b(), /* strict= */ true));
   }
 
   /**
@@ -592,7 +663,8 @@ public class TurbineTypes implements Types {
 
   @Override
   public boolean isAssignable(TypeMirror a1, TypeMirror a2) {
-    return isAssignable(asTurbineType(a1), asTurbineType(a2));
+    return assignable.get(
+        new TypePair(asTurbineType(a1), asTurbineType(a2)), k -> isAssignable(k.a(), k.b()));
   }
 
   private boolean isAssignable(Type t1, Type t2) {
@@ -977,13 +1049,21 @@ public class TurbineTypes implements Types {
 
   public @Nullable TypeMirror asMemberOfInternal(DeclaredType containing, Element element) {
     ClassTy c = ((TurbineDeclaredType) containing).asTurbineType();
+    Optional<Type> type =
+        element instanceof TurbineElement turbineElement
+            ? membersOf.get(new MemberKey(c, turbineElement.sym()), k -> asMemberOf(c, element))
+            : asMemberOf(c, element);
+    return type.isPresent() ? factory.asTypeMirror(type.get()) : null;
+  }
+
+  private Optional<Type> asMemberOf(ClassTy c, Element element) {
     Symbol enclosing = ((TurbineElement) element.getEnclosingElement()).sym();
     if (!enclosing.symKind().equals(Symbol.Kind.CLASS)) {
-      return null;
+      return Optional.empty();
     }
     ImmutableList<ClassTy> path = factory.cha().search(c, (ClassSymbol) enclosing);
     if (path.isEmpty()) {
-      return null;
+      return Optional.empty();
     }
     Type type = asTurbineType(element.asType());
     for (ClassTy ty : path) {
@@ -994,6 +1074,6 @@ public class TurbineTypes implements Types {
       }
       type = subst(type, mapping);
     }
-    return factory.asTypeMirror(type);
+    return Optional.of(type);
   }
 }
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.turbine.profile;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Comparator.comparingLong;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the time spent in each phase of a compilation, and writes it in the Chrome trace event
+ * format, which can be viewed with {@code chrome://tracing} or <a
+ * href="https://ui.perfetto.dev">Perfetto</a>.
+ *
+ * <p>Spans may be recorded concurrently from multiple threads, and each thread is shown on a
+ * separate track. Counters, e.g. lookup statistics, are shown on their own tracks.
+ */
+public final class Profiler {
+
+  /** A profiler that doesn't record anything. */
+  public static final Profiler NONE = new Profiler(/* enabled= */ false);
+
+  /** Creates a profiler that records spans. */
+  public static Profiler create() {
+    return new Profiler(/* enabled= */ true);
+  }
+
+  /** A span of time in the profile, which ends when it is closed. */
+  public interface Span extends AutoCloseable {
+    @Override
+    void close();
+  }
+
+  private static final Span NO_OP_SPAN = () -> {};
+
+  private record Event(
+      String name, long startNanos, long durationNanos, long threadId, String threadName) {}
+
+  private record Counter(String name, long timestampNanos, Map<String, Long> values) {}
+
+  private final boolean enabled;
+  private final long epochNanos = System.nanoTime();
+  private final Queue<Event> events = new ConcurrentLinkedQueue<>();
+  private final Queue<Counter> counters = new ConcurrentLinkedQueue<>();
+
+  private Profiler(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /** Returns true if this profiler records spans. */
+  public boolean enabled() {
+    return enabled;
+  }
+
+  /** Starts a span with the given name on the current thread. */
+  public Span span(String name) {
+    if (!enabled) {
+      return NO_OP_SPAN;
+    }
+    Thread thread = Thread.currentThread();
+    long start = System.nanoTime();
+    return () ->
+        events.add(
+            new Event(name, start, System.nanoTime() - start, thread.threadId(), thread.getName()));
+  }
+
+  /**
+   * Records the current values of a counter with the given name, e.g. the number of lookups that
+   * hit and missed a cache. Each value is shown as a separate series of the counter's track.
+   */
+  public void counter(String name, Map<String, Long> values) {
+    if (!enabled) {
+      return;
+    }
+    counters.add(new Counter(name, System.nanoTime(), new LinkedHashMap<>(values)));
+  }
+
+  /** Writes the recorded spans and counters to the given path as a JSON trace. */
+  public void write(Path path) throws IOException {
+    List<Event> sorted = new ArrayList<>(events);
+    sorted.sort(comparingLong(Event::startNanos));
+    Map<Long, String> threads = new LinkedHashMap<>();
+    for (Event event : sorted) {
+      threads.putIfAbsent(event.threadId(), event.threadName());
+    }
+    Path parent = path.getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    try (Writer writer = Files.newBufferedWriter(path, UTF_8)) {
+      writer.write("{\"traceEvents\":[");
+      boolean first = true;
+      for (Map.Entry<Long, String> thread : threads.entrySet()) {
+        first = separator(writer, first);
+        writer.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":");
+        writer.write(Long.toString(thread.getKey()));
+        writer.write(",\"args\":{\"name\":");
+        string(writer, thread.getValue());
+        writer.write("}}");
+      }
+      for (Event event : sorted) {
+        first = separator(writer, first);
+        writer.write("{\"name\":");
+        string(writer, event.name());
+        writer.write(",\"cat\":\"turbine\",\"ph\":\"X\",\"ts\":");
+        writer.write(Long.toString(micros(event.startNanos() - epochNanos)));
+        writer.write(",\"dur\":");
+        writer.write(Long.toString(micros(event.durationNanos())));
+        writer.write(",\"pid\":1,\"tid\":");
+        writer.write(Long.toString(event.threadId()));
+        writer.write("}");
+      }
+      for (Counter counter : counters) {
+        first = separator(writer, first);
+        writer.write("{\"name\":");
+        string(writer, counter.name());
+        writer.write(",\"cat\":\"turbine\",\"ph\":\"C\",\"ts\":");
+        writer.write(Long.toString(micros(counter.timestampNanos() - epochNanos)));
+        writer.write(",\"pid\":1,\"args\":{");
+        boolean firstValue = true;
+        for (Map.Entry<String, Long> value : counter.values().entrySet()) {
+          if (!firstValue) {
+            writer.write(',');
+          }
+          firstValue = false;
+          string(writer, value.getKey());
+          writer.write(':');
+          writer.write(Long.toString(value.getValue()));
+        }
+        writer.write("}}");
+      }
+      writer.write("],\"displayTimeUnit\":\"ms\"}\n");
+    }
+  }
+
+  private static boolean separator(Writer writer, boolean first) throws IOException {
+    if (!first) {
+      writer.write(",\n");
+    }
+    return false;
+  }
+
+  private static long micros(long nanos) {
+    return TimeUnit.NANOSECONDS.toMicros(nanos);
+  }
+
+  /** Writes a JSON string literal. */
+  private static void string(Writer writer, String value) throws IOException {
+    writer.write('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"' -> writer.write("\\\"");
+        case '\\' -> writer.write("\\\\");
+        case '\n' -> writer.write("\\n");
+        case '\t' -> writer.write("\\t");
+        default -> {
+          if (c < 0x20) {
+            writer.write(String.format("\\u%04x", (int) c));
+          } else {
+            writer.write(c);
+          }
+        }
+      }
+    }
+    writer.write('"');
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.turbine.zip;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Limits the number of zip archives that are open at once.
+ *
+ * <p>Entries read from an archive lazily keep it open, which means a long classpath holds a file
+ * descriptor or mapping for every jar. A pool closes the least recently used archives once more
+ * than its maximum are open, and can release all of them once a compilation is finished. Closed
+ * archives are reopened transparently the next time one of their entries is read.
+ */
+public final class ArchivePool {
+
+  /**
+   * A pool that doesn't track archives, which stay open until they're closed explicitly or garbage
+   * collected.
+   */
+  public static final ArchivePool UNBOUNDED = new ArchivePool(0, null);
+
+  /** Creates a pool that keeps at most {@code maxOpen} archives open. */
+  public static ArchivePool create(int maxOpen) {
+    checkArgument(maxOpen > 0, "maxOpen must be positive: %s", maxOpen);
+    return new ArchivePool(
+        maxOpen,
+        new LinkedHashMap<>(
+            /* initialCapacity= */ 16, /* loadFactor= */ 0.75f, /* accessOrder= */ true));
+  }
+
+  private final int maxOpen;
+
+  /** The open archives, in access order. Guarded by itself. */
+  private final @Nullable LinkedHashMap<Zip.Archive, Boolean> open;
+
+  private ArchivePool(int maxOpen, @Nullable LinkedHashMap<Zip.Archive, Boolean> open) {
+    this.maxOpen = maxOpen;
+    this.open = open;
+  }
+
+  /** Records that {@code archive} is open and was just used, and closes any excess archives. */
+  void used(Zip.Archive archive) {
+    if (open == null) {
+      return;
+    }
+    List<Zip.Archive> evicted = new ArrayList<>();
+    synchronized (open) {
+      open.put(archive, true);
+      for (Iterator<Zip.Archive> it = open.keySet().iterator(); open.size() > maxOpen; ) {
+        evicted.add(it.next());
+        it.remove();
+      }
+    }
+    // close archives outside the lock, so using one archive doesn't wait for others to close
+    close(evicted);
+  }
+
+  /** Records that {@code archive} was closed explicitly. */
+  void closed(Zip.Archive archive) {
+    if (open == null) {
+      return;
+    }
+    synchronized (open) {
+      open.remove(archive);
+    }
+  }
+
+  /**
+   * Closes all of the archives that are currently open, for example once a compilation is
+   * finished. Archives that are still in use are reopened when they're next read.
+   */
+  public void release() {
+    if (open == null) {
+      return;
+    }
+    List<Zip.Archive> evicted;
+    synchronized (open) {
+      evicted = new ArrayList<>(open.keySet());
+      open.clear();
+    }
+    close(evicted);
+  }
+
+  private static void close(List<Zip.Archive> archives) {
+    for (Zip.Archive archive : archives) {
+      try {
+        archive.close();
+      } catch (IOException e) {
+        // archives are only read, so there's nothing to lose if closing one fails
+      }
+    }
+  }
+
+  /** The number of archives that are currently open. */
+  int openCount() {
+    if (open == null) {
+      return 0;
+    }
+    synchronized (open) {
+      return open.size();
+    }
+  }
+}
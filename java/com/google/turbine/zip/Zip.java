@@ -17,10 +17,10 @@
 package com.google.turbine.zip;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
 
 import com.google.common.base.Supplier;
 import com.google.common.primitives.UnsignedInts;
-import java.io.ByteArrayInputStream;
 import java.io.Closeable;
 import java.io.IOError;
 import java.io.IOException;
@@ -32,9 +32,10 @@ import java.nio.channels.FileChannel.MapMode;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.Iterator;
+import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
-import java.util.zip.InflaterInputStream;
 import java.util.zip.ZipException;
+import org.jspecify.annotations.Nullable;
 
 /**
  * A fast, minimal, and somewhat garbage zip implementation. This exists because graal <a
@@ -64,6 +65,9 @@ import java.util.zip.ZipException;
  *   <li>UTF-8 is the only supported encoding.
  *   <li>STORED and DEFLATE are the only supported compression methods.
  *   <li>Zip files larger than Integer.MAX_VALUE bytes are not supported.
+ *   <li>Archives are mapped into memory once, and entries are read from slices of that mapping.
+ *       Entries are inflated directly from the mapping into an array of the size recorded in the
+ *       central directory, using an {@link Inflater} that is reused by each thread.
  *   <li>The only supported ZIP64 field is ENDTOT. This implementation assumes that the ZIP64 end
  *       header is present only if ENDTOT in EOCD header is 0xFFFF.
  * </ul>
@@ -92,28 +96,133 @@ public final class Zip {
   static final int CENCOM = 32; // comment length
   static final int CENOFF = 42; // LOC header offset
 
+  static final int LOCFLG = 6; // general purpose bit flag
+  static final int LOCHOW = 8; // compression method
+  static final int LOCSIZ = 18; // compressed size
+  static final int LOCLEN = 22; // uncompressed size
+  static final int LOCNAM = 26; // filename length
   static final int LOCEXT = 28; // extra field length
 
+  static final int FLAG_DATA_DESCRIPTOR = 0x8; // sizes follow the data in a data descriptor
+
   static final int ZIP64_ENDSIZ = 40; // central directory size in bytes
 
   static final int ZIP64_MAGICCOUNT = 0xFFFF;
 
   static final long ZIP64_MAGICVAL = 0xFFFFFFFFL;
 
+  /** Inflaters for DEFLATE entries, which are reset and reused by each thread. */
+  private static final ThreadLocal<Inflater> INFLATERS =
+      ThreadLocal.withInitial(() -> new Inflater(/* nowrap= */ true));
+
+  /**
+   * The backing storage of an archive.
+   *
+   * <p>Archives that are small enough are mapped into memory in one go, and their file is closed as
+   * soon as it has been mapped. Closing an archive releases its mapping, and it is transparently
+   * reopened the next time it is read. Open archives are tracked by an {@link ArchivePool}.
+   */
+  static final class Archive {
+
+    private final Path path;
+    private final ArchivePool pool;
+    private final long size;
+
+    /** The open file, for archives that are too large to map at once. Guarded by this. */
+    private @Nullable FileChannel chan;
+
+    /**
+     * The entire archive, if it is open and small enough to map at once. Regions of the archive are
+     * slices of this mapping, instead of separate mappings. Guarded by this.
+     */
+    private @Nullable MappedByteBuffer mapped;
+
+    /** Whether the archive is tracked by its pool, which it is once it's known to be valid. */
+    private volatile boolean tracked;
+
+    Archive(Path path, ArchivePool pool) throws IOException {
+      this.path = path;
+      this.pool = pool;
+      synchronized (this) {
+        this.size = open();
+      }
+    }
+
+    /** Starts tracking the archive in its pool. */
+    void track() {
+      tracked = true;
+      pool.used(this);
+    }
+
+    /** Opens the archive, and returns its size. */
+    private long open() throws IOException {
+      FileChannel file = FileChannel.open(path, StandardOpenOption.READ);
+      long fileSize = file.size();
+      if (fileSize > Integer.MAX_VALUE) {
+        this.chan = file;
+        return fileSize;
+      }
+      // the mapping remains valid after the file is closed
+      try (file) {
+        this.mapped = file.map(MapMode.READ_ONLY, 0, fileSize);
+      }
+      return fileSize;
+    }
+
+    /** Returns a little-endian view of {@code length} bytes of the archive at {@code offset}. */
+    ByteBuffer map(long offset, long length) throws IOException {
+      ByteBuffer result;
+      synchronized (this) {
+        if (mapped == null && chan == null) {
+          if (open() != size) {
+            close();
+            throw new ZipException(path + " changed since it was first opened");
+          }
+        }
+        result =
+            mapped != null
+                ? mapped.slice((int) offset, (int) length)
+                : requireNonNull(chan).map(MapMode.READ_ONLY, offset, length);
+      }
+      if (tracked) {
+        pool.used(this);
+      }
+      return result.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    long size() {
+      return size;
+    }
+
+    /**
+     * Closes the archive's file and releases its mapping. Views returned by {@link #map} remain
+     * valid until they're garbage collected.
+     */
+    synchronized void close() throws IOException {
+      mapped = null;
+      if (chan != null) {
+        chan.close();
+        chan = null;
+      }
+    }
+  }
+
   /** Iterates over a zip archive. */
   static class ZipIterator implements Iterator<Entry> {
 
     /** A reader for the backing storage. */
-    private final FileChannel chan;
+    private final Archive archive;
 
     private final Path path;
     private int cdindex = 0;
-    private final MappedByteBuffer cd;
+    private final ByteBuffer cd;
+    private final long cdoffset;
 
-    ZipIterator(Path path, FileChannel chan, MappedByteBuffer cd) {
+    ZipIterator(Path path, Archive archive, ByteBuffer cd, long cdoffset) {
       this.path = path;
-      this.chan = chan;
+      this.archive = archive;
       this.cd = cd;
+      this.cdoffset = cdoffset;
     }
 
     @Override
@@ -129,12 +238,18 @@ public final class Zip {
       int nameLength = cd.getChar(cdindex + CENNAM);
       int extLength = cd.getChar(cdindex + CENEXT);
       int commentLength = cd.getChar(cdindex + CENCOM);
-      Entry entry = new Entry(path, chan, string(cd, cdindex + CENHDR, nameLength), cd, cdindex);
+      Entry entry =
+          new Entry(
+              path,
+              archive,
+              string(cd, cdindex + CENHDR, nameLength),
+              cdoffset + cdindex,
+              /* local= */ false);
       cdindex += CENHDR + nameLength + extLength + commentLength;
       return entry;
     }
 
-    public String string(ByteBuffer buf, int offset, int length) {
+    public static String string(ByteBuffer buf, int offset, int length) {
       // TODO: cushon - switch to MemorySegment#getString on JDK 27(?)+
       // MemorySegment.ofBuffer(buf).getString(offset, UTF_8, length);
       byte[] bytes = new byte[length];
@@ -147,86 +262,101 @@ public final class Zip {
   public static class ZipIterable implements Iterable<Entry>, Closeable {
 
     private final Path path;
-    private final FileChannel chan;
-    private final MappedByteBuffer cd;
+    private final Archive archive;
+    private final ByteBuffer cd;
+    private final long cdoffset;
+    private final String comment;
 
     public ZipIterable(Path path) throws IOException {
+      this(path, ArchivePool.UNBOUNDED);
+    }
+
+    /**
+     * Creates an iterable over the archive at {@code path}, which is tracked by {@code pool} while
+     * it's open.
+     */
+    public ZipIterable(Path path, ArchivePool pool) throws IOException {
       this.path = path;
-      this.chan = FileChannel.open(path, StandardOpenOption.READ);
-      // Locate the EOCD
-      long size = chan.size();
-      if (size < ENDHDR) {
-        throw new ZipException("invalid zip archive");
-      }
-      long eocdOffset = size - ENDHDR;
-      MappedByteBuffer eocd = chan.map(MapMode.READ_ONLY, eocdOffset, ENDHDR);
-      eocd.order(ByteOrder.LITTLE_ENDIAN);
-      int index = 0;
-      int commentSize = 0;
-      if (!isSignature(eocd, 0, 5, 6)) {
-        // The archive may contain a zip file comment; keep looking for the EOCD.
-        long start = Math.max(0, size - ENDHDR - 0xFFFF);
-        eocd = chan.map(MapMode.READ_ONLY, start, (size - start));
-        eocd.order(ByteOrder.LITTLE_ENDIAN);
-        index = (int) ((size - start) - ENDHDR);
-        while (index > 0) {
-          index--;
-          eocd.position(index);
-          if (isSignature(eocd, index, 5, 6)) {
-            commentSize = (int) ((size - start) - ENDHDR) - index;
-            eocdOffset = start + index;
-            break;
+      Archive archive = new Archive(path, pool);
+      this.archive = archive;
+      // Validate the archive before the pool tracks it, so an invalid archive doesn't occupy one of
+      // the pool's slots.
+      try {
+        // Locate the EOCD
+        long size = archive.size();
+        if (size < ENDHDR) {
+          throw new ZipException("invalid zip archive");
+        }
+        long eocdOffset = size - ENDHDR;
+        ByteBuffer eocd = archive.map(eocdOffset, ENDHDR);
+        int index = 0;
+        int commentSize = 0;
+        if (!isSignature(eocd, 0, 5, 6)) {
+          // The archive may contain a zip file comment; keep looking for the EOCD.
+          long start = Math.max(0, size - ENDHDR - 0xFFFF);
+          eocd = archive.map(start, (size - start));
+          index = (int) ((size - start) - ENDHDR);
+          while (index > 0) {
+            index--;
+            eocd.position(index);
+            if (isSignature(eocd, index, 5, 6)) {
+              commentSize = (int) ((size - start) - ENDHDR) - index;
+              eocdOffset = start + index;
+              break;
+            }
           }
         }
-      }
-      checkSignature(path, eocd, index, 5, 6, "ENDSIG");
-      int totalEntries = eocd.getChar(index + ENDTOT);
-      long cdsize = UnsignedInts.toLong(eocd.getInt(index + ENDSIZ));
-      long cdoffset = UnsignedInts.toLong(eocd.getInt(index + ENDOFF));
-      int actualCommentSize = eocd.getChar(index + ENDCOM);
-      if (commentSize != actualCommentSize) {
-        throw new ZipException(
-            String.format(
-                "zip file comment length was %d, expected %d", commentSize, actualCommentSize));
-      }
-      // If zip64 sentinal values are present, check if the archive has a zip64 EOCD locator.
-      if (totalEntries == ZIP64_MAGICCOUNT
-          || cdsize == ZIP64_MAGICVAL
-          || cdoffset == ZIP64_MAGICVAL) {
-        // Check for a zip64 EOCD at a fixed offset, without a zip64 extensible data sector.
-        long zip64eocdOffset = size - ENDHDR - ZIP64_LOCHDR - ZIP64_ENDHDR;
-        // Note that zip reading is necessarily best-effort, since an archive could contain 0xFFFF
-        // entries and the last entry's data could contain a ZIP64_ENDSIG. Some implementations
-        // read the full EOCD records and compare them.
-        long zip64cdsize = zip64cdsize(chan, zip64eocdOffset);
-        if (zip64cdsize != -1) {
-          eocdOffset = zip64eocdOffset;
-          cdsize = zip64cdsize;
-        } else {
-          // If we couldn't find a zip64 EOCD at a fixed offset, either it doesn't exist
-          // or there was a zip64 extensible data sector, so try going through the
-          // locator. This approach doesn't work if data was prepended to the archive
-          // without updating the offset in the locator.
-          MappedByteBuffer zip64loc =
-              chan.map(MapMode.READ_ONLY, size - ENDHDR - ZIP64_LOCHDR, ZIP64_LOCHDR);
-          zip64loc.order(ByteOrder.LITTLE_ENDIAN);
-          if (zip64loc.getInt(0) == ZIP64_LOCSIG) {
-            zip64eocdOffset = zip64loc.getLong(8);
-            zip64cdsize = zip64cdsize(chan, zip64eocdOffset);
-            if (zip64cdsize != -1) {
-              eocdOffset = zip64eocdOffset;
-              cdsize = zip64cdsize;
+        checkSignature(path, eocd, index, 5, 6, "ENDSIG");
+        int totalEntries = eocd.getChar(index + ENDTOT);
+        long cdsize = UnsignedInts.toLong(eocd.getInt(index + ENDSIZ));
+        long endOffset = UnsignedInts.toLong(eocd.getInt(index + ENDOFF));
+        int actualCommentSize = eocd.getChar(index + ENDCOM);
+        if (commentSize != actualCommentSize) {
+          throw new ZipException(
+              String.format(
+                  "zip file comment length was %d, expected %d", commentSize, actualCommentSize));
+        }
+        this.comment = ZipIterator.string(eocd, index + ENDHDR, commentSize);
+        // If zip64 sentinal values are present, check if the archive has a zip64 EOCD locator.
+        if (totalEntries == ZIP64_MAGICCOUNT
+            || cdsize == ZIP64_MAGICVAL
+            || endOffset == ZIP64_MAGICVAL) {
+          // Check for a zip64 EOCD at a fixed offset, without a zip64 extensible data sector.
+          long zip64eocdOffset = size - ENDHDR - ZIP64_LOCHDR - ZIP64_ENDHDR;
+          // Note that zip reading is necessarily best-effort, since an archive could contain 0xFFFF
+          // entries and the last entry's data could contain a ZIP64_ENDSIG. Some implementations
+          // read the full EOCD records and compare them.
+          long zip64cdsize = zip64cdsize(archive, zip64eocdOffset);
+          if (zip64cdsize != -1) {
+            eocdOffset = zip64eocdOffset;
+            cdsize = zip64cdsize;
+          } else {
+            // If we couldn't find a zip64 EOCD at a fixed offset, either it doesn't exist
+            // or there was a zip64 extensible data sector, so try going through the
+            // locator. This approach doesn't work if data was prepended to the archive
+            // without updating the offset in the locator.
+            ByteBuffer zip64loc = archive.map(size - ENDHDR - ZIP64_LOCHDR, ZIP64_LOCHDR);
+            if (zip64loc.getInt(0) == ZIP64_LOCSIG) {
+              zip64eocdOffset = zip64loc.getLong(8);
+              zip64cdsize = zip64cdsize(archive, zip64eocdOffset);
+              if (zip64cdsize != -1) {
+                eocdOffset = zip64eocdOffset;
+                cdsize = zip64cdsize;
+              }
             }
           }
         }
+        this.cdoffset = eocdOffset - cdsize;
+        this.cd = archive.map(this.cdoffset, cdsize);
+      } catch (Throwable t) {
+        archive.close();
+        throw t;
       }
-      this.cd = chan.map(MapMode.READ_ONLY, eocdOffset - cdsize, cdsize);
-      cd.order(ByteOrder.LITTLE_ENDIAN);
+      archive.track();
     }
 
-    static long zip64cdsize(FileChannel chan, long eocdOffset) throws IOException {
-      MappedByteBuffer zip64eocd = chan.map(MapMode.READ_ONLY, eocdOffset, ZIP64_ENDHDR);
-      zip64eocd.order(ByteOrder.LITTLE_ENDIAN);
+    static long zip64cdsize(Archive archive, long eocdOffset) throws IOException {
+      ByteBuffer zip64eocd = archive.map(eocdOffset, ZIP64_ENDHDR);
       if (zip64eocd.getInt(0) == ZIP64_ENDSIG) {
         return zip64eocd.getLong(ZIP64_ENDSIZ);
       }
@@ -235,12 +365,49 @@ public final class Zip {
 
     @Override
     public Iterator<Entry> iterator() {
-      return new ZipIterator(path, chan, cd);
+      return new ZipIterator(path, archive, cd, cdoffset);
+    }
+
+    /** The archive's comment, or an empty string if it doesn't have one. */
+    public String comment() {
+      return comment;
+    }
+
+    /** The offset of the central directory, which follows the data of all of the entries. */
+    public long centralDirectoryOffset() {
+      return cdoffset;
+    }
+
+    /** Returns true if there's a local header for the entry {@code name} at {@code offset}. */
+    public boolean hasLocalEntry(String name, long offset) throws IOException {
+      if (offset < 0 || offset > archive.size() - LOCHDR) {
+        return false;
+      }
+      ByteBuffer loc = archive.map(offset, LOCHDR);
+      if (!isSignature(loc, 0, 3, 4)) {
+        return false;
+      }
+      int nameLength = loc.getChar(LOCNAM);
+      if (offset + LOCHDR + nameLength > archive.size()) {
+        return false;
+      }
+      return ZipIterator.string(archive.map(offset + LOCHDR, nameLength), 0, nameLength)
+          .equals(name);
+    }
+
+    /**
+     * Returns the entry named {@code name} whose local header is at {@code offset}, for callers
+     * that know where an entry is without reading the central directory. The header is read when
+     * the entry's data is requested, and the entry's sizes must be present in it.
+     */
+    public Entry localEntry(String name, long offset) {
+      return new Entry(path, archive, name, offset, /* local= */ true);
     }
 
     @Override
     public void close() throws IOException {
-      chan.close();
+      archive.pool.closed(archive);
+      archive.close();
     }
   }
 
@@ -248,17 +415,24 @@ public final class Zip {
   public static class Entry implements Supplier<byte[]> {
 
     private final Path path;
-    private final FileChannel chan;
+    private final Archive archive;
     private final String name;
-    private final ByteBuffer cd;
-    private final int cdindex;
 
-    public Entry(Path path, FileChannel chan, String name, ByteBuffer cd, int cdindex) {
+    /**
+     * The offset of the entry's central directory header in the archive, or of its local header if
+     * {@link #local} is set. The header is read again when the data is requested, so entries don't
+     * retain the archive's mapping.
+     */
+    private final long headerOffset;
+
+    private final boolean local;
+
+    Entry(Path path, Archive archive, String name, long headerOffset, boolean local) {
       this.path = path;
-      this.chan = chan;
+      this.archive = archive;
       this.name = name;
-      this.cd = cd;
-      this.cdindex = cdindex;
+      this.headerOffset = headerOffset;
+      this.local = local;
     }
 
     /** The entry name. */
@@ -268,32 +442,62 @@ public final class Zip {
 
     /** The entry data. */
     public byte[] data() {
+      if (local) {
+        return localData();
+      }
       // Read the offset and variable lengths from the central directory and then try to map in the
       // data section in one shot.
-      long offset = UnsignedInts.toLong(cd.getInt(cdindex + CENOFF));
+      ByteBuffer cen;
+      try {
+        cen = archive.map(headerOffset, CENHDR);
+      } catch (IOException e) {
+        throw new IOError(e);
+      }
+      long offset = UnsignedInts.toLong(cen.getInt(CENOFF));
       if (offset == ZIP64_MAGICVAL) {
         // TODO(cushon): read the offset from the 'Zip64 Extended Information Extra Field'
         throw new AssertionError(
             String.format("%s: %s requires missing zip64 support, please file a bug", path, name));
       }
-      int nameLength = cd.getChar(cdindex + CENNAM);
-      int extLength = cd.getChar(cdindex + CENEXT);
-      int compression = cd.getChar(cdindex + CENHOW);
+      int nameLength = cen.getChar(CENNAM);
+      int extLength = cen.getChar(CENEXT);
+      int compression = cen.getChar(CENHOW);
+      long compressedSize = UnsignedInts.toLong(cen.getInt(CENSIZ));
+      long size = UnsignedInts.toLong(cen.getInt(CENLEN));
+      return read(offset, nameLength, extLength, compression, compressedSize, size);
+    }
+
+    /** Reads the data of an entry that was located by its local header. */
+    private byte[] localData() {
+      ByteBuffer loc;
+      try {
+        loc = archive.map(headerOffset, LOCHDR);
+      } catch (IOException e) {
+        throw new IOError(e);
+      }
+      checkSignature(path, loc, /* index= */ 0, 3, 4, "LOCSIG");
+      if ((loc.getChar(LOCFLG) & FLAG_DATA_DESCRIPTOR) != 0) {
+        throw new AssertionError(
+            String.format("%s: the local header of %s doesn't contain its sizes", path, name));
+      }
+      int nameLength = loc.getChar(LOCNAM);
+      int extLength = loc.getChar(LOCEXT);
+      int compression = loc.getChar(LOCHOW);
+      long compressedSize = UnsignedInts.toLong(loc.getInt(LOCSIZ));
+      long size = UnsignedInts.toLong(loc.getInt(LOCLEN));
+      return read(headerOffset, nameLength, extLength, compression, compressedSize, size);
+    }
+
+    private byte[] read(
+        long offset,
+        int nameLength,
+        int extLength,
+        int compression,
+        long compressedSize,
+        long size) {
       return switch (compression) {
-        case 0x8 ->
-            getBytes(
-                offset,
-                nameLength,
-                extLength,
-                UnsignedInts.toLong(cd.getInt(cdindex + CENSIZ)),
-                /* deflate= */ true);
-        case 0x0 ->
-            getBytes(
-                offset,
-                nameLength,
-                extLength,
-                UnsignedInts.toLong(cd.getInt(cdindex + CENLEN)),
-                /* deflate= */ false);
+        case 0x8 -> inflate(getBytes(offset, nameLength, extLength, compressedSize), size);
+        case 0x0 -> copy(getBytes(offset, nameLength, extLength, size));
         default ->
             throw new AssertionError(
                 String.format("unsupported compression mode: 0x%x", compression));
@@ -306,42 +510,67 @@ public final class Zip {
      */
     static final int EXTRA_FIELD_SLACK = 128;
 
-    private byte[] getBytes(
-        long offset, int nameLength, int cenExtLength, long size, boolean deflate) {
-      if (size > Integer.MAX_VALUE) {
-        throw new IllegalArgumentException("unsupported zip entry size: " + size);
-      }
+    /** Returns a view of the {@code size} bytes of the entry's data, as stored in the archive. */
+    private ByteBuffer getBytes(long offset, int nameLength, int cenExtLength, long size) {
+      checkSize(size);
       try {
-        MappedByteBuffer fc =
-            chan.map(
-                MapMode.READ_ONLY,
+        ByteBuffer fc =
+            archive.map(
                 offset,
                 Math.min(
                     LOCHDR + nameLength + cenExtLength + size + EXTRA_FIELD_SLACK,
-                    chan.size() - offset));
-        fc.order(ByteOrder.LITTLE_ENDIAN);
+                    archive.size() - offset));
         checkSignature(path, fc, /* index= */ 0, 3, 4, "LOCSIG");
         int locExtLength = fc.getChar(LOCEXT);
         if (locExtLength > cenExtLength + EXTRA_FIELD_SLACK) {
           // If the local header's extra fields don't match the central directory and we didn't
           // leave enough slac, re-map the data section with the correct extra field length.
-          fc = chan.map(MapMode.READ_ONLY, offset + LOCHDR + nameLength + locExtLength, size);
-          fc.order(ByteOrder.LITTLE_ENDIAN);
-        } else {
-          // Otherwise seek past the local header, name, and extra fields to the data.
-          fc.position(LOCHDR + nameLength + locExtLength);
-          fc.limit((int) (LOCHDR + nameLength + locExtLength + size));
+          return archive.map(offset + LOCHDR + nameLength + locExtLength, size);
         }
-        byte[] bytes = new byte[(int) size];
-        fc.get(bytes);
-        if (deflate) {
-          Inflater inf = new Inflater(/* nowrap= */ true);
-          bytes = new InflaterInputStream(new ByteArrayInputStream(bytes), inf).readAllBytes();
-          inf.end();
+        // Otherwise seek past the local header, name, and extra fields to the data.
+        return fc.slice(LOCHDR + nameLength + locExtLength, (int) size);
+      } catch (IOException e) {
+        throw new IOError(e);
+      }
+    }
+
+    private static byte[] copy(ByteBuffer data) {
+      byte[] bytes = new byte[data.remaining()];
+      data.get(bytes);
+      return bytes;
+    }
+
+    /**
+     * Inflates DEFLATE-compressed data directly into an array of the uncompressed size recorded in
+     * the central directory.
+     */
+    private byte[] inflate(ByteBuffer data, long size) {
+      checkSize(size);
+      byte[] bytes = new byte[(int) size];
+      Inflater inf = INFLATERS.get();
+      try {
+        inf.setInput(data);
+        int n = 0;
+        while (n < bytes.length) {
+          int read = inf.inflate(bytes, n, bytes.length - n);
+          if (read == 0 && (inf.finished() || inf.needsInput() || inf.needsDictionary())) {
+            throw new ZipException(
+                String.format(
+                    "%s: %s: expected %d uncompressed bytes, was %d", path, name, bytes.length, n));
+          }
+          n += read;
         }
         return bytes;
-      } catch (IOException e) {
+      } catch (DataFormatException | ZipException e) {
         throw new IOError(e);
+      } finally {
+        inf.reset();
+      }
+    }
+
+    private static void checkSize(long size) {
+      if (size > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("unsupported zip entry size: " + size);
       }
     }
 
@@ -351,8 +580,7 @@ public final class Zip {
     }
   }
 
-  static void checkSignature(
-      Path path, MappedByteBuffer buf, int index, int i, int j, String name) {
+  static void checkSignature(Path path, ByteBuffer buf, int index, int i, int j, String name) {
     if (!isSignature(buf, index, i, j)) {
       throw new AssertionError(
           String.format(
@@ -361,7 +589,7 @@ public final class Zip {
     }
   }
 
-  static boolean isSignature(MappedByteBuffer buf, int index, int i, int j) {
+  static boolean isSignature(ByteBuffer buf, int index, int i, int j) {
     return (buf.get(index) == 'P')
         && (buf.get(index + 1) == 'K')
         && (buf.get(index + 2) == i)
@@ -17,6 +17,7 @@
 package com.google.turbine.binder;
 
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.truth.Truth.assertThat;
 import static com.google.turbine.testing.TestClassPaths.TURBINE_BOOTCLASSPATH;
 import static java.util.Objects.requireNonNull;
@@ -26,11 +27,13 @@ import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.turbine.binder.bound.SourceTypeBoundClass;
+import com.google.turbine.binder.bound.TypeBoundClass.FieldInfo;
 import com.google.turbine.binder.sym.ClassSymbol;
 import com.google.turbine.diag.TurbineDiagnostic;
 import com.google.turbine.diag.TurbineError;
 import com.google.turbine.diag.TurbineLog;
 import com.google.turbine.lower.IntegrationTestSupport;
+import com.google.turbine.model.Const;
 import com.google.turbine.model.TurbineElementType;
 import com.google.turbine.model.TurbineFlag;
 import com.google.turbine.model.TurbineTyKind;
@@ -203,6 +206,137 @@ public class BinderTest {
     assertThat(e).hasMessageThat().contains("cycle in class hierarchy: a.A -> b.B -> a.A");
   }
 
+  @Test
+  public void cycle_parallel() throws Exception {
+    ImmutableList.Builder<Tree.CompUnit> units = ImmutableList.builder();
+    units.add(
+        parseLines(
+            "package a;", //
+            "import b.B;",
+            "public class A extends B.Inner {",
+            "  class Inner {}",
+            "}"),
+        parseLines(
+            "package b;", //
+            "import a.A;",
+            "public class B extends A.Inner {",
+            "  class Inner {}",
+            "}"));
+    // enough unrelated classes for hierarchy binding to be split across threads
+    for (int i = 0; i < 50; i++) {
+      units.add(parseLines("package c;", "class C" + i + " extends a.A {}"));
+    }
+
+    try (TurbineExecutor executor = TurbineExecutor.create(/* parallel= */ true, 0)) {
+      TurbineError e =
+          assertThrows(
+              TurbineError.class,
+              () ->
+                  Binder.bind(
+                      executor,
+                      units.build(),
+                      ClassPathBinder.bindClasspath(ImmutableList.of()),
+                      TURBINE_BOOTCLASSPATH,
+                      /* moduleVersion= */ Optional.empty()));
+      // the same diagnostic is reported as when binding serially
+      assertThat(e).hasMessageThat().contains("cycle in class hierarchy: a.A -> b.B -> a.A");
+    }
+  }
+
+  @Test
+  public void hierarchy_parallel() throws Exception {
+    ImmutableList.Builder<Tree.CompUnit> units = ImmutableList.builder();
+    for (int i = 0; i < 50; i++) {
+      String superclass = i == 0 ? "Object" : "C" + (i - 1);
+      units.add(parseLines("package c;", "class C" + i + " extends " + superclass + " {}"));
+    }
+
+    ImmutableMap<ClassSymbol, SourceTypeBoundClass> bound;
+    try (TurbineExecutor executor = TurbineExecutor.create(/* parallel= */ true, 0)) {
+      bound =
+          Binder.bind(
+                  executor,
+                  units.build(),
+                  ClassPathBinder.bindClasspath(ImmutableList.of()),
+                  TURBINE_BOOTCLASSPATH,
+                  /* moduleVersion= */ Optional.empty())
+              .units();
+    }
+
+    for (int i = 1; i < 50; i++) {
+      assertThat(getBoundClass(bound, "c/C" + i).superclass())
+          .isEqualTo(new ClassSymbol("c/C" + (i - 1)));
+    }
+  }
+
+  @Test
+  public void constants_parallel() throws Exception {
+    ImmutableList.Builder<Tree.CompUnit> units = ImmutableList.builder();
+    units.add(parseLines("package c;", "class C0 { static final int X = 1; }"));
+    for (int i = 1; i < 50; i++) {
+      units.add(
+          parseLines(
+              "package c;", "class C" + i + " { static final int X = C" + (i - 1) + ".X + 1; }"));
+    }
+    units.add(
+        parseLines(
+            "package d;", //
+            "class D {",
+            "  static final int A = B;",
+            "  static final int B = A;",
+            "}"));
+
+    ImmutableMap<ClassSymbol, SourceTypeBoundClass> bound;
+    try (TurbineExecutor executor = TurbineExecutor.create(/* parallel= */ true, 0)) {
+      bound =
+          Binder.bind(
+                  executor,
+                  units.build(),
+                  ClassPathBinder.bindClasspath(ImmutableList.of()),
+                  TURBINE_BOOTCLASSPATH,
+                  /* moduleVersion= */ Optional.empty())
+              .units();
+    }
+
+    for (int i = 0; i < 50; i++) {
+      Const.Value value = getOnlyElement(getBoundClass(bound, "c/C" + i).fields()).value();
+      assertThat(value).isEqualTo(new Const.IntValue(i + 1));
+    }
+    // fields that refer to each other aren't constants
+    for (FieldInfo field : getBoundClass(bound, "d/D").fields()) {
+      assertThat(field.value()).isNull();
+    }
+  }
+
+  @Test
+  public void sharedImports_errorsReportedForEachUnit() throws Exception {
+    ImmutableList<Tree.CompUnit> units =
+        ImmutableList.of(
+            parseLines(
+                "package p;", //
+                "import q.Missing;",
+                "class A extends Missing {}"),
+            parseLines(
+                "package p;", //
+                "",
+                "import q.Missing;",
+                "class B extends Missing {}"));
+
+    TurbineError e =
+        assertThrows(
+            TurbineError.class,
+            () ->
+                Binder.bind(
+                    TurbineExecutor.direct(),
+                    units,
+                    ClassPathBinder.bindClasspath(ImmutableList.of()),
+                    TURBINE_BOOTCLASSPATH,
+                    /* moduleVersion= */ Optional.empty()));
+    // the units have the same imports, but each error is reported at the unit's own import
+    assertThat(e).hasMessageThat().contains("<>:2: error: symbol not found q.Missing");
+    assertThat(e).hasMessageThat().contains("<>:3: error: symbol not found q.Missing");
+  }
+
   @Test
   public void annotationDeclaration() throws Exception {
     ImmutableList<Tree.CompUnit> units =
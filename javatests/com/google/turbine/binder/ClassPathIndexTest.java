@@ -0,0 +1,167 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.turbine.binder;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hashing;
+import com.google.common.io.CountingOutputStream;
+import com.google.turbine.zip.ArchivePool;
+import com.google.turbine.zip.Zip;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+import org.jspecify.annotations.Nullable;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+@RunWith(JUnit4.class)
+public class ClassPathIndexTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private static final ImmutableMap<String, byte[]> ENTRIES =
+      ImmutableMap.of(
+          "a/A.class", classFile("a/A"),
+          "a/b/B.class", classFile("a/b/B"),
+          "C.class", classFile("C"),
+          "a/resource.txt", "hello".getBytes(UTF_8));
+
+  private static byte[] classFile(String name) {
+    ClassWriter cw = new ClassWriter(0);
+    cw.visit(52, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", new String[] {});
+    return cw.toByteArray();
+  }
+
+  private static void addEntry(JarOutputStream jos, String name, byte[] bytes) throws IOException {
+    JarEntry je = new JarEntry(name);
+    je.setMethod(ZipEntry.STORED);
+    je.setSize(bytes.length);
+    je.setCrc(Hashing.crc32().hashBytes(bytes).padToLong());
+    jos.putNextEntry(je);
+    jos.write(bytes);
+  }
+
+  /**
+   * Writes a jar with an index, the way turbine does. If {@code comment} is non-null, it's used
+   * instead of the comment that locates the index.
+   */
+  private Path writeIndexedJar(@Nullable String comment) throws IOException {
+    Path path = temporaryFolder.newFile().toPath();
+    ClassPathIndex.Writer index = ClassPathIndex.writer();
+    try (OutputStream os = Files.newOutputStream(path);
+        CountingOutputStream counting = new CountingOutputStream(os);
+        JarOutputStream jos = new JarOutputStream(counting)) {
+      for (Map.Entry<String, byte[]> entry : ENTRIES.entrySet()) {
+        index.add(entry.getKey(), counting.getCount());
+        addEntry(jos, entry.getKey(), entry.getValue());
+      }
+      long indexOffset = counting.getCount();
+      addEntry(jos, ClassPathIndex.NAME, index.toByteArray());
+      jos.closeEntry();
+      jos.setComment(
+          comment != null ? comment : ClassPathIndex.comment(indexOffset, counting.getCount()));
+    }
+    return path;
+  }
+
+  private static @Nullable ImmutableList<Zip.Entry> read(Path path) throws IOException {
+    try (Zip.ZipIterable zip = new Zip.ZipIterable(path)) {
+      ImmutableList<Zip.Entry> entries = ClassPathIndex.read(zip);
+      if (entries != null) {
+        for (Zip.Entry entry : entries) {
+          // read each entry while the archive is open
+          assertThat(entry.data()).isEqualTo(ENTRIES.get(entry.name()));
+        }
+      }
+      return entries;
+    }
+  }
+
+  @Test
+  public void roundTrip() throws Exception {
+    ImmutableList<Zip.Entry> entries = read(writeIndexedJar(/* comment= */ null));
+
+    assertThat(entries).isNotNull();
+    assertThat(entries.stream().map(Zip.Entry::name))
+        .containsExactly("C.class", "a/A.class", "a/resource.txt", "a/b/B.class")
+        .inOrder();
+  }
+
+  @Test
+  public void readJar() throws Exception {
+    ClassPathBinder.Jar jar =
+        ClassPathBinder.readJar(writeIndexedJar(/* comment= */ null), ArchivePool.UNBOUNDED);
+
+    ClassTable classes = jar.classes();
+    assertThat(classes.size()).isEqualTo(3);
+    assertThat(classes.find("C")).isNotEqualTo(-1);
+    assertThat(classes.find("a/A")).isNotEqualTo(-1);
+    assertThat(classes.entry(classes.find("a/b/B")).classFile().get().name()).isEqualTo("a/b/B");
+    assertThat(jar.resources().keySet()).containsExactly("a/resource.txt");
+    assertThat(jar.resources().get("a/resource.txt").get()).isEqualTo("hello".getBytes(UTF_8));
+  }
+
+  @Test
+  public void unindexed() throws Exception {
+    Path path = temporaryFolder.newFile().toPath();
+    try (JarOutputStream jos = new JarOutputStream(Files.newOutputStream(path))) {
+      for (Map.Entry<String, byte[]> entry : ENTRIES.entrySet()) {
+        addEntry(jos, entry.getKey(), entry.getValue());
+      }
+    }
+
+    assertThat(read(path)).isNull();
+  }
+
+  @Test
+  public void movedCentralDirectory() throws Exception {
+    // e.g. if another tool appended entries to the jar after it was indexed
+    assertThat(read(writeIndexedJar(ClassPathIndex.comment(0, 0)))).isNull();
+  }
+
+  @Test
+  public void wrongIndexOffset() throws Exception {
+    Path path = writeIndexedJar(/* comment= */ null);
+    String comment;
+    try (Zip.ZipIterable zip = new Zip.ZipIterable(path)) {
+      comment = ClassPathIndex.comment(0, zip.centralDirectoryOffset());
+    }
+
+    assertThat(read(writeIndexedJar(comment))).isNull();
+  }
+
+  @Test
+  public void malformedComment() throws Exception {
+    assertThat(read(writeIndexedJar("turbine-classpath-index:"))).isNull();
+    assertThat(read(writeIndexedJar("turbine-classpath-index:1:2:3"))).isNull();
+    assertThat(read(writeIndexedJar("turbine-classpath-index:x:y"))).isNull();
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.turbine.binder;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.turbine.binder.lookup.LookupKey;
+import com.google.turbine.binder.lookup.LookupResult;
+import com.google.turbine.binder.lookup.PackageScope;
+import com.google.turbine.binder.sym.ClassSymbol;
+import com.google.turbine.tree.Tree.Ident;
+import com.google.turbine.zip.ArchivePool;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+@RunWith(JUnit4.class)
+public class ClassTableTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  /** Writes a jar containing the given entries, each of which is a class file for the class. */
+  private Path writeJar(String... entries) throws IOException {
+    Path path = temporaryFolder.newFile().toPath();
+    try (JarOutputStream jos = new JarOutputStream(Files.newOutputStream(path))) {
+      for (String entry : entries) {
+        String className =
+            entry.startsWith(ClassPathBinder.TRANSITIVE_PREFIX)
+                ? entry.substring(
+                    ClassPathBinder.TRANSITIVE_PREFIX.length(),
+                    entry.length() - ClassPathBinder.TRANSITIVE_SUFFIX.length())
+                : entry.substring(0, entry.length() - ".class".length());
+        jos.putNextEntry(new JarEntry(entry));
+        ClassWriter cw = new ClassWriter(0);
+        cw.visit(52, Opcodes.ACC_PUBLIC, className, null, "java/lang/Object", new String[] {});
+        jos.write(cw.toByteArray());
+      }
+    }
+    return path;
+  }
+
+  private static LookupKey lookupKey(String... names) {
+    ImmutableList.Builder<Ident> idents = ImmutableList.builder();
+    for (String name : names) {
+      idents.add(new Ident(/* position= */ -1, name));
+    }
+    return new LookupKey(idents.build());
+  }
+
+  @Test
+  public void find() throws Exception {
+    ClassTable table =
+        ClassPathBinder.readJar(
+                writeJar("a/b/B.class", "C.class", "a/A.class", "a/A$Inner.class"),
+                ArchivePool.UNBOUNDED)
+            .classes();
+
+    assertThat(table.size()).isEqualTo(4);
+    assertThat(table.packages()).containsExactly("", "a", "a/b");
+    assertThat(table.binaryName(table.find("a/A"))).isEqualTo("a/A");
+    assertThat(table.binaryName(table.find("a/A$Inner"))).isEqualTo("a/A$Inner");
+    assertThat(table.binaryName(table.find("C"))).isEqualTo("C");
+    assertThat(table.find("a/b", "B")).isEqualTo(table.find("a/b/B"));
+    assertThat(table.find("", "C")).isEqualTo(table.find("C"));
+
+    assertThat(table.find("a/C")).isEqualTo(-1);
+    assertThat(table.find("b/B")).isEqualTo(-1);
+    assertThat(table.find("a", "b")).isEqualTo(-1);
+    assertThat(table.find("", "A")).isEqualTo(-1);
+  }
+
+  @Test
+  public void groupedByPackage() throws Exception {
+    ClassTable table =
+        ClassPathBinder.readJar(
+                writeJar("a/A.class", "b/B.class", "a/Z.class", "b/C.class"),
+                ArchivePool.UNBOUNDED)
+            .classes();
+
+    int pkg = table.packages().indexOf("a");
+    ImmutableList.Builder<String> names = ImmutableList.builder();
+    for (int i = table.packageStart(pkg); i < table.packageEnd(pkg); i++) {
+      names.add(table.binaryName(i));
+    }
+    assertThat(names.build()).containsExactly("a/A", "a/Z").inOrder();
+  }
+
+  @Test
+  public void classFilesAreShared() throws Exception {
+    ClassTable table =
+        ClassPathBinder.readJar(writeJar("a/A.class"), ArchivePool.UNBOUNDED).classes();
+
+    int i = table.find("a/A");
+    assertThat(table.entry(i).classFile()).isSameInstanceAs(table.entry(i).classFile());
+    assertThat(table.entry(i).classFile().get().name()).isEqualTo("a/A");
+  }
+
+  @Test
+  public void firstJarWins() throws Exception {
+    Path first = writeJar("a/A.class");
+    Path second = writeJar("a/A.class", "a/B.class");
+
+    ClassPath classPath = ClassPathBinder.bindClasspath(ImmutableList.of(first, second));
+
+    assertThat(classPath.env().get(new ClassSymbol("a/A")).jarFile()).isEqualTo(first.toString());
+    assertThat(classPath.env().get(new ClassSymbol("a/B")).jarFile()).isEqualTo(second.toString());
+    PackageScope scope = classPath.index().lookupPackage(ImmutableList.of("a"));
+    assertThat(scope.classes()).containsExactly(new ClassSymbol("a/A"), new ClassSymbol("a/B"));
+  }
+
+  @Test
+  public void classesShadowTransitiveDependencies() throws Exception {
+    Path transitive =
+        writeJar(
+            ClassPathBinder.TRANSITIVE_PREFIX + "a/A" + ClassPathBinder.TRANSITIVE_SUFFIX,
+            ClassPathBinder.TRANSITIVE_PREFIX + "a/T" + ClassPathBinder.TRANSITIVE_SUFFIX);
+    Path direct = writeJar("a/A.class");
+
+    ClassPath classPath = ClassPathBinder.bindClasspath(ImmutableList.of(transitive, direct));
+
+    assertThat(classPath.env().get(new ClassSymbol("a/A")).jarFile()).isEqualTo(direct.toString());
+    assertThat(classPath.env().get(new ClassSymbol("a/T")).jarFile())
+        .isEqualTo(transitive.toString());
+  }
+
+  @Test
+  public void topLevelLookup() throws Exception {
+    ClassPath classPath =
+        ClassPathBinder.bindClasspath(ImmutableList.of(writeJar("a/b/B.class", "C.class")));
+
+    LookupResult result = classPath.index().scope().lookup(lookupKey("a", "b", "B", "Inner"));
+    assertThat(result.sym()).isEqualTo(new ClassSymbol("a/b/B"));
+    assertThat(result.remaining()).hasSize(1);
+    assertThat(classPath.index().scope().lookup(lookupKey("C")).sym())
+        .isEqualTo(new ClassSymbol("C"));
+
+    assertThat(classPath.index().scope().lookup(lookupKey("a", "b"))).isNull();
+    assertThat(classPath.index().scope().lookup(lookupKey("a", "c", "B"))).isNull();
+    assertThat(classPath.index().lookupPackage(ImmutableList.of("a")).classes()).isEmpty();
+    assertThat(classPath.index().lookupPackage(ImmutableList.of("a", "b", "B"))).isNull();
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.turbine.binder;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashCode;
+import com.google.turbine.binder.sym.ClassSymbol;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+@RunWith(JUnit4.class)
+public class JarCacheTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private static void writeJar(Path path, String... classNames) throws IOException {
+    try (JarOutputStream jos = new JarOutputStream(Files.newOutputStream(path))) {
+      for (String className : classNames) {
+        jos.putNextEntry(new JarEntry(className + ".class"));
+        ClassWriter cw = new ClassWriter(0);
+        cw.visit(52, Opcodes.ACC_PUBLIC, className, null, "java/lang/Object", new String[] {});
+        jos.write(cw.toByteArray());
+      }
+    }
+  }
+
+  @Test
+  public void reusesUnchangedJar() throws Exception {
+    Path path = temporaryFolder.newFile("lib.jar").toPath();
+    writeJar(path, "a/A");
+    JarCache cache = JarCache.create(10);
+
+    ClassPath first = ClassPathBinder.bindClasspath(ImmutableList.of(path), cache);
+    ClassPath second = ClassPathBinder.bindClasspath(ImmutableList.of(path), cache);
+
+    assertThat(cache.size()).isEqualTo(1);
+    assertThat(first.env().get(new ClassSymbol("a/A"))).isNotNull();
+    assertThat(second.env().get(new ClassSymbol("a/A"))).isNotNull();
+    // bound classes are specific to each classpath
+    assertThat(second.env().get(new ClassSymbol("a/A")))
+        .isNotSameInstanceAs(first.env().get(new ClassSymbol("a/A")));
+  }
+
+  @Test
+  public void rereadsModifiedJar() throws Exception {
+    Path path = temporaryFolder.newFile("lib.jar").toPath();
+    writeJar(path, "a/A");
+    JarCache cache = JarCache.create(10);
+
+    ClassPath first = ClassPathBinder.bindClasspath(ImmutableList.of(path), cache);
+    assertThat(first.env().get(new ClassSymbol("a/A"))).isNotNull();
+
+    writeJar(path, "b/B");
+    Files.setLastModifiedTime(path, FileTime.fromMillis(0));
+    ClassPath second = ClassPathBinder.bindClasspath(ImmutableList.of(path), cache);
+
+    assertThat(second.env().get(new ClassSymbol("a/A"))).isNull();
+    assertThat(second.env().get(new ClassSymbol("b/B"))).isNotNull();
+  }
+
+  @Test
+  public void digest() throws Exception {
+    Path path = temporaryFolder.newFile("lib.jar").toPath();
+    writeJar(path, "a/A");
+    JarCache cache = JarCache.create(10);
+    ImmutableMap<Path, HashCode> digests = ImmutableMap.of(path, HashCode.fromInt(42));
+
+    ClassPathBinder.bindClasspath(ImmutableList.of(path), cache.withDigests(digests));
+    // the jar is identified by its digest, so it isn't read again
+    Files.delete(path);
+    ClassPath classPath =
+        ClassPathBinder.bindClasspath(ImmutableList.of(path), cache.withDigests(digests));
+
+    assertThat(classPath.index().lookupPackage(ImmutableList.of("a"))).isNotNull();
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsed() throws Exception {
+    Path a = temporaryFolder.newFile("a.jar").toPath();
+    Path b = temporaryFolder.newFile("b.jar").toPath();
+    writeJar(a, "a/A");
+    writeJar(b, "b/B");
+    JarCache cache = JarCache.create(1);
+
+    ClassPathBinder.bindClasspath(ImmutableList.of(a, b), cache);
+
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void releaseArchives() throws Exception {
+    Path path = temporaryFolder.newFile("lib.jar").toPath();
+    writeJar(path, "a/A");
+    JarCache cache = JarCache.create(10, 1);
+
+    ClassPath classPath = ClassPathBinder.bindClasspath(ImmutableList.of(path), cache);
+    cache.releaseArchives();
+
+    // the jar's archive is reopened when its classes are read
+    assertThat(classPath.env().getNonNull(new ClassSymbol("a/A")).superclass())
+        .isEqualTo(ClassSymbol.OBJECT);
+  }
+
+  @Test
+  public void none() throws Exception {
+    Path path = temporaryFolder.newFile("lib.jar").toPath();
+    writeJar(path, "a/A");
+
+    JarCache cache = JarCache.none();
+    ClassPath classPath = ClassPathBinder.bindClasspath(ImmutableList.of(path), cache);
+
+    assertThat(classPath.env().get(new ClassSymbol("a/A"))).isNotNull();
+    assertThat(cache.size()).isEqualTo(0);
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.turbine.binder;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+@RunWith(JUnit4.class)
+public class ProcessorLoaderCacheTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private static void writeJar(Path path, String... classNames) throws IOException {
+    try (JarOutputStream jos = new JarOutputStream(Files.newOutputStream(path))) {
+      for (String className : classNames) {
+        jos.putNextEntry(new JarEntry(className + ".class"));
+        ClassWriter cw = new ClassWriter(0);
+        cw.visit(52, Opcodes.ACC_PUBLIC, className, null, "java/lang/Object", new String[] {});
+        jos.write(cw.toByteArray());
+      }
+    }
+  }
+
+  private static ProcessorLoaderCache.Lease acquire(ProcessorLoaderCache cache, Path... paths)
+      throws IOException {
+    ImmutableList.Builder<String> processorPath = ImmutableList.builder();
+    for (Path path : paths) {
+      processorPath.add(path.toString());
+    }
+    return cache.acquire(processorPath.build(), ImmutableSet.of());
+  }
+
+  @Test
+  public void reusesUnchangedPath() throws Exception {
+    Path path = temporaryFolder.newFile("processor.jar").toPath();
+    writeJar(path, "a/A");
+    ProcessorLoaderCache cache = ProcessorLoaderCache.create(10);
+
+    Class<?> first;
+    try (ProcessorLoaderCache.Lease lease = acquire(cache, path)) {
+      first = lease.loader().loadClass("a.A");
+    }
+    Class<?> second;
+    try (ProcessorLoaderCache.Lease lease = acquire(cache, path)) {
+      second = lease.loader().loadClass("a.A");
+    }
+
+    assertThat(cache.size()).isEqualTo(1);
+    assertThat(second).isSameInstanceAs(first);
+  }
+
+  @Test
+  public void reloadsModifiedPath() throws Exception {
+    Path path = temporaryFolder.newFile("processor.jar").toPath();
+    writeJar(path, "a/A");
+    ProcessorLoaderCache cache = ProcessorLoaderCache.create(10);
+
+    try (ProcessorLoaderCache.Lease lease = acquire(cache, path)) {
+      assertThat(lease.loader().loadClass("a.A")).isNotNull();
+    }
+
+    writeJar(path, "b/B");
+    Files.setLastModifiedTime(path, FileTime.fromMillis(0));
+    try (ProcessorLoaderCache.Lease lease = acquire(cache, path)) {
+      assertThrows(ClassNotFoundException.class, () -> lease.loader().loadClass("a.A"));
+      assertThat(lease.loader().loadClass("b.B")).isNotNull();
+    }
+    assertThat(cache.size()).isEqualTo(2);
+  }
+
+  @Test
+  public void digest() throws Exception {
+    Path path = temporaryFolder.newFile("processor.jar").toPath();
+    writeJar(path, "a/A");
+    ProcessorLoaderCache cache = ProcessorLoaderCache.create(10);
+    ImmutableMap<Path, HashCode> digests = ImmutableMap.of(path, HashCode.fromInt(42));
+
+    ClassLoader first;
+    try (ProcessorLoaderCache.Lease lease = acquire(cache.withDigests(digests), path)) {
+      first = lease.loader();
+    }
+    // the jar is identified by its digest, so its modification time doesn't matter
+    Files.setLastModifiedTime(path, FileTime.fromMillis(0));
+    try (ProcessorLoaderCache.Lease lease = acquire(cache.withDigests(digests), path)) {
+      assertThat(lease.loader()).isSameInstanceAs(first);
+    }
+  }
+
+  @Test
+  public void evictedLoaderIsClosedAfterRelease() throws Exception {
+    Path a = temporaryFolder.newFile("a.jar").toPath();
+    Path b = temporaryFolder.newFile("b.jar").toPath();
+    writeJar(a, "a/A", "a/Later");
+    writeJar(b, "b/B");
+    ProcessorLoaderCache cache = ProcessorLoaderCache.create(1);
+
+    ProcessorLoaderCache.Lease first = acquire(cache, a);
+    try (ProcessorLoaderCache.Lease second = acquire(cache, b)) {
+      assertThat(second.loader().loadClass("b.B")).isNotNull();
+    }
+    assertThat(cache.size()).isEqualTo(1);
+
+    // the evicted loader is still usable while it's leased
+    ClassLoader loader = first.loader();
+    assertThat(loader.loadClass("a.A")).isNotNull();
+    first.close();
+    assertThrows(ClassNotFoundException.class, () -> loader.loadClass("a.Later"));
+  }
+
+  @Test
+  public void none() throws Exception {
+    Path path = temporaryFolder.newFile("processor.jar").toPath();
+    writeJar(path, "a/A");
+
+    ClassLoader first;
+    try (ProcessorLoaderCache.Lease lease = acquire(ProcessorLoaderCache.NONE, path)) {
+      first = lease.loader();
+      assertThat(first.loadClass("a.A")).isNotNull();
+    }
+    try (ProcessorLoaderCache.Lease lease = acquire(ProcessorLoaderCache.NONE, path)) {
+      assertThat(lease.loader()).isNotSameInstanceAs(first);
+    }
+    assertThat(ProcessorLoaderCache.NONE.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void emptyPath() throws Exception {
+    ProcessorLoaderCache cache = ProcessorLoaderCache.create(10);
+
+    try (ProcessorLoaderCache.Lease lease = acquire(cache)) {
+      assertThat(lease.loader()).isSameInstanceAs(Processing.class.getClassLoader());
+    }
+    assertThat(cache.size()).isEqualTo(0);
+  }
+}
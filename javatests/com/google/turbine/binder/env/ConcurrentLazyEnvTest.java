@@ -0,0 +1,147 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.turbine.binder.env;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.turbine.binder.env.ConcurrentLazyEnv.CycleException;
+import com.google.turbine.binder.env.LazyEnv.Completer;
+import com.google.turbine.binder.env.LazyEnv.LazyBindingError;
+import com.google.turbine.binder.sym.ClassSymbol;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ConcurrentLazyEnvTest {
+
+  private static final Env<ClassSymbol, String> EMPTY =
+      SimpleEnv.<ClassSymbol, String>builder().build();
+
+  private static ClassSymbol sym(int i) {
+    return new ClassSymbol("C" + i);
+  }
+
+  @Test
+  public void completesEachSymbolOnce() throws Exception {
+    int n = 100;
+    AtomicInteger completions = new AtomicInteger();
+    ImmutableMap.Builder<ClassSymbol, Completer<ClassSymbol, String, String>> completers =
+        ImmutableMap.builder();
+    for (int i = 0; i < n; i++) {
+      int prev = i - 1;
+      completers.put(
+          sym(i),
+          (env, k) -> {
+            completions.incrementAndGet();
+            return prev < 0 ? k.binaryName() : env.getNonNull(sym(prev)) + " " + k.binaryName();
+          });
+    }
+    ConcurrentLazyEnv<ClassSymbol, String, String> env =
+        new ConcurrentLazyEnv<>(completers.buildOrThrow(), EMPTY);
+
+    try (ListeningExecutorService executor = listeningDecorator(newFixedThreadPool(8))) {
+      List<ListenableFuture<String>> futures = new ArrayList<>();
+      for (int i = n - 1; i >= 0; i--) {
+        ClassSymbol sym = sym(i);
+        futures.add(executor.submit(() -> env.getNonNull(sym)));
+      }
+      assertThat(Futures.allAsList(futures).get()).hasSize(n);
+    }
+    assertThat(completions.get()).isEqualTo(n);
+    assertThat(env.getNonNull(sym(2))).isEqualTo("C0 C1 C2");
+    assertThat(env.get(new ClassSymbol("NoSuch"))).isNull();
+    assertThat(env.cyclic()).isFalse();
+  }
+
+  @Test
+  public void cycle() {
+    Completer<ClassSymbol, String, String> first = (e, k) -> e.getNonNull(sym(1));
+    Completer<ClassSymbol, String, String> second = (e, k) -> e.getNonNull(sym(0));
+    ConcurrentLazyEnv<ClassSymbol, String, String> env =
+        new ConcurrentLazyEnv<>(ImmutableMap.of(sym(0), first, sym(1), second), EMPTY);
+    LazyBindingError e = assertThrows(LazyBindingError.class, () -> env.get(sym(0)));
+    assertThat(e).hasMessageThat().isEqualTo("C0 -> C1 -> C0");
+    assertThat(env.cyclic()).isFalse();
+  }
+
+  @Test
+  public void cycleHandledByCompleter() {
+    Completer<ClassSymbol, String, String> first = (e, k) -> "A" + e.getNonNull(sym(1));
+    Completer<ClassSymbol, String, String> second =
+        (e, k) -> {
+          try {
+            return "B" + e.getNonNull(sym(0));
+          } catch (LazyBindingError t) {
+            return "B";
+          }
+        };
+    ConcurrentLazyEnv<ClassSymbol, String, String> env =
+        new ConcurrentLazyEnv<>(ImmutableMap.of(sym(0), first, sym(1), second), EMPTY);
+    assertThat(env.getNonNull(sym(0))).isEqualTo("AB");
+    assertThat(env.getNonNull(sym(1))).isEqualTo("B");
+    assertThat(env.cyclic()).isFalse();
+  }
+
+  @Test
+  public void cycleAcrossThreads() throws Exception {
+    // make sure each thread starts completing its own symbol before asking for the other one
+    CyclicBarrier barrier = new CyclicBarrier(2);
+    Completer<ClassSymbol, String, String> first =
+        (e, k) -> {
+          await(barrier);
+          return e.getNonNull(sym(1));
+        };
+    Completer<ClassSymbol, String, String> second =
+        (e, k) -> {
+          await(barrier);
+          return e.getNonNull(sym(0));
+        };
+    ConcurrentLazyEnv<ClassSymbol, String, String> env =
+        new ConcurrentLazyEnv<>(ImmutableMap.of(sym(0), first, sym(1), second), EMPTY);
+
+    try (ListeningExecutorService executor = listeningDecorator(newFixedThreadPool(2))) {
+      ListenableFuture<String> a = executor.submit(() -> env.getNonNull(sym(0)));
+      ListenableFuture<String> b = executor.submit(() -> env.getNonNull(sym(1)));
+      for (ListenableFuture<String> future : List.of(a, b)) {
+        ExecutionException e = assertThrows(ExecutionException.class, future::get);
+        assertThat(e).hasCauseThat().isInstanceOf(CycleException.class);
+      }
+    }
+    assertThat(env.cyclic()).isTrue();
+  }
+
+  private static void await(CyclicBarrier barrier) {
+    try {
+      barrier.await();
+    } catch (Exception e) {
+      throw new AssertionError(e);
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.turbine.binder.lookup;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.turbine.binder.sym.ClassSymbol;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class PackageFilterTest {
+
+  @Test
+  public void packages() {
+    PackageFilter filter = PackageFilter.of(ImmutableList.of("com/google/common", "java/util"));
+
+    assertThat(filter.mightContainPackage("com/google/common")).isTrue();
+    assertThat(filter.mightContainPackage(ImmutableList.of("com", "google", "common"))).isTrue();
+    assertThat(filter.mightContainPackage("java/util")).isTrue();
+    // enclosing packages are included
+    assertThat(filter.mightContainPackage("com/google")).isTrue();
+    assertThat(filter.mightContainPackage(ImmutableList.of("com"))).isTrue();
+    assertThat(filter.mightContainQualifiedName("java")).isTrue();
+
+    assertThat(filter.mightContainPackage("org/junit")).isFalse();
+    assertThat(filter.mightContainPackage(ImmutableList.of("org", "junit"))).isFalse();
+    assertThat(filter.mightContainQualifiedName("org")).isFalse();
+    assertThat(filter.mightContainPackage("")).isFalse();
+    assertThat(filter.mightContainPackage(ImmutableList.of())).isFalse();
+  }
+
+  @Test
+  public void classes() {
+    PackageFilter filter = PackageFilter.of(ImmutableList.of("com/google/common", ""));
+
+    assertThat(filter.mightContain(new ClassSymbol("com/google/common/Foo"))).isTrue();
+    assertThat(filter.mightContain(new ClassSymbol("com/google/common/Foo$Bar"))).isTrue();
+    assertThat(filter.mightContain(new ClassSymbol("Foo"))).isTrue();
+    assertThat(filter.mightContain(new ClassSymbol("org/junit/Test"))).isFalse();
+    // classes in the default package may have any name
+    assertThat(filter.mightContainQualifiedName("org")).isTrue();
+    assertThat(filter.mightContainPackage("")).isTrue();
+  }
+
+  @Test
+  public void all() {
+    assertThat(PackageFilter.ALL.mightContainPackage("org/junit")).isTrue();
+    assertThat(PackageFilter.ALL.mightContainPackage("")).isTrue();
+    assertThat(PackageFilter.ALL.mightContain(new ClassSymbol("org/junit/Test"))).isTrue();
+    assertThat(PackageFilter.ALL.mightContainQualifiedName("org")).isTrue();
+  }
+
+  @Test
+  public void falsePositives() {
+    List<String> packages = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      packages.add("com/example/p" + i);
+    }
+    PackageFilter filter = PackageFilter.of(packages);
+
+    int falsePositives = 0;
+    for (int i = 0; i < 1000; i++) {
+      assertThat(filter.mightContainPackage("com/example/p" + i)).isTrue();
+      if (filter.mightContainPackage("org/example/p" + i)) {
+        falsePositives++;
+      }
+    }
+    assertThat(falsePositives).isLessThan(10);
+  }
+}
@@ -21,6 +21,7 @@ import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertThrows;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.turbine.binder.sym.ClassSymbol;
 import com.google.turbine.tree.Tree.Ident;
 import java.util.NoSuchElementException;
@@ -109,6 +110,47 @@ public class TopLevelIndexTest {
     assertThrows(NoSuchElementException.class, () -> key.rest());
   }
 
+  @Test
+  public void compoundSkipsFilteredIndices() {
+    LookupStatistics statistics = new LookupStatistics();
+    TopLevelIndex compound =
+        CompoundTopLevelIndex.of(
+            statistics,
+            ImmutableMap.of(
+                "com",
+                SimpleTopLevelIndex.of(ImmutableList.of(new ClassSymbol("com/google/Foo"))),
+                "java",
+                index));
+
+    assertThat(compound.scope().lookup(lookupKey(ImmutableList.of("java", "util", "Map"))).sym())
+        .isEqualTo(new ClassSymbol("java/util/Map"));
+    assertThat(compound.scope().lookup(lookupKey(ImmutableList.of("com", "google", "Foo"))).sym())
+        .isEqualTo(new ClassSymbol("com/google/Foo"));
+    assertThat(compound.lookupPackage(ImmutableList.of("java", "util"))).isNotNull();
+    assertThat(compound.lookupPackage(ImmutableList.of("org"))).isNull();
+
+    LookupStatistics.Layer com = statistics.layers().get(0);
+    assertThat(com.name()).isEqualTo("com");
+    assertThat(com.lookups()).isEqualTo(4);
+    assertThat(com.skipped()).isEqualTo(3);
+    assertThat(com.misses()).isEqualTo(0);
+    LookupStatistics.Layer java = statistics.layers().get(1);
+    assertThat(java.name()).isEqualTo("java");
+    assertThat(java.lookups()).isEqualTo(3);
+    assertThat(java.skipped()).isEqualTo(1);
+    assertThat(java.misses()).isEqualTo(0);
+  }
+
+  @Test
+  public void disabledStatistics() {
+    LookupStatistics.Layer layer = LookupStatistics.DISABLED.layer("com");
+    layer.skip();
+    layer.search(/* found= */ false);
+
+    assertThat(layer.lookups()).isEqualTo(0);
+    assertThat(LookupStatistics.DISABLED.layers()).isEmpty();
+  }
+
   private LookupKey lookupKey(ImmutableList<String> names) {
     ImmutableList.Builder<Ident> result = ImmutableList.builder();
     for (String name : names) {
@@ -526,6 +526,53 @@ public class MainTest {
     assertThat(listDirectoryContents(resources)).containsExactly(resources.resolve("g/Gen.class"));
   }
 
+  @Test
+  public void profile() throws IOException {
+    Path src = temporaryFolder.newFile("Test.java").toPath();
+    MoreFiles.asCharSink(src, UTF_8).write("class Test {}");
+    Path output = temporaryFolder.newFile("output.jar").toPath();
+    Path profile = temporaryFolder.getRoot().toPath().resolve("profile/trace.json");
+
+    Main.compile(
+        optionsWithBootclasspath()
+            .setSources(ImmutableList.of(src.toString()))
+            .setOutput(output.toString())
+            .setProfile(profile.toString())
+            .build());
+
+    String trace = Files.readString(profile, UTF_8);
+    assertThat(trace).startsWith("{\"traceEvents\":[");
+    assertThat(trace).contains("\"name\":\"Main.parseAll\"");
+    assertThat(trace).contains("\"name\":\"Binder.bindTypes\"");
+    assertThat(trace).contains("\"name\":\"Lower.lowerAll\"");
+    assertThat(trace).contains("\"name\":\"Main.writeOutput\"");
+  }
+
+  @Test
+  public void processorStatisticsOutput() throws IOException {
+    Path src = temporaryFolder.newFile("Foo.java").toPath();
+    MoreFiles.asCharSink(src, UTF_8).write("package f; @Deprecated class Foo {}");
+    Path output = temporaryFolder.newFile("output.jar").toPath();
+    Path statistics = temporaryFolder.getRoot().toPath().resolve("stats/processors.json");
+
+    Main.Result result =
+        Main.compile(
+            optionsWithBootclasspath()
+                .setSources(ImmutableList.of(src.toString()))
+                .setOutput(output.toString())
+                .setProcessors(ImmutableList.of(SourceGeneratingProcessor.class.getName()))
+                .setProcessorStatisticsOutput(statistics.toString())
+                .build());
+
+    assertThat(result.processorStatistics().rounds().get(1).processors())
+        .containsKey(SourceGeneratingProcessor.class.getCanonicalName());
+    String json = Files.readString(statistics, UTF_8);
+    assertThat(json).startsWith("{\"rounds\":[");
+    assertThat(json)
+        .contains("\"name\":\"" + SourceGeneratingProcessor.class.getCanonicalName() + "\"");
+    assertThat(json).contains("\"generatedSources\":1");
+  }
+
   private static ImmutableList<Path> listDirectoryContents(Path output) throws IOException {
     ImmutableList.Builder<Path> paths = ImmutableList.builder();
     Files.walkFileTree(
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.turbine.main;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.turbine.testing.TestClassPaths.BOOTCLASSPATH;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableList;
+import com.google.turbine.proto.WorkerProtocol.WorkRequest;
+import com.google.turbine.proto.WorkerProtocol.WorkResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class WorkerTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  /** Runs the worker over the given requests, and returns its responses. */
+  private static ImmutableList<WorkResponse> runWorker(WorkRequest... requests)
+      throws IOException {
+    ByteArrayOutputStream requestBytes = new ByteArrayOutputStream();
+    for (WorkRequest request : requests) {
+      request.writeDelimitedTo(requestBytes);
+    }
+    ByteArrayOutputStream responseBytes = new ByteArrayOutputStream();
+    Worker.run(new ByteArrayInputStream(requestBytes.toByteArray()), responseBytes);
+    ImmutableList.Builder<WorkResponse> responses = ImmutableList.builder();
+    InputStream in = new ByteArrayInputStream(responseBytes.toByteArray());
+    while (true) {
+      WorkResponse response = WorkResponse.parseDelimitedFrom(in);
+      if (response == null) {
+        break;
+      }
+      responses.add(response);
+    }
+    return responses.build();
+  }
+
+  private static WorkRequest request(int requestId, Path source, Path output) {
+    List<String> args = new ArrayList<>();
+    if (!BOOTCLASSPATH.isEmpty()) {
+      args.add("--bootclasspath");
+      for (Path path : BOOTCLASSPATH) {
+        args.add(path.toString());
+      }
+    } else {
+      args.add("--javacopts");
+      args.add("--release");
+      args.add("8");
+      args.add("--");
+    }
+    args.add("--sources");
+    args.add(source.toString());
+    args.add("--output");
+    args.add(output.toString());
+    return WorkRequest.newBuilder().setRequestId(requestId).addAllArguments(args).build();
+  }
+
+  private Path source(String name, String contents) throws IOException {
+    Path path = temporaryFolder.newFile(name).toPath();
+    Files.writeString(path, contents, UTF_8);
+    return path;
+  }
+
+  @Test
+  public void multipleRequests() throws IOException {
+    Path a = source("A.java", "package a; public class A {}");
+    Path b = source("B.java", "package b; public class B {}");
+    Path outputA = temporaryFolder.getRoot().toPath().resolve("a.jar");
+    Path outputB = temporaryFolder.getRoot().toPath().resolve("b.jar");
+
+    ImmutableList<WorkResponse> responses =
+        runWorker(request(0, a, outputA), request(0, b, outputB));
+
+    assertThat(responses).hasSize(2);
+    for (WorkResponse response : responses) {
+      assertThat(response.getExitCode()).isEqualTo(0);
+      assertThat(response.getOutput()).isEmpty();
+    }
+    try (JarFile jf = new JarFile(outputA.toFile())) {
+      assertThat(jf.getEntry("a/A.class")).isNotNull();
+    }
+    try (JarFile jf = new JarFile(outputB.toFile())) {
+      assertThat(jf.getEntry("b/B.class")).isNotNull();
+    }
+  }
+
+  @Test
+  public void errorsAreReportedInResponse() throws IOException {
+    Path source = source("Test.java", "class Test extends NoSuch {}");
+    Path output = temporaryFolder.getRoot().toPath().resolve("out.jar");
+
+    ImmutableList<WorkResponse> responses =
+        runWorker(request(0, source, output), request(0, source, output));
+
+    // the worker keeps going after a failed compilation
+    assertThat(responses).hasSize(2);
+    for (WorkResponse response : responses) {
+      assertThat(response.getExitCode()).isEqualTo(1);
+      assertThat(response.getOutput()).contains("could not resolve NoSuch");
+    }
+  }
+
+  @Test
+  public void multiplexRequests() throws IOException {
+    List<WorkRequest> requests = new ArrayList<>();
+    for (int i = 1; i <= 3; i++) {
+      Path source = source("T" + i + ".java", "package p" + i + "; public class T" + i + " {}");
+      requests.add(request(i, source, temporaryFolder.getRoot().toPath().resolve(i + ".jar")));
+    }
+
+    ImmutableList<WorkResponse> responses = runWorker(requests.toArray(new WorkRequest[0]));
+
+    // responses to multiplexed requests may arrive in any order
+    assertThat(responses.stream().map(WorkResponse::getRequestId).collect(toImmutableList()))
+        .containsExactly(1, 2, 3);
+    for (WorkResponse response : responses) {
+      int i = response.getRequestId();
+      assertThat(response.getExitCode()).isEqualTo(0);
+      assertThat(response.getOutput()).isEmpty();
+      Path output = temporaryFolder.getRoot().toPath().resolve(i + ".jar");
+      try (JarFile jf = new JarFile(output.toFile())) {
+        assertThat(jf.getEntry("p" + i + "/T" + i + ".class")).isNotNull();
+      }
+    }
+  }
+
+  @Test
+  public void emptyInput() throws IOException {
+    assertThat(runWorker()).isEmpty();
+  }
+}
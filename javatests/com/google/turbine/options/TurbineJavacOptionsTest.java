@@ -187,6 +187,38 @@ public class TurbineJavacOptionsTest {
     assertThat(TurbineJavacOptions.parse(ImmutableList.of("-XDnoParallel")).parallel()).isFalse();
   }
 
+  @Test
+  public void parallelMaxThreads() {
+    assertThat(TurbineJavacOptions.parse(ImmutableList.of()).parallelMaxThreads()).isEqualTo(8);
+    assertThat(
+            TurbineJavacOptions.parse(ImmutableList.of("-XDturbine.parallel.max_threads=32"))
+                .parallelMaxThreads())
+        .isEqualTo(32);
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> TurbineJavacOptions.parse(ImmutableList.of("-XDturbine.parallel.max_threads=0")));
+  }
+
+  @Test
+  public void parallelAdaptive() {
+    assertThat(TurbineJavacOptions.parse(ImmutableList.of()).parallelAdaptive()).isFalse();
+    assertThat(
+            TurbineJavacOptions.parse(ImmutableList.of("-XDturbine.parallel.adaptive"))
+                .parallelAdaptive())
+        .isTrue();
+  }
+
+  @Test
+  public void parallelProcessors() {
+    assertThat(TurbineJavacOptions.parse(ImmutableList.of()).parallelProcessors()).isEmpty();
+    assertThat(
+            TurbineJavacOptions.parse(
+                    ImmutableList.of("-XDturbine.processing.parallel=com.foo.A,com.foo.B"))
+                .parallelProcessors())
+        .containsExactly("com.foo.A", "com.foo.B")
+        .inOrder();
+  }
+
   @Test
   public void lowerOptionsDefaults() {
     LowerOptions lowerOptions = TurbineJavacOptions.parse(ImmutableList.of()).lowerOptions();
@@ -323,9 +323,16 @@ public class TurbineOptionsTest {
         TurbineOptionsParser.parse(
             Iterables.concat(
                 BASE_ARGS,
-                ImmutableList.of("--gensrc_output", "gensrc.jar", "--profile", "turbine.prof")));
+                ImmutableList.of(
+                    "--gensrc_output",
+                    "gensrc.jar",
+                    "--profile",
+                    "turbine.prof",
+                    "--processor_statistics_output",
+                    "processors.json")));
     assertThat(options.gensrcOutput()).hasValue("gensrc.jar");
     assertThat(options.profile()).hasValue("turbine.prof");
+    assertThat(options.processorStatisticsOutput()).hasValue("processors.json");
   }
 
   @Test
@@ -422,4 +429,21 @@ public class TurbineOptionsTest {
             Iterables.concat(BASE_ARGS, ImmutableList.of("--javacopts", "-XDnoParallel", "--")));
     assertThat(options.parallel()).isFalse();
   }
+
+  @Test
+  public void classpathIndex() throws Exception {
+    TurbineOptions options = TurbineOptionsParser.parse(BASE_ARGS);
+    assertThat(options.classpathIndex()).isFalse();
+
+    options =
+        TurbineOptionsParser.parse(
+            Iterables.concat(BASE_ARGS, ImmutableList.of("--classpath_index")));
+    assertThat(options.classpathIndex()).isTrue();
+
+    options =
+        TurbineOptionsParser.parse(
+            Iterables.concat(
+                BASE_ARGS, ImmutableList.of("--classpath_index", "--noclasspath_index")));
+    assertThat(options.classpathIndex()).isFalse();
+  }
 }
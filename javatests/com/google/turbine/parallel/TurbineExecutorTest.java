@@ -16,17 +16,26 @@
 
 package com.google.turbine.parallel;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.truth.Truth.assertThat;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static com.google.common.util.concurrent.Uninterruptibles.sleepUninterruptibly;
 import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.junit.Assert.assertThrows;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.turbine.profile.Profiler;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.Set;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CyclicBarrier;
+import java.util.stream.IntStream;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -135,4 +144,171 @@ public class TurbineExecutorTest {
     }
     assertThat(service.isShutdown()).isTrue();
   }
+
+  @Test
+  public void sharedExecutor_closeDoesNotShutDownPool() {
+    ListeningExecutorService service = listeningDecorator(newFixedThreadPool(4));
+    try {
+      for (int i = 0; i < 2; i++) {
+        try (TurbineExecutor executor =
+            TurbineExecutor.shared(service, 4, 0, /* adaptive= */ false)) {
+          ImmutableList<Integer> outputs = executor.map(ImmutableList.of(1, 2, 3), x -> x * 2);
+          assertThat(outputs).containsExactly(2, 4, 6).inOrder();
+        }
+        assertThat(service.isShutdown()).isFalse();
+      }
+    } finally {
+      service.close();
+    }
+  }
+
+  @Test
+  public void adaptive_cheapInputsRunSequentially() {
+    ListeningExecutorService service = listeningDecorator(newFixedThreadPool(4));
+    Thread mainThread = Thread.currentThread();
+    Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    try (TurbineExecutor executor = TurbineExecutor.shared(service, 4, 0, /* adaptive= */ true)) {
+      ImmutableList<Integer> inputs = ImmutableList.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+      ImmutableList<Integer> outputs =
+          executor.map(
+              "double",
+              inputs,
+              x -> {
+                threads.add(Thread.currentThread());
+                return x * 2;
+              });
+      assertThat(outputs).containsExactly(2, 4, 6, 8, 10, 12, 14, 16, 18, 20).inOrder();
+      TurbineExecutor.Decision decision = getOnlyElement(executor.decisions());
+      assertThat(decision.name()).isEqualTo("double");
+      assertThat(decision.inputs()).isEqualTo(10);
+      assertThat(decision.sampled()).isEqualTo(8);
+      assertThat(decision.chunks()).isEqualTo(1);
+    } finally {
+      service.close();
+    }
+    assertThat(threads).containsExactly(mainThread);
+  }
+
+  @Test
+  public void adaptive_expensiveInputsRunInParallel() {
+    ListeningExecutorService service = listeningDecorator(newFixedThreadPool(4));
+    Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    ImmutableList<Integer> inputs = IntStream.range(0, 40).boxed().collect(toImmutableList());
+    try (TurbineExecutor executor = TurbineExecutor.shared(service, 4, 0, /* adaptive= */ true)) {
+      ImmutableList<Integer> outputs =
+          executor.map(
+              "sleep",
+              inputs,
+              x -> {
+                threads.add(Thread.currentThread());
+                sleepUninterruptibly(Duration.ofMillis(2));
+                return x;
+              });
+      assertThat(outputs).isEqualTo(inputs);
+      TurbineExecutor.Decision decision = getOnlyElement(executor.decisions());
+      assertThat(decision.chunks()).isGreaterThan(1);
+      assertThat(decision.estimated()).isAtLeast(Duration.ofMillis(32 * 2));
+    } finally {
+      service.close();
+    }
+    assertThat(threads.size()).isAtLeast(2);
+  }
+
+  @Test
+  public void adaptive_withProfilerHasItsOwnDecisions() {
+    ListeningExecutorService service = listeningDecorator(newFixedThreadPool(4));
+    try (TurbineExecutor executor = TurbineExecutor.shared(service, 4, 0, /* adaptive= */ true)) {
+      TurbineExecutor view = executor.withProfiler(Profiler.NONE);
+      ImmutableList<Integer> unused = view.map(ImmutableList.of(1, 2, 3), x -> x);
+      assertThat(view.decisions()).hasSize(1);
+      assertThat(executor.decisions()).isEmpty();
+    } finally {
+      service.close();
+    }
+  }
+
+  @Test
+  public void submit_parallel() throws Exception {
+    ListeningExecutorService service = listeningDecorator(newFixedThreadPool(2));
+    Thread mainThread = Thread.currentThread();
+    try (TurbineExecutor executor = new TurbineExecutor(service, 2, 0)) {
+      ListenableFuture<Thread> future = executor.submit(Thread::currentThread);
+      assertThat(TurbineExecutor.join(future)).isNotSameInstanceAs(mainThread);
+    }
+  }
+
+  @Test
+  public void submit_direct() throws Exception {
+    try (TurbineExecutor executor = TurbineExecutor.direct()) {
+      ListenableFuture<Thread> future = executor.submit(Thread::currentThread);
+      assertThat(future.isDone()).isTrue();
+      assertThat(TurbineExecutor.join(future)).isSameInstanceAs(Thread.currentThread());
+    }
+  }
+
+  @Test
+  public void join_rethrows() {
+    ListeningExecutorService service = listeningDecorator(newFixedThreadPool(2));
+    try (TurbineExecutor executor = new TurbineExecutor(service, 2, 0)) {
+      ListenableFuture<Object> io =
+          executor.submit(
+              () -> {
+                throw new IOException("io");
+              });
+      assertThat(assertThrows(IOException.class, () -> TurbineExecutor.join(io)))
+          .hasMessageThat()
+          .isEqualTo("io");
+      ListenableFuture<Object> unchecked =
+          executor.submit(
+              () -> {
+                throw new IllegalStateException("unchecked");
+              });
+      assertThat(assertThrows(IllegalStateException.class, () -> TurbineExecutor.join(unchecked)))
+          .hasMessageThat()
+          .isEqualTo("unchecked");
+    }
+  }
+
+  @Test
+  public void partition_splitsFinerThanParallelism() {
+    TurbineExecutor executor = new TurbineExecutor(null, 2, 0);
+    ImmutableList<ImmutableList<Integer>> chunks =
+        executor.partition(ImmutableList.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), x -> 1);
+    // more chunks than threads, so threads that finish early can pick up more work
+    assertThat(chunks.size()).isGreaterThan(2);
+    assertThat(chunks.stream().flatMap(ImmutableList::stream).collect(toImmutableList()))
+        .containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10)
+        .inOrder();
+  }
+
+  @Test
+  public void partition_expensiveInputsGetTheirOwnChunk() {
+    TurbineExecutor executor = new TurbineExecutor(null, 2, 0);
+    ImmutableList<ImmutableList<Integer>> chunks =
+        executor.partition(
+            ImmutableList.of(1, 2, 1000, 3, 4, 5, 6, 7, 8, 2000, 9), x -> x >= 1000 ? x : 1);
+    assertThat(chunks).contains(ImmutableList.of(1000));
+    assertThat(chunks).contains(ImmutableList.of(2000));
+    assertThat(chunks.stream().flatMap(ImmutableList::stream).collect(toImmutableList()))
+        .containsExactly(1, 2, 1000, 3, 4, 5, 6, 7, 8, 2000, 9)
+        .inOrder();
+  }
+
+  @Test
+  public void parallelExecutor_cost() {
+    ListeningExecutorService service = TurbineExecutor.newPool(4);
+    try (TurbineExecutor executor = new TurbineExecutor(service, 4, 0)) {
+      ImmutableList<Integer> inputs = ImmutableList.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+      ImmutableList<Integer> outputs = executor.map("test", inputs, x -> x * x, x -> x * 2);
+      assertThat(outputs).containsExactly(2, 4, 6, 8, 10, 12, 14, 16, 18, 20).inOrder();
+    }
+    assertThat(service.isShutdown()).isTrue();
+  }
+
+  @Test
+  public void parallelism() {
+    assertThat(TurbineExecutor.parallelism(1)).isEqualTo(1);
+    assertThat(TurbineExecutor.parallelism(1024))
+        .isEqualTo(Runtime.getRuntime().availableProcessors());
+  }
 }
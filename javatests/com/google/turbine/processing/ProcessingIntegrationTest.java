@@ -34,11 +34,15 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.turbine.binder.Binder;
 import com.google.turbine.binder.Binder.BindingResult;
+import com.google.turbine.binder.Binder.ProcessorStatistics;
+import com.google.turbine.binder.Binder.RoundStatistics;
 import com.google.turbine.binder.ClassPath;
 import com.google.turbine.binder.ClassPathBinder;
 import com.google.turbine.binder.Processing.ProcessorInfo;
+import com.google.turbine.binder.bound.SourceTypeBoundClass;
 import com.google.turbine.binder.sym.ClassSymbol;
 import com.google.turbine.diag.AnnotationProcessingError;
 import com.google.turbine.diag.SourceFile;
@@ -60,10 +64,13 @@ import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.JarEntry;
 import java.util.jar.JarOutputStream;
 import javax.annotation.processing.AbstractProcessor;
@@ -306,6 +313,50 @@ public class ProcessingIntegrationTest {
         .containsExactly("A: One, Two", "B: One");
   }
 
+  @Test
+  public void getAllAnnotations_members() throws IOException {
+    ImmutableList<Tree.CompUnit> units =
+        parseUnit(
+            "=== A.java ===", //
+            "@interface A {}",
+            "=== B.java ===", //
+            "@interface B {}",
+            "=== One.java ===", //
+            "class One {",
+            "  @A int x;",
+            "  @B void f(@A int p) {}",
+            "  @A class Inner {}",
+            "}",
+            "=== Two.java ===", //
+            "class Two {",
+            "  @A void g() {}",
+            "}");
+    BindingResult bound =
+        Binder.bind(
+            TurbineExecutor.direct(),
+            units,
+            ClassPathBinder.bindClasspath(ImmutableList.of()),
+            ProcessorInfo.create(
+                ImmutableList.of(new ElementsAnnotatedWithProcessor()),
+                getClass().getClassLoader(),
+                ImmutableMap.of(),
+                SourceVersion.latestSupported()),
+            TestClassPaths.TURBINE_BOOTCLASSPATH,
+            Optional.empty());
+
+    assertThat(
+            Splitter.on(System.lineSeparator())
+                .omitEmptyStrings()
+                .split(
+                    new String(
+                        bound.generatedClasses().entrySet().stream()
+                            .filter(s -> s.getKey().equals("output.txt"))
+                            .collect(onlyElement())
+                            .getValue(),
+                        UTF_8)))
+        .containsExactly("A: Inner, p, x, g", "B: f");
+  }
+
   @SupportedAnnotationTypes("*")
   private static class ElementsAnnotatedWithProcessor extends AbstractProcessor {
 
@@ -535,6 +586,420 @@ public class ProcessingIntegrationTest {
     assertThat(bound.generatedSources()).containsKey("A.java");
   }
 
+  @SupportedAnnotationTypes("*")
+  public static class GenerateSuperTypeProcessor extends AbstractProcessor {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+    }
+
+    private boolean first = true;
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      if (first) {
+        try {
+          JavaFileObject file = processingEnv.getFiler().createSourceFile("S");
+          try (Writer writer = file.openWriter()) {
+            writer.write("class S { static final int X = U.Y; }");
+          }
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        first = false;
+      }
+      return false;
+    }
+  }
+
+  @Test
+  public void generatedSuperType_rebindsAffectedClasses() throws IOException {
+    ImmutableList<Tree.CompUnit> units =
+        parseUnit(
+            "=== T.java ===", //
+            "class T extends S {",
+            "  static final int Z = X + 1;",
+            "}",
+            "=== U.java ===",
+            "class U {",
+            "  static final int Y = 41;",
+            "}");
+    BindingResult bound =
+        Binder.bind(
+            TurbineExecutor.direct(),
+            units,
+            ClassPathBinder.bindClasspath(ImmutableList.of()),
+            ProcessorInfo.create(
+                ImmutableList.of(new GenerateSuperTypeProcessor()),
+                getClass().getClassLoader(),
+                ImmutableMap.of(),
+                SourceVersion.latestSupported()),
+            TestClassPaths.TURBINE_BOOTCLASSPATH,
+            Optional.empty());
+    assertThat(bound.units().keySet())
+        .containsExactly(new ClassSymbol("T"), new ClassSymbol("U"), new ClassSymbol("S"));
+    SourceTypeBoundClass t = bound.units().get(new ClassSymbol("T"));
+    assertThat(t.superclass()).isEqualTo(new ClassSymbol("S"));
+    assertThat(t.fields().stream().collect(onlyElement()).value().getValue()).isEqualTo(42);
+  }
+
+  @SupportedAnnotationTypes("*")
+  public static class GenerateManyProcessor extends AbstractProcessor {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+    }
+
+    private int round = 0;
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      if (round < 2) {
+        try {
+          for (int i = 0; i < 100; i++) {
+            String name = "G" + round + "_" + i;
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(name);
+            try (Writer writer = file.openWriter()) {
+              writer.write("class " + name + " extends T {}");
+            }
+          }
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+      round++;
+      return false;
+    }
+  }
+
+  @Test
+  public void generatedSources_parsedInParallel() throws IOException {
+    ImmutableList<Tree.CompUnit> units = parseUnit("=== T.java ===", "class T {}");
+    BindingResult bound;
+    try (TurbineExecutor executor = TurbineExecutor.create(/* parallel= */ true, 0)) {
+      bound =
+          Binder.bind(
+              executor,
+              units,
+              ClassPathBinder.bindClasspath(ImmutableList.of()),
+              ProcessorInfo.create(
+                  ImmutableList.of(new GenerateManyProcessor()),
+                  getClass().getClassLoader(),
+                  ImmutableMap.of(),
+                  SourceVersion.latestSupported()),
+              TestClassPaths.TURBINE_BOOTCLASSPATH,
+              Optional.empty());
+    }
+    assertThat(bound.units()).hasSize(201);
+    assertThat(bound.generatedSources()).hasSize(200);
+    assertThat(bound.units().get(new ClassSymbol("G1_99")).superclass())
+        .isEqualTo(new ClassSymbol("T"));
+  }
+
+  /** Orders the starts and ends of {@link IndependentProcessor}s. */
+  private static final AtomicInteger clock = new AtomicInteger();
+
+  /** Generates some sources and reports a note for each of them in the first round. */
+  abstract static class IndependentProcessor extends AbstractProcessor {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+    }
+
+    private final String prefix;
+    private int round = 0;
+    Thread thread;
+    int started;
+    int finished;
+
+    IndependentProcessor(String prefix) {
+      this.prefix = prefix;
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      if (round++ > 0) {
+        return false;
+      }
+      thread = Thread.currentThread();
+      started = clock.incrementAndGet();
+      TypeElement superclass = processingEnv.getElementUtils().getTypeElement("T");
+      for (int i = 0; i < 10; i++) {
+        String name = prefix + i;
+        try {
+          JavaFileObject file = processingEnv.getFiler().createSourceFile(name);
+          try (Writer writer = file.openWriter()) {
+            writer.write("class " + name + " extends " + superclass.getSimpleName() + " {}");
+          }
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, name);
+      }
+      finished = clock.incrementAndGet();
+      return false;
+    }
+  }
+
+  @SupportedAnnotationTypes("*")
+  public static class FirstIndependentProcessor extends IndependentProcessor {
+    public FirstIndependentProcessor() {
+      super("A");
+    }
+  }
+
+  @SupportedAnnotationTypes("*")
+  public static class SecondIndependentProcessor extends IndependentProcessor {
+    public SecondIndependentProcessor() {
+      super("B");
+    }
+  }
+
+  @Test
+  public void independentProcessors_runConcurrently() throws IOException {
+    ImmutableList<Tree.CompUnit> units = parseUnit("=== T.java ===", "class T {}");
+    FirstIndependentProcessor first = new FirstIndependentProcessor();
+    SecondIndependentProcessor second = new SecondIndependentProcessor();
+    TurbineLog log = new TurbineLog();
+    BindingResult bound;
+    try (TurbineExecutor executor = TurbineExecutor.create(/* parallel= */ true, 0)) {
+      bound =
+          Binder.bind(
+              executor,
+              log,
+              units,
+              ClassPathBinder.bindClasspath(ImmutableList.of()),
+              ProcessorInfo.create(
+                  ImmutableList.of(first, second),
+                  getClass().getClassLoader(),
+                  ImmutableMap.of(),
+                  SourceVersion.latestSupported(),
+                  ImmutableSet.of(
+                      FirstIndependentProcessor.class.getName(),
+                      SecondIndependentProcessor.class.getName())),
+              TestClassPaths.TURBINE_BOOTCLASSPATH,
+              Optional.empty());
+    }
+    assertThat(first.thread).isNotEqualTo(Thread.currentThread());
+    assertThat(second.thread).isNotEqualTo(Thread.currentThread());
+
+    // generated files and diagnostics are recorded in processor order
+    ImmutableList<String> expected =
+        ImmutableList.of(
+            "A0", "A1", "A2", "A3", "A4", "A5", "A6", "A7", "A8", "A9", "B0", "B1", "B2", "B3",
+            "B4", "B5", "B6", "B7", "B8", "B9");
+    assertThat(bound.generatedSources().keySet())
+        .containsExactlyElementsIn(
+            expected.stream().map(n -> n + ".java").collect(toImmutableList()))
+        .inOrder();
+    assertThat(
+            log.diagnostics().stream().map(TurbineDiagnostic::message).collect(toImmutableList()))
+        .containsExactlyElementsIn(expected)
+        .inOrder();
+  }
+
+  @Test
+  public void roundStatistics() throws IOException {
+    ImmutableList<Tree.CompUnit> units = parseUnit("=== T.java ===", "class T {}");
+    BindingResult bound =
+        Binder.bind(
+            TurbineExecutor.direct(),
+            units,
+            ClassPathBinder.bindClasspath(ImmutableList.of()),
+            ProcessorInfo.create(
+                ImmutableList.of(new FirstIndependentProcessor()),
+                getClass().getClassLoader(),
+                ImmutableMap.of(),
+                SourceVersion.latestSupported()),
+            TestClassPaths.TURBINE_BOOTCLASSPATH,
+            Optional.empty());
+
+    // init, the round that generates sources, the round that processes them, and the final round
+    ImmutableList<RoundStatistics> rounds = bound.statistics().rounds();
+    assertThat(rounds.stream().map(RoundStatistics::round).collect(toImmutableList()))
+        .containsExactly(0, 1, 2, 3)
+        .inOrder();
+    String name = FirstIndependentProcessor.class.getCanonicalName();
+    ProcessorStatistics first = rounds.get(1).processors().get(name);
+    assertThat(first.generatedSources()).isEqualTo(10);
+    assertThat(first.generatedClasses()).isEqualTo(0);
+    assertThat(first.generatedResources()).isEqualTo(0);
+    assertThat(first.elementsQueried()).isAtLeast(1);
+    assertThat(rounds.get(1).rebindTime()).isGreaterThan(Duration.ZERO);
+    assertThat(rounds.get(2).processors().get(name).generatedSources()).isEqualTo(0);
+  }
+
+  @SupportedAnnotationTypes("*")
+  public static class SerialProcessor extends IndependentProcessor {
+    public SerialProcessor() {
+      super("S");
+    }
+  }
+
+  @Test
+  public void independentProcessors_runAfterEarlierProcessors() throws IOException {
+    SerialProcessor serial = new SerialProcessor();
+    FirstIndependentProcessor first = new FirstIndependentProcessor();
+    SecondIndependentProcessor second = new SecondIndependentProcessor();
+    ImmutableList<String> messages = runIndependentProcessors(serial, first, second);
+
+    assertThat(first.thread).isNotEqualTo(Thread.currentThread());
+    assertThat(second.thread).isNotEqualTo(Thread.currentThread());
+    assertThat(serial.finished).isLessThan(first.started);
+    assertThat(serial.finished).isLessThan(second.started);
+    assertThat(messages).hasSize(30);
+    assertThat(messages.get(0)).isEqualTo("S0");
+    assertThat(messages.get(10)).isEqualTo("A0");
+    assertThat(messages.get(20)).isEqualTo("B0");
+  }
+
+  @Test
+  public void independentProcessors_separatedBySerialProcessor() throws IOException {
+    FirstIndependentProcessor first = new FirstIndependentProcessor();
+    SerialProcessor serial = new SerialProcessor();
+    SecondIndependentProcessor second = new SecondIndependentProcessor();
+    ImmutableList<String> messages = runIndependentProcessors(first, serial, second);
+
+    // processors that aren't next to another concurrent processor run in order
+    assertThat(first.finished).isLessThan(serial.started);
+    assertThat(serial.finished).isLessThan(second.started);
+    assertThat(messages).hasSize(30);
+    assertThat(messages.get(0)).isEqualTo("A0");
+    assertThat(messages.get(10)).isEqualTo("S0");
+    assertThat(messages.get(20)).isEqualTo("B0");
+  }
+
+  /**
+   * Runs the given processors, with {@link FirstIndependentProcessor} and {@link
+   * SecondIndependentProcessor} allowed to run concurrently, and returns the reported messages.
+   */
+  private ImmutableList<String> runIndependentProcessors(Processor... processors)
+      throws IOException {
+    ImmutableList<Tree.CompUnit> units = parseUnit("=== T.java ===", "class T {}");
+    TurbineLog log = new TurbineLog();
+    try (TurbineExecutor executor = TurbineExecutor.create(/* parallel= */ true, 0)) {
+      Binder.bind(
+          executor,
+          log,
+          units,
+          ClassPathBinder.bindClasspath(ImmutableList.of()),
+          ProcessorInfo.create(
+              ImmutableList.copyOf(processors),
+              getClass().getClassLoader(),
+              ImmutableMap.of(),
+              SourceVersion.latestSupported(),
+              ImmutableSet.of(
+                  FirstIndependentProcessor.class.getName(),
+                  SecondIndependentProcessor.class.getName())),
+          TestClassPaths.TURBINE_BOOTCLASSPATH,
+          Optional.empty());
+    }
+    return log.diagnostics().stream().map(TurbineDiagnostic::message).collect(toImmutableList());
+  }
+
+  @SupportedAnnotationTypes("*")
+  public static class EnclosedElementsProcessor extends AbstractProcessor {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+    }
+
+    private final Map<String, List<? extends Element>> enclosed = new HashMap<>();
+    private int round = 0;
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      if (roundEnv.processingOver()) {
+        return false;
+      }
+      for (String name : List.of("java.lang.Object", "T")) {
+        List<? extends Element> elements =
+            processingEnv.getElementUtils().getTypeElement(name).getEnclosedElements();
+        List<? extends Element> previous = enclosed.put(name, elements);
+        if (previous != null) {
+          processingEnv
+              .getMessager()
+              .printMessage(
+                  Diagnostic.Kind.ERROR,
+                  name + " " + (previous == elements ? "reused" : "recomputed"));
+        }
+      }
+      if (round++ == 0) {
+        try {
+          JavaFileObject file = processingEnv.getFiler().createSourceFile("G");
+          try (Writer writer = file.openWriter()) {
+            writer.write("class G {}");
+          }
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+      return false;
+    }
+  }
+
+  @Test
+  public void classPathModelReusedAcrossRounds() throws IOException {
+    ImmutableList<Tree.CompUnit> units = parseUnit("=== T.java ===", "class T {}");
+    TurbineError e = runProcessors(units, new EnclosedElementsProcessor());
+    ImmutableList<String> diags =
+        e.diagnostics().stream().map(d -> d.message()).collect(toImmutableList());
+    assertThat(diags).containsExactly("java.lang.Object reused", "T recomputed");
+  }
+
+  @SupportedAnnotationTypes("*")
+  public static class SubtypeProcessor extends AbstractProcessor {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      if (roundEnv.processingOver()) {
+        return false;
+      }
+      TypeMirror t = processingEnv.getElementUtils().getTypeElement("T").asType();
+      TypeMirror list =
+          processingEnv
+              .getTypeUtils()
+              .erasure(processingEnv.getElementUtils().getTypeElement("java.util.List").asType());
+      for (int i = 0; i < 3; i++) {
+        if (!processingEnv.getTypeUtils().isSubtype(t, list)) {
+          throw new AssertionError();
+        }
+      }
+      return false;
+    }
+  }
+
+  @Test
+  public void typeQueriesMemoized() throws IOException {
+    ImmutableList<Tree.CompUnit> units =
+        parseUnit(
+            "=== T.java ===", //
+            "abstract class T implements java.util.List<String> {}");
+    BindingResult bound =
+        Binder.bind(
+            TurbineExecutor.direct(),
+            units,
+            ClassPathBinder.bindClasspath(ImmutableList.of()),
+            ProcessorInfo.create(
+                ImmutableList.of(new SubtypeProcessor()),
+                getClass().getClassLoader(),
+                ImmutableMap.of(),
+                SourceVersion.latestSupported()),
+            TestClassPaths.TURBINE_BOOTCLASSPATH,
+            Optional.empty());
+    assertThat(bound.statistics().typeQueries())
+        .containsEntry("isSubtype", new TurbineTypes.MemoStats(/* hits= */ 2, /* misses= */ 1));
+  }
+
   @SupportedAnnotationTypes("*")
   public static class GenerateQualifiedProcessor extends AbstractProcessor {
 
@@ -308,6 +308,9 @@ public class TurbineElementsGetAllMembersTest {
 
     assertThat(formatElements(turbineMembers))
         .containsExactlyElementsIn(formatElements(javacMembers));
+    // the members are computed once for each type
+    assertThat(turbineElements.getAllMembers(factory.typeElement(new ClassSymbol("Test"))))
+        .isSameInstanceAs(turbineMembers);
   }
 
   private static ImmutableList<String> formatElements(Collection<? extends Element> elements) {
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.turbine.profile;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableMap;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ProfilerTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void write() throws Exception {
+    Profiler profiler = Profiler.create();
+    try (Profiler.Span outer = profiler.span("outer")) {
+      try (Profiler.Span inner = profiler.span("inner \"quoted\"")) {}
+    }
+    Thread thread =
+        new Thread(
+            () -> {
+              try (Profiler.Span span = profiler.span("background")) {}
+            },
+            "background-thread");
+    thread.start();
+    thread.join();
+
+    Path path = temporaryFolder.getRoot().toPath().resolve("trace.json");
+    profiler.write(path);
+
+    String trace = Files.readString(path, UTF_8);
+    assertThat(trace).startsWith("{\"traceEvents\":[");
+    assertThat(trace).endsWith("],\"displayTimeUnit\":\"ms\"}\n");
+    assertThat(trace).contains("\"name\":\"outer\",\"cat\":\"turbine\",\"ph\":\"X\"");
+    assertThat(trace).contains("\"name\":\"inner \\\"quoted\\\"\"");
+    assertThat(trace).contains("\"name\":\"background\"");
+    assertThat(trace)
+        .contains("\"tid\":" + thread.threadId() + ",\"args\":{\"name\":\"background-thread\"}");
+    // events are sorted by start time
+    assertThat(trace.indexOf("\"name\":\"outer\"")).isLessThan(trace.indexOf("\"name\":\"inner"));
+  }
+
+  @Test
+  public void counter() throws Exception {
+    Profiler profiler = Profiler.create();
+    profiler.counter("lookups", ImmutableMap.of("found", 3L, "misses", 1L));
+
+    Path path = temporaryFolder.getRoot().toPath().resolve("trace.json");
+    profiler.write(path);
+
+    String trace = Files.readString(path, UTF_8);
+    assertThat(trace).contains("\"name\":\"lookups\",\"cat\":\"turbine\",\"ph\":\"C\"");
+    assertThat(trace).contains("\"args\":{\"found\":3,\"misses\":1}");
+  }
+
+  @Test
+  public void none() throws Exception {
+    assertThat(Profiler.NONE.enabled()).isFalse();
+    try (Profiler.Span span = Profiler.NONE.span("ignored")) {}
+    Profiler.NONE.counter("ignored", ImmutableMap.of("count", 1L));
+
+    Path path = temporaryFolder.getRoot().toPath().resolve("trace.json");
+    Profiler.NONE.write(path);
+
+    assertThat(Files.readString(path, UTF_8))
+        .isEqualTo("{\"traceEvents\":[],\"displayTimeUnit\":\"ms\"}\n");
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.turbine.zip;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOError;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** {@link ArchivePool}Test */
+@RunWith(JUnit4.class)
+public class ArchivePoolTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private Path writeJar(String name, String... entries) throws IOException {
+    Path path = temporaryFolder.newFile(name).toPath();
+    try (JarOutputStream jos = new JarOutputStream(Files.newOutputStream(path))) {
+      for (String entry : entries) {
+        jos.putNextEntry(new JarEntry(entry));
+        jos.write(entry.getBytes(UTF_8));
+      }
+    }
+    return path;
+  }
+
+  private static ImmutableList<Zip.Entry> entries(Path path, ArchivePool pool)
+      throws IOException {
+    return ImmutableList.copyOf(new Zip.ZipIterable(path, pool));
+  }
+
+  private static String data(Zip.Entry entry) {
+    return new String(entry.data(), UTF_8);
+  }
+
+  @Test
+  public void closesLeastRecentlyUsed() throws Exception {
+    ArchivePool pool = ArchivePool.create(1);
+    ImmutableList<Zip.Entry> a = entries(writeJar("a.jar", "a1", "a2"), pool);
+    ImmutableList<Zip.Entry> b = entries(writeJar("b.jar", "b1"), pool);
+
+    assertThat(pool.openCount()).isEqualTo(1);
+    // archives that were closed are reopened when they're read
+    assertThat(data(a.get(0))).isEqualTo("a1");
+    assertThat(data(b.get(0))).isEqualTo("b1");
+    assertThat(data(a.get(1))).isEqualTo("a2");
+    assertThat(pool.openCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void release() throws Exception {
+    ArchivePool pool = ArchivePool.create(10);
+    ImmutableList<Zip.Entry> a = entries(writeJar("a.jar", "a1"), pool);
+    ImmutableList<Zip.Entry> b = entries(writeJar("b.jar", "b1"), pool);
+    assertThat(pool.openCount()).isEqualTo(2);
+
+    pool.release();
+
+    assertThat(pool.openCount()).isEqualTo(0);
+    assertThat(data(b.get(0))).isEqualTo("b1");
+    assertThat(pool.openCount()).isEqualTo(1);
+    assertThat(data(a.get(0))).isEqualTo("a1");
+  }
+
+  @Test
+  public void reopenChangedArchive() throws Exception {
+    ArchivePool pool = ArchivePool.create(10);
+    Path path = writeJar("a.jar", "a1");
+    ImmutableList<Zip.Entry> entries = entries(path, pool);
+    pool.release();
+
+    Files.write(path, new byte[] {1, 2, 3});
+
+    IOError e = assertThrows(IOError.class, () -> entries.get(0).data());
+    assertThat(e).hasCauseThat().isInstanceOf(ZipException.class);
+    assertThat(e).hasCauseThat().hasMessageThat().contains("changed since it was first opened");
+  }
+
+  @Test
+  public void invalidArchive() throws Exception {
+    ArchivePool pool = ArchivePool.create(10);
+    Path path = temporaryFolder.newFile("a.jar").toPath();
+    Files.write(path, new byte[100]);
+
+    assertThrows(AssertionError.class, () -> new Zip.ZipIterable(path, pool));
+
+    assertThat(pool.openCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void unbounded() throws Exception {
+    ImmutableList<Zip.Entry> a = entries(writeJar("a.jar", "a1"), ArchivePool.UNBOUNDED);
+
+    ArchivePool.UNBOUNDED.release();
+
+    assertThat(ArchivePool.UNBOUNDED.openCount()).isEqualTo(0);
+    assertThat(data(a.get(0))).isEqualTo("a1");
+  }
+}
@@ -80,6 +80,34 @@ public class ZipTest {
     assertThat(actual(path)).isEqualTo(expected(path));
   }
 
+  @Test
+  public void compressionSizes() throws Exception {
+    Path path = temporaryFolder.newFile("test.jar").toPath();
+    try (JarOutputStream jos = new JarOutputStream(Files.newOutputStream(path))) {
+      for (int i = 0; i < 20; i++) {
+        String name = "entry" + i;
+        // include an empty entry, and entries larger than the inflater's internal buffers
+        byte[] bytes = new byte[i * 10000];
+        for (int j = 0; j < bytes.length; j++) {
+          bytes[j] = (byte) (j * i % 7);
+        }
+        jos.putNextEntry(new JarEntry(name));
+        jos.write(bytes);
+      }
+    }
+    assertThat(actual(path)).isEqualTo(expected(path));
+
+    // entries can be read concurrently, each thread inflating with its own inflater
+    List<Zip.Entry> entries = new ArrayList<>();
+    new Zip.ZipIterable(path).forEach(entries::add);
+    Map<String, Long> expected = expected(path);
+    entries.parallelStream()
+        .forEach(
+            e ->
+                assertThat(Hashing.goodFastHash(128).hashBytes(e.data()).padToLong())
+                    .isEqualTo(expected.get(e.name())));
+  }
+
   private void testEntries(int entries) throws IOException {
     Path path = temporaryFolder.newFile("test.jar").toPath();
     try (JarOutputStream jos = new JarOutputStream(Files.newOutputStream(path))) {
@@ -328,6 +356,27 @@ public class ZipTest {
     assertThat(actual(path)).isEqualTo(expected(path));
   }
 
+  @Test
+  public void prefixedArchive() throws Exception {
+    Path zip = temporaryFolder.newFile("test.jar").toPath();
+    try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(zip))) {
+      createEntry(zos, "hello", "world".getBytes(UTF_8));
+      createEntry(zos, "goodbye", "world".getBytes(UTF_8));
+    }
+    // e.g. a self-extracting archive, whose central directory isn't at the offset in the EOCD
+    Path path = temporaryFolder.newFile("prefixed.jar").toPath();
+    Files.write(path, new byte[1000]);
+    Files.write(path, Files.readAllBytes(zip), StandardOpenOption.APPEND);
+
+    List<String> names = new ArrayList<>();
+    try (Zip.ZipIterable zipIterable = new Zip.ZipIterable(path)) {
+      for (Zip.Entry entry : zipIterable) {
+        names.add(entry.name());
+      }
+    }
+    assertThat(names).containsExactly("hello", "goodbye").inOrder();
+  }
+
   @Test
   public void zip64Offset() throws Exception {
     Path path = temporaryFolder.newFile("test.jar").toPath();